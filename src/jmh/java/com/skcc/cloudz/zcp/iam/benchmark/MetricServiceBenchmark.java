@@ -0,0 +1,188 @@
+package com.skcc.cloudz.zcp.iam.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.skcc.cloudz.zcp.iam.api.metric.service.MetricService;
+import com.skcc.cloudz.zcp.iam.api.metric.vo.ClusterStatusMetricsVO;
+import com.skcc.cloudz.zcp.iam.api.metric.vo.PodsStatusMetricsVO;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+import com.skcc.cloudz.zcp.iam.common.model.ClusterRole;
+import com.skcc.cloudz.zcp.iam.common.model.V1alpha1NodeMetricList;
+import com.skcc.cloudz.zcp.iam.common.model.ZcpNamespaceList;
+import com.skcc.cloudz.zcp.iam.common.model.ZcpNodeList;
+import com.skcc.cloudz.zcp.iam.fixture.KubeFixtures;
+import com.skcc.cloudz.zcp.iam.manager.KeyCloakManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeMetricManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeRbacAuthzManager;
+
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.models.V1ClusterRoleBinding;
+import io.kubernetes.client.models.V1NamespaceList;
+import io.kubernetes.client.models.V1NodeList;
+import io.kubernetes.client.models.V1PodList;
+import io.kubernetes.client.models.V1ResourceQuotaList;
+import io.kubernetes.client.models.V1RoleBindingList;
+import io.kubernetes.client.models.V1RoleRef;
+
+/**
+ * The aggregation of MetricService over the synthetic lists. The managers
+ * return the lists without any call, so only the loops of the service are
+ * measured. There is a namespace per 100 pods and 5 rolebindings per namespace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricServiceBenchmark {
+
+	private static final String USER_ID = "benchmark-user";
+
+	@Param({ "10", "100", "1000" })
+	private int nodes;
+
+	@Param({ "10000", "100000" })
+	private int pods;
+
+	private MetricService metricService;
+
+	private FanOutExecutor fanOutExecutor;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		int namespaces = pods / 100;
+		KubeFixtures fixtures = new KubeFixtures();
+		V1NodeList nodeList = fixtures.nodes(nodes);
+		V1PodList podList = fixtures.pods(pods, nodes, namespaces);
+		V1NamespaceList namespaceList = fixtures.namespaces(namespaces);
+		V1ResourceQuotaList resourceQuotaList = fixtures.resourceQuotas(namespaces);
+		V1RoleBindingList roleBindingList = fixtures.roleBindings(namespaces, 5);
+		V1alpha1NodeMetricList nodeMetricList = fixtures.nodeMetrics(nodes);
+
+		ApiClient client = new ApiClient();
+		KubeCoreManager kubeCoreManager = new KubeCoreManager(client) {
+			@Override
+			public V1NodeList getNodeList() {
+				return nodeList;
+			}
+
+			@Override
+			public V1PodList getAllPodList() {
+				return podList;
+			}
+
+			@Override
+			public V1PodList getNonTerminatedPodList() {
+				return podList;
+			}
+
+			@Override
+			public V1NamespaceList getNamespaceList() {
+				return namespaceList;
+			}
+
+			@Override
+			public V1ResourceQuotaList getAllResourceQuotaList() {
+				return resourceQuotaList;
+			}
+		};
+
+		KubeRbacAuthzManager kubeRbacAuthzManager = new KubeRbacAuthzManager(client) {
+			@Override
+			public V1RoleBindingList getRoleBindingListAllNamespaces() {
+				return roleBindingList;
+			}
+
+			@Override
+			public V1RoleBindingList getRoleBindingListByUsername(String username) {
+				return new V1RoleBindingList();
+			}
+
+			@Override
+			public V1ClusterRoleBinding getClusterRoleBindingByUsername(String username) {
+				V1ClusterRoleBinding clusterRoleBinding = new V1ClusterRoleBinding();
+				clusterRoleBinding.setRoleRef(new V1RoleRef().name(ClusterRole.CLUSTER_ADMIN.getRole()));
+				return clusterRoleBinding;
+			}
+		};
+
+		KubeMetricManager kubeMetricManager = new KubeMetricManager(client) {
+			@Override
+			public V1alpha1NodeMetricList listNodeMetrics() {
+				return nodeMetricList;
+			}
+		};
+
+		KeyCloakManager keyCloakManager = new KeyCloakManager() {
+			@Override
+			public UserRepresentation getUser(String id) {
+				UserRepresentation user = new UserRepresentation();
+				user.setId(id);
+				user.setUsername(KubeFixtures.userName(0));
+				return user;
+			}
+		};
+
+		fanOutExecutor = new FanOutExecutor();
+		ReflectionTestUtils.setField(fanOutExecutor, "threads", 4);
+		ReflectionTestUtils.setField(fanOutExecutor, "queueSize", 16);
+		ReflectionTestUtils.setField(fanOutExecutor, "timeoutSeconds", 60L);
+		fanOutExecutor.init();
+
+		metricService = new MetricService();
+		ReflectionTestUtils.setField(metricService, "keyCloakManager", keyCloakManager);
+		ReflectionTestUtils.setField(metricService, "fanOutExecutor", fanOutExecutor);
+		ReflectionTestUtils.setField(metricService, "kubeMetircManager", kubeMetricManager);
+		ReflectionTestUtils.setField(metricService, "kubeCoreManager", kubeCoreManager);
+		ReflectionTestUtils.setField(metricService, "kubeRbacAuthzManager", kubeRbacAuthzManager);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		fanOutExecutor.destroy();
+	}
+
+	@Benchmark
+	public ZcpNodeList getNodes() throws ZcpException {
+		return metricService.getNodes();
+	}
+
+	@Benchmark
+	public ZcpNamespaceList getNamespaces() throws ZcpException {
+		return metricService.getNamespaces(USER_ID);
+	}
+
+	@Benchmark
+	public PodsStatusMetricsVO getPodsStatusMetrics() throws ZcpException {
+		return metricService.getPodsStatusMetrics(null);
+	}
+
+	@Benchmark
+	public ClusterStatusMetricsVO getClusterCpuMetrics() throws ZcpException {
+		return metricService.getClusterMetrics("cpu");
+	}
+
+	@Benchmark
+	public ClusterStatusMetricsVO getClusterMemoryMetrics() throws ZcpException {
+		return metricService.getClusterMetrics("memory");
+	}
+}
@@ -0,0 +1,82 @@
+package com.skcc.cloudz.zcp.iam.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.skcc.cloudz.zcp.iam.common.util.NumberUtils;
+
+/**
+ * The formatters of NumberUtils, which are called several times per node and
+ * per namespace. Each call takes the next value of a fixed set of the values in
+ * the ranges of the real cpu (cores) and memory (bytes) values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NumberUtilsBenchmark {
+
+	private static final int SIZE = 1024;
+
+	private final double[] cpus = new double[SIZE];
+
+	private final double[] memories = new double[SIZE];
+
+	private int index;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		for (int i = 0; i < SIZE; i++) {
+			// 0 to 64 cores with the millicores
+			cpus[i] = random.nextInt(64000) / 1000d;
+			// 1Gi to 256Gi
+			memories[i] = (1L << 30) + (long) (random.nextDouble() * (255L << 30));
+		}
+	}
+
+	private int next() {
+		index = (index + 1) & (SIZE - 1);
+		return index;
+	}
+
+	@Benchmark
+	public String formatCpu() {
+		return NumberUtils.formatCpu(cpus[next()]);
+	}
+
+	@Benchmark
+	public BigDecimal formatCpuWithoutUnit() {
+		return NumberUtils.formatCpuWithoutUnit(cpus[next()]);
+	}
+
+	@Benchmark
+	public String formatMemory() {
+		return NumberUtils.formatMemory(memories[next()]);
+	}
+
+	@Benchmark
+	public BigDecimal formatMemoryWithoutUnit() {
+		return NumberUtils.formatMemoryWithoutUnit(memories[next()]);
+	}
+
+	@Benchmark
+	public BigDecimal percent() {
+		int i = next();
+		return NumberUtils.percent(cpus[i], cpus[(i + 1) & (SIZE - 1)] + 1);
+	}
+}
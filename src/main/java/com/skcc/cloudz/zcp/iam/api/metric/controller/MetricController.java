@@ -10,10 +10,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.skcc.cloudz.zcp.iam.api.metric.service.MetricHistoryService;
 import com.skcc.cloudz.zcp.iam.api.metric.service.MetricService;
+import com.skcc.cloudz.zcp.iam.api.metric.service.MetricStreamService;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.ClusterStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.DeploymentsStatusMetricsVO;
+import com.skcc.cloudz.zcp.iam.api.metric.vo.MetricHistoryVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.NodesStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.PodsStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.UsersStatusMetricsVO;
@@ -32,11 +37,22 @@ public class MetricController {
 	@Autowired
 	private MetricService metricService;
 
+	@Autowired
+	private MetricStreamService metricStreamService;
+
+	@Autowired
+	private MetricHistoryService metricHistoryService;
+
 	@RequestMapping(value = "/metrics/namespaces", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-	public Response<ZcpNamespaceList> getNamespaces(@RequestParam(required = true, value = "userId") String userId)
-			throws Exception {
+	public Response<ZcpNamespaceList> getNamespaces(@RequestParam(required = true, value = "userId") String userId,
+			WebRequest webRequest) throws Exception {
+		ZcpNamespaceList namespaceList = metricService.getNamespaces(userId);
+		if (namespaceList.getEtag() != null && webRequest.checkNotModified(namespaceList.getEtag())) {
+			return null;
+		}
+
 		Response<ZcpNamespaceList> response = new Response<>();
-		response.setData(metricService.getNamespaces(userId));
+		response.setData(namespaceList);
 
 		return response;
 	}
@@ -92,4 +108,36 @@ public class MetricController {
 		return response;
 	}
 
+	/**
+	 * @param resolution raw, 1m, 5m or 1h (default raw)
+	 */
+	@RequestMapping(value = "/metrics/cluster/{type}/history", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public Response<MetricHistoryVO> getClusterHistory(@PathVariable("type") String type,
+			@RequestParam(required = false, value = "resolution") String resolution) throws Exception {
+		Response<MetricHistoryVO> response = new Response<>();
+		response.setData(metricHistoryService.getClusterHistory(type, resolution));
+
+		return response;
+	}
+
+	@RequestMapping(value = "/metrics/nodes/{node}/history", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public Response<MetricHistoryVO> getNodeHistory(@PathVariable("node") String node,
+			@RequestParam(required = false, value = "type", defaultValue = "cpu") String type,
+			@RequestParam(required = false, value = "resolution") String resolution) throws Exception {
+		Response<MetricHistoryVO> response = new Response<>();
+		response.setData(metricHistoryService.getNodeHistory(node, type, resolution));
+
+		return response;
+	}
+
+	/**
+	 * The events are named by the sections (pods, deployments, nodes, users,
+	 * cluster-cpu, cluster-memory) and the data is the same as the response of
+	 * the status apis, the Response envelope included.
+	 */
+	@RequestMapping(value = "/metrics/stream", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamMetrics() throws Exception {
+		return metricStreamService.subscribe();
+	}
+
 }
@@ -0,0 +1,149 @@
+package com.skcc.cloudz.zcp.iam.api.metric.service;
+
+import java.util.concurrent.TimeUnit;
+
+import com.skcc.cloudz.zcp.iam.api.metric.vo.MetricHistoryVO;
+
+/**
+ * The usage and allocatable history of one resource (cpu or memory) of the
+ * cluster or of a node.
+ *
+ * The samples are kept in the fixed size ring buffers of the primitive arrays,
+ * and are rolled up (averaged) into the 1m, 5m and 1h buffers. The buffers are
+ * written by the sampler thread and read by the request threads.
+ */
+public class MetricHistory {
+
+	public enum Resolution {
+		RAW("raw", 0, 240),
+		ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1), 360),
+		FIVE_MINUTES("5m", TimeUnit.MINUTES.toMillis(5), 288),
+		ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1), 168);
+
+		private final String label;
+		private final long bucketMillis;
+		private final int capacity;
+
+		private Resolution(String label, long bucketMillis, int capacity) {
+			this.label = label;
+			this.bucketMillis = bucketMillis;
+			this.capacity = capacity;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		public static Resolution getResolution(String label) {
+			for (Resolution resolution : values()) {
+				if (resolution.label.equals(label)) {
+					return resolution;
+				}
+			}
+			return null;
+		}
+	}
+
+	private final RingBuffer[] buffers = new RingBuffer[Resolution.values().length];
+
+	private final Rollup[] rollups = new Rollup[Resolution.values().length];
+
+	public MetricHistory() {
+		for (Resolution resolution : Resolution.values()) {
+			buffers[resolution.ordinal()] = new RingBuffer(resolution.capacity);
+			if (resolution.bucketMillis > 0) {
+				rollups[resolution.ordinal()] = new Rollup(resolution.bucketMillis);
+			}
+		}
+	}
+
+	public synchronized void add(long timestamp, double usage, double allocatable) {
+		buffers[Resolution.RAW.ordinal()].add(timestamp, usage, allocatable);
+		for (Resolution resolution : Resolution.values()) {
+			Rollup rollup = rollups[resolution.ordinal()];
+			if (rollup != null) {
+				rollup.add(timestamp, usage, allocatable, buffers[resolution.ordinal()]);
+			}
+		}
+	}
+
+	public synchronized MetricHistoryVO toVO(Resolution resolution) {
+		RingBuffer buffer = buffers[resolution.ordinal()];
+		int size = buffer.size;
+
+		MetricHistoryVO vo = new MetricHistoryVO();
+		vo.setResolution(resolution.getLabel());
+		vo.setTimestamps(new long[size]);
+		vo.setUsage(new double[size]);
+		vo.setAllocatable(new double[size]);
+		// from the oldest to the latest
+		int start = (buffer.next - size + buffer.capacity) % buffer.capacity;
+		for (int i = 0; i < size; i++) {
+			int index = (start + i) % buffer.capacity;
+			vo.getTimestamps()[i] = buffer.timestamps[index];
+			vo.getUsage()[i] = buffer.usage[index];
+			vo.getAllocatable()[i] = buffer.allocatable[index];
+		}
+
+		return vo;
+	}
+
+	private static class RingBuffer {
+		private final int capacity;
+		private final long[] timestamps;
+		private final double[] usage;
+		private final double[] allocatable;
+		private int next;
+		private int size;
+
+		RingBuffer(int capacity) {
+			this.capacity = capacity;
+			this.timestamps = new long[capacity];
+			this.usage = new double[capacity];
+			this.allocatable = new double[capacity];
+		}
+
+		void add(long timestamp, double usageValue, double allocatableValue) {
+			timestamps[next] = timestamp;
+			usage[next] = usageValue;
+			allocatable[next] = allocatableValue;
+			next = (next + 1) % capacity;
+			if (size < capacity) {
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * Averages the samples of the current bucket, and writes the average to the
+	 * buffer when a sample of the next bucket arrives.
+	 */
+	private static class Rollup {
+		private final long bucketMillis;
+		private long bucketStart = -1;
+		private double usageSum;
+		private double allocatableSum;
+		private int count;
+
+		Rollup(long bucketMillis) {
+			this.bucketMillis = bucketMillis;
+		}
+
+		void add(long timestamp, double usage, double allocatable, RingBuffer buffer) {
+			long start = timestamp - timestamp % bucketMillis;
+			if (start != bucketStart) {
+				if (count > 0) {
+					buffer.add(bucketStart, usageSum / count, allocatableSum / count);
+				}
+				bucketStart = start;
+				usageSum = 0;
+				allocatableSum = 0;
+				count = 0;
+			}
+
+			usageSum += usage;
+			allocatableSum += allocatable;
+			count++;
+		}
+	}
+}
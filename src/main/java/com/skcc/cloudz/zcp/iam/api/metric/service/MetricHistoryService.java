@@ -0,0 +1,198 @@
+package com.skcc.cloudz.zcp.iam.api.metric.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.skcc.cloudz.zcp.iam.api.metric.service.MetricHistory.Resolution;
+import com.skcc.cloudz.zcp.iam.api.metric.vo.MetricHistoryVO;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+import com.skcc.cloudz.zcp.iam.common.model.V1alpha1NodeMetric;
+import com.skcc.cloudz.zcp.iam.common.model.V1alpha1NodeMetricList;
+import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeMetricManager;
+
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.models.V1Node;
+import io.kubernetes.client.models.V1NodeList;
+
+/**
+ * Samples the cpu and memory usage and allocatable of the cluster and of each
+ * node in the background, so the history apis are served from memory.
+ */
+@Service
+public class MetricHistoryService {
+
+	private final Logger logger = LoggerFactory.getLogger(MetricHistoryService.class);
+
+	private static final String CLUSTER_KEY = "";
+
+	@Value("${zcp.metrics.history.enabled:true}")
+	private boolean enabled;
+
+	@Value("${zcp.metrics.history.sampleSeconds:15}")
+	private long sampleSeconds;
+
+	@Autowired
+	private KubeMetricManager kubeMetricManager;
+
+	@Autowired
+	private KubeCoreManager kubeCoreManager;
+
+	private final Map<String, MetricHistory> cpuHistories = new ConcurrentHashMap<>();
+
+	private final Map<String, MetricHistory> memoryHistories = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService scheduler;
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			logger.info("The metric history is disabled");
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "metric-history");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleAtFixedRate(this::sample, 0, sampleSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	public MetricHistoryVO getClusterHistory(String type, String resolution) throws ZcpException {
+		return getHistory(CLUSTER_KEY, type, resolution);
+	}
+
+	public MetricHistoryVO getNodeHistory(String nodeName, String type, String resolution) throws ZcpException {
+		MetricHistoryVO vo = getHistory(nodeName, type, resolution);
+		if (vo == null) {
+			throw new ZcpException("ZCP-009", "The history of node(" + nodeName + ") does not exist");
+		}
+		return vo;
+	}
+
+	private MetricHistoryVO getHistory(String key, String type, String resolutionName) throws ZcpException {
+		if (!StringUtils.equals(type, "cpu") && !StringUtils.equals(type, "memory")) {
+			throw new ZcpException("001", "Unsupported type(" + type + ")");
+		}
+
+		Resolution resolution = Resolution.getResolution(StringUtils.defaultIfEmpty(resolutionName, "raw"));
+		if (resolution == null) {
+			throw new ZcpException("001", "Unsupported resolution(" + resolutionName + ")");
+		}
+
+		boolean isCpu = StringUtils.equals(type, "cpu");
+		MetricHistory history = (isCpu ? cpuHistories : memoryHistories).get(key);
+		if (history == null) {
+			return CLUSTER_KEY.equals(key) ? emptyHistory(resolution) : null;
+		}
+
+		MetricHistoryVO vo = history.toVO(resolution);
+		vo.setTitle(isCpu ? "CPU" : "Memory");
+		vo.setUnit(isCpu ? "Core" : "Byte");
+		return vo;
+	}
+
+	private MetricHistoryVO emptyHistory(Resolution resolution) {
+		return new MetricHistory().toVO(resolution);
+	}
+
+	// an exception which is thrown out of a scheduled task stops its next runs
+	private void sample() {
+		try {
+			sampleNodes();
+		} catch (RuntimeException e) {
+			logger.warn("The node metrics could not be sampled", e);
+		}
+	}
+
+	private void sampleNodes() {
+		V1alpha1NodeMetricList nodeMetricList = null;
+		V1NodeList nodeList = null;
+		try {
+			nodeMetricList = kubeMetricManager.listNodeMetrics();
+			nodeList = kubeCoreManager.getNodeList();
+		} catch (Exception e) {
+			logger.warn("The node metrics could not be sampled. {}", e.getMessage());
+			return;
+		}
+
+		long timestamp = System.currentTimeMillis();
+
+		Set<String> nodeNames = new HashSet<>();
+		Map<String, double[]> usages = new HashMap<>();
+		for (V1alpha1NodeMetric nodeMetric : nodeMetricList.getItems()) {
+			// an incomplete item is skipped instead of the whole sample
+			if (nodeMetric.getMetadata() == null || nodeMetric.getUsage() == null) {
+				continue;
+			}
+			usages.put(nodeMetric.getMetadata().getName(), new double[] {
+					valueOf(nodeMetric.getUsage().getCpu()), valueOf(nodeMetric.getUsage().getMemory()) });
+		}
+
+		double clusterCpuUsage = 0, clusterMemoryUsage = 0, clusterCpuAllocatable = 0, clusterMemoryAllocatable = 0;
+		for (V1Node node : nodeList.getItems()) {
+			if (node.getMetadata() == null) {
+				continue;
+			}
+			String nodeName = node.getMetadata().getName();
+			nodeNames.add(nodeName);
+			Map<String, Quantity> allocatable = node.getStatus() == null ? null : node.getStatus().getAllocatable();
+			double cpuAllocatable = allocatable == null ? 0 : valueOf(allocatable.get("cpu"));
+			double memoryAllocatable = allocatable == null ? 0 : valueOf(allocatable.get("memory"));
+			double[] usage = usages.get(nodeName);
+			double cpuUsage = usage == null ? 0 : usage[0];
+			double memoryUsage = usage == null ? 0 : usage[1];
+
+			historyOf(cpuHistories, nodeName).add(timestamp, cpuUsage, cpuAllocatable);
+			historyOf(memoryHistories, nodeName).add(timestamp, memoryUsage, memoryAllocatable);
+
+			clusterCpuUsage += cpuUsage;
+			clusterMemoryUsage += memoryUsage;
+			clusterCpuAllocatable += cpuAllocatable;
+			clusterMemoryAllocatable += memoryAllocatable;
+		}
+
+		historyOf(cpuHistories, CLUSTER_KEY).add(timestamp, clusterCpuUsage, clusterCpuAllocatable);
+		historyOf(memoryHistories, CLUSTER_KEY).add(timestamp, clusterMemoryUsage, clusterMemoryAllocatable);
+
+		// the removed nodes
+		for (String key : cpuHistories.keySet()) {
+			if (!CLUSTER_KEY.equals(key) && !nodeNames.contains(key)) {
+				cpuHistories.remove(key);
+				memoryHistories.remove(key);
+			}
+		}
+	}
+
+	private MetricHistory historyOf(Map<String, MetricHistory> histories, String key) {
+		return histories.computeIfAbsent(key, k -> new MetricHistory());
+	}
+
+	private double valueOf(Quantity quantity) {
+		return quantity == null ? 0 : quantity.getNumber().doubleValue();
+	}
+}
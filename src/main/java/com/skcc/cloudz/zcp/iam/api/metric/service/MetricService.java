@@ -20,9 +20,12 @@ import com.skcc.cloudz.zcp.iam.api.metric.vo.DeploymentsStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.NodesStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.PodsStatusMetricsVO;
 import com.skcc.cloudz.zcp.iam.api.metric.vo.UsersStatusMetricsVO;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor.Task;
 import com.skcc.cloudz.zcp.iam.common.exception.KeyCloakException;
 import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
 import com.skcc.cloudz.zcp.iam.common.model.ClusterRole;
+import com.skcc.cloudz.zcp.iam.common.model.ComputeResources;
 import com.skcc.cloudz.zcp.iam.common.model.DeploymentStatus;
 import com.skcc.cloudz.zcp.iam.common.model.DeploymentStatusMetric;
 import com.skcc.cloudz.zcp.iam.common.model.NodeStatus;
@@ -38,7 +41,9 @@ import com.skcc.cloudz.zcp.iam.common.model.ZcpNamespaceList;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpNode;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpNodeList;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUser;
+import com.skcc.cloudz.zcp.iam.common.util.ETagBuilder;
 import com.skcc.cloudz.zcp.iam.common.util.NumberUtils;
+import com.skcc.cloudz.zcp.iam.common.util.QuantityUtils;
 import com.skcc.cloudz.zcp.iam.manager.KeyCloakManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeAppsManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
@@ -47,9 +52,7 @@ import com.skcc.cloudz.zcp.iam.manager.KubeRbacAuthzManager;
 import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
 
 import io.kubernetes.client.ApiException;
-import io.kubernetes.client.custom.Quantity;
 import io.kubernetes.client.models.V1ClusterRoleBinding;
-import io.kubernetes.client.models.V1Container;
 import io.kubernetes.client.models.V1Namespace;
 import io.kubernetes.client.models.V1NamespaceList;
 import io.kubernetes.client.models.V1Node;
@@ -74,6 +77,9 @@ public class MetricService {
 	@Autowired
 	private KeyCloakManager keyCloakManager;
 
+	@Autowired
+	private FanOutExecutor fanOutExecutor;
+
 	@Autowired
 	private KubeMetricManager kubeMetircManager;
 
@@ -96,94 +102,41 @@ public class MetricService {
 			throw new ZcpException("ZCP-009", e.getMessage());
 		}
 
+		// list the running pods once and group them by node instead of listing per node
+		V1PodList podList = null;
+		try {
+			podList = kubeCoreManager.getNonTerminatedPodList();
+		} catch (ApiException e) {
+			e.printStackTrace();
+			throw new ZcpException("ZCP-009", e.getMessage());
+		}
+
+		Map<String, NodeResourceUsage> nodeUsages = NodeResourceUsage.groupByNode(podList.getItems());
+
 		List<V1Node> nodes = nodeList.getItems();
 		List<ZcpNode> zcpNodes = new ArrayList<>();
 		for (V1Node node : nodes) {
 			String nodeName = node.getMetadata().getName();
 			Map<String, String> labels = node.getMetadata().getLabels();
-			Map<String, Quantity> allocatable = node.getStatus().getAllocatable();
-			BigDecimal allocatableCpu = allocatable.get("cpu").getNumber();
-			BigDecimal allocatableMem = allocatable.get("memory").getNumber();
-
-			// Map<String, Quantity> capacity = node.getStatus().getCapacity();
-			logger.debug("Node name is {}", nodeName);
-			logger.debug("Node role is {}", labels.get("role"));
-			logger.debug("allocatable memory is {}", allocatableCpu);
-			logger.debug("allocatable cpu is {}", ((Quantity) allocatable.get("memory")).getNumber());
-
-			V1PodList pods = getPodListByNode(nodeName);
-
-			double totalCpuRequests = 0;
-			double totalMemRequests = 0;
-			double totalCpuLimits = 0;
-			double totalMemLimits = 0;
-			for (V1Pod pod : pods.getItems()) {
-				List<V1Container> containers = pod.getSpec().getContainers();
-				for (V1Container container : containers) {
-					Map<String, Quantity> requests = container.getResources().getRequests();
-					if (requests != null) {
-						Quantity cpuRequests = requests.get("cpu");
-						if (cpuRequests != null) {
-							logger.debug("cpu request is {}", cpuRequests.toSuffixedString());
-							totalCpuRequests += cpuRequests.getNumber().doubleValue();
-						}
-						Quantity memoryRequests = requests.get("memory");
-						if (memoryRequests != null) {
-							logger.debug("memory request is {}", memoryRequests.toSuffixedString());
-							totalMemRequests += memoryRequests.getNumber().doubleValue();
-						}
-					}
+			ComputeResources allocatable = ComputeResources.of(node.getStatus().getAllocatable());
 
-					Map<String, Quantity> limits = container.getResources().getLimits();
-					if (limits != null) {
-						Quantity cpulimits = limits.get("cpu");
-						if (cpulimits != null) {
-							logger.debug("cpu limits is {}", cpulimits.toSuffixedString());
-							totalCpuLimits += cpulimits.getNumber().doubleValue();
-						}
-						Quantity memorylimits = limits.get("memory");
-						if (memorylimits != null) {
-							logger.debug("cpu limits is {}", memorylimits.toSuffixedString());
-							totalMemLimits += memorylimits.getNumber().doubleValue();
-						}
-					}
-				}
+			NodeResourceUsage usage = nodeUsages.get(nodeName);
+			if (usage == null) {
+				usage = NodeResourceUsage.EMPTY;
 			}
 
-			logger.debug("total cpu requests is {}", totalCpuRequests);
-			logger.debug("total mem requests is {}", totalMemRequests);
-			logger.debug("total cpu limits is {}", totalCpuLimits);
-			logger.debug("total mem limits is {}", totalMemLimits);
-
-			logger.debug("CPU Requests = {}, Mem Requests = {}, CPU limits = {}, Mem limits = {}",
-					NumberUtils.percent(totalCpuRequests, allocatableCpu.doubleValue()),
-					NumberUtils.percent(totalMemRequests, allocatableMem.doubleValue()),
-					NumberUtils.percent(totalCpuLimits, allocatableCpu.doubleValue()),
-					NumberUtils.percent(totalMemLimits, allocatableMem.doubleValue()));
-
-			logger.debug("------------------------------------------------");
+			// the values are formatted only when the debug log is enabled
+			logger.debug("Node name is {}, role is {}", nodeName, labels.get("role"));
+			logger.debug("allocatable is {}, requests is {}, limits is {}", allocatable, usage.getRequests(),
+					usage.getLimits());
 
 			ZcpNode zcpNode = new ZcpNode();
 			zcpNode.setNodeName(nodeName);
 			setNodeStatus(node, zcpNode);
 			zcpNode.setCreationTime(new Date(node.getMetadata().getCreationTimestamp().getMillis()));
-			zcpNode.setAllocatableCpu(allocatableCpu);
-			zcpNode.setAllocatableCpuString(NumberUtils.formatCpu(allocatableCpu.doubleValue()));
-			zcpNode.setAllocatableMemory(allocatableMem);
-			zcpNode.setAllocatableMemoryString(NumberUtils.formatMemory(allocatableMem.doubleValue()));
-
-			zcpNode.setCpuLimits(BigDecimal.valueOf(totalCpuLimits));
-			zcpNode.setCpuLimitsString(NumberUtils.formatCpu(totalCpuLimits));
-			zcpNode.setCpuRequests(BigDecimal.valueOf(totalCpuRequests));
-			zcpNode.setCpuRequestsString(NumberUtils.formatCpu(totalCpuRequests));
-			zcpNode.setMemoryLimits(BigDecimal.valueOf(totalMemLimits));
-			zcpNode.setMemoryLimitsString(NumberUtils.formatMemory(totalMemLimits));
-			zcpNode.setMemoryRequests(BigDecimal.valueOf(totalMemRequests));
-			zcpNode.setMemoryRequestsString(NumberUtils.formatMemory(totalMemRequests));
-			zcpNode.setCpuLimitsPercentage(NumberUtils.percent(totalCpuLimits, allocatableCpu.doubleValue()));
-			zcpNode.setCpuRequestsPercentage(NumberUtils.percent(totalCpuRequests, allocatableCpu.doubleValue()));
-			zcpNode.setMemoryLimitsPercentage(NumberUtils.percent(totalMemLimits, allocatableMem.doubleValue()));
-			zcpNode.setMemoryRequestsPercentage(NumberUtils.percent(totalMemRequests, allocatableMem.doubleValue()));
+			zcpNode.setAllocatable(allocatable);
+			zcpNode.setRequests(usage.getRequests());
+			zcpNode.setLimits(usage.getLimits());
 
 			zcpNodes.add(zcpNode);
 		}
@@ -192,6 +145,14 @@ public class MetricService {
 	}
 
 	public ZcpNamespaceList getNamespaces(String userId) throws ZcpException {
+		// the namespace resources do not depend on the user, so they are fetched while the user is checked
+		Task<V1NamespaceList> namespaceListTask = fanOutExecutor.submit("namespaces",
+				() -> kubeCoreManager.getNamespaceList());
+		Task<V1ResourceQuotaList> resourceQuotaListTask = fanOutExecutor.submit("resourcequotas",
+				() -> kubeCoreManager.getAllResourceQuotaList());
+		Task<Map<String, List<V1RoleBinding>>> mappedRoleBindingsTask = fanOutExecutor.submit("rolebindings",
+				() -> getMappedRoleBindings());
+
 		// check user
 		UserRepresentation userRepresentation = null;
 		try {
@@ -203,6 +164,9 @@ public class MetricService {
 		String username = userRepresentation.getUsername();
 		logger.debug("keyclock username is - {}", username);
 
+		Task<V1RoleBindingList> userRoleBindingListTask = fanOutExecutor.submit("user rolebindings",
+				() -> kubeRbacAuthzManager.getRoleBindingListByUsername(username));
+
 		// check clusterrolebinding
 		V1ClusterRoleBinding userClusterRoleBinding = null;
 		try {
@@ -226,7 +190,7 @@ public class MetricService {
 		if (!isClusterAdmin && isAdmin) {
 			List<V1RoleBinding> userRoleBindings = null;
 			try {
-				userRoleBindings = kubeRbacAuthzManager.getRoleBindingListByUsername(username).getItems();
+				userRoleBindings = userRoleBindingListTask.get(ApiException.class).getItems();
 			} catch (ApiException e1) {
 				throw new ZcpException("ZCP-0001");
 			}
@@ -243,7 +207,7 @@ public class MetricService {
 		// get all namespace list
 		V1NamespaceList v1NamespaceList = null;
 		try {
-			v1NamespaceList = kubeCoreManager.getNamespaceList();
+			v1NamespaceList = namespaceListTask.get(ApiException.class);
 		} catch (ApiException e) {
 			logger.debug("There is no namespace");
 			return new ZcpNamespaceList(new ArrayList<ZcpNamespace>());
@@ -251,14 +215,14 @@ public class MetricService {
 
 		V1ResourceQuotaList v1ResourceQuotaList = null;
 		try {
-			v1ResourceQuotaList = kubeCoreManager.getAllResourceQuotaList();
+			v1ResourceQuotaList = resourceQuotaListTask.get(ApiException.class);
 		} catch (ApiException e) {
 			// we can ignore this case
 			logger.debug("There is no resource quotas");
 		}
 
 		Map<String, V1ResourceQuota> mappedResourceQuotas = getMappedResoruceQuotas(v1ResourceQuotaList);
-		Map<String, List<V1RoleBinding>> mappedRolebindins = getMappedRoleBindings();
+		Map<String, List<V1RoleBinding>> mappedRolebindins = mappedRoleBindingsTask.get();
 		List<ZcpNamespace> zcpNamespaces = new ArrayList<>();
 
 		for (V1Namespace namespace : v1NamespaceList.getItems()) {
@@ -281,51 +245,10 @@ public class MetricService {
 				logger.debug("hard is {}", hard);
 				logger.debug("used is {}", used);
 
-				String sHardRequestsCpu = hard.get("requests.cpu") == null ? "0" : hard.get("requests.cpu");
-				String sUsedRequestsCpu = used.get("requests.cpu") == null ? "0" : used.get("requests.cpu");
-				String sHardLimitsCpu = hard.get("limits.cpu") == null ? "0" : hard.get("limits.cpu");
-				String sUsedLimitsCpu = used.get("limits.cpu") == null ? "0" : used.get("limits.cpu");
-
-				String sHardRequestsMemory = hard.get("requests.memory") == null ? "0" : hard.get("requests.memory");
-				String sUsedRequestsMemory = used.get("requests.memory") == null ? "0" : used.get("requests.memory");
-				String sHardLimitsMemory = hard.get("limits.memory") == null ? "0" : hard.get("limits.memory");
-				String sUsedLimitsMemory = used.get("limits.memory") == null ? "0" : used.get("limits.memory");
-
-				BigDecimal hardRequestsCpu = Quantity.fromString(sHardRequestsCpu).getNumber();
-				BigDecimal usedRequestsCpu = Quantity.fromString(sUsedRequestsCpu).getNumber();
-				zcpNamespace.setHardCpuRequests(hardRequestsCpu);
-				zcpNamespace.setUsedCpuRequests(usedRequestsCpu);
-				zcpNamespace.setHardCpuRequestsString(NumberUtils.formatCpu(hardRequestsCpu.doubleValue()));
-				zcpNamespace.setUsedCpuRequestsString(NumberUtils.formatCpu(usedRequestsCpu.doubleValue()));
-				zcpNamespace.setCpuRequestsPercentage(
-						NumberUtils.percent(usedRequestsCpu.doubleValue(), hardRequestsCpu.doubleValue()));
-
-				BigDecimal hardLimitsCpu = Quantity.fromString(sHardLimitsCpu).getNumber();
-				BigDecimal usedLimitsCpu = Quantity.fromString(sUsedLimitsCpu).getNumber();
-				zcpNamespace.setHardCpuLimits(hardLimitsCpu);
-				zcpNamespace.setUsedCpuLimits(usedLimitsCpu);
-				zcpNamespace.setHardCpuLimitsString(NumberUtils.formatCpu(hardLimitsCpu.doubleValue()));
-				zcpNamespace.setUsedCpuLimitsString(NumberUtils.formatCpu(usedLimitsCpu.doubleValue()));
-				zcpNamespace.setCpuLimitsPercentage(
-						NumberUtils.percent(usedLimitsCpu.doubleValue(), hardLimitsCpu.doubleValue()));
-
-				BigDecimal hardRequestsMemory = Quantity.fromString(sHardRequestsMemory).getNumber();
-				BigDecimal usedRequestsMemory = Quantity.fromString(sUsedRequestsMemory).getNumber();
-				zcpNamespace.setHardMemoryRequests(hardRequestsMemory);
-				zcpNamespace.setUsedMemoryRequests(usedRequestsMemory);
-				zcpNamespace.setHardMemoryRequestsString(NumberUtils.formatMemory(hardRequestsMemory.doubleValue()));
-				zcpNamespace.setUsedMemoryRequestsString(NumberUtils.formatMemory(usedRequestsMemory.doubleValue()));
-				zcpNamespace.setMemoryRequestsPercentage(
-						NumberUtils.percent(usedRequestsMemory.doubleValue(), hardRequestsMemory.doubleValue()));
-
-				BigDecimal hardLimitsMemory = Quantity.fromString(sHardLimitsMemory).getNumber();
-				BigDecimal usedLimitsMemory = Quantity.fromString(sUsedLimitsMemory).getNumber();
-				zcpNamespace.setHardMemoryLimits(hardLimitsMemory);
-				zcpNamespace.setUsedMemoryLimits(usedLimitsMemory);
-				zcpNamespace.setHardMemoryLimitsString(NumberUtils.formatMemory(hardLimitsMemory.doubleValue()));
-				zcpNamespace.setUsedMemoryLimitsString(NumberUtils.formatMemory(usedLimitsMemory.doubleValue()));
-				zcpNamespace.setMemoryLimitsPercentage(
-						NumberUtils.percent(usedLimitsMemory.doubleValue(), hardLimitsMemory.doubleValue()));
+				zcpNamespace.setHardRequests(ComputeResources.parse(hard, "requests.cpu", "requests.memory"));
+				zcpNamespace.setUsedRequests(ComputeResources.parse(used, "requests.cpu", "requests.memory"));
+				zcpNamespace.setHardLimits(ComputeResources.parse(hard, "limits.cpu", "limits.memory"));
+				zcpNamespace.setUsedLimits(ComputeResources.parse(used, "limits.cpu", "limits.memory"));
 			}
 
 			if (!isClusterAdmin && isAdmin) {
@@ -337,7 +260,22 @@ public class MetricService {
 			}
 		}
 
-		return new ZcpNamespaceList(zcpNamespaces);
+		// the user rolebindings are a part of all the rolebindings
+		List<V1RoleBinding> roleBindings = new ArrayList<>();
+		for (List<V1RoleBinding> namespacedRoleBindings : mappedRolebindins.values()) {
+			roleBindings.addAll(namespacedRoleBindings);
+		}
+		ETagBuilder etagBuilder = new ETagBuilder().add(userId).add(userClusterRole)
+				.addResources(v1NamespaceList.getItems(), V1Namespace::getMetadata)
+				.addResources(roleBindings, V1RoleBinding::getMetadata);
+		if (v1ResourceQuotaList != null) {
+			etagBuilder.addResources(v1ResourceQuotaList.getItems(), V1ResourceQuota::getMetadata);
+		}
+
+		ZcpNamespaceList namespaceList = new ZcpNamespaceList(zcpNamespaces);
+		namespaceList.setEtag(etagBuilder.build());
+
+		return namespaceList;
 	}
 
 	public ClusterStatusMetricsVO getClusterMetrics(String type) throws ZcpException {
@@ -353,7 +291,7 @@ public class MetricService {
 			throw new ZcpException("ZCP-009", e.getMessage());
 		}
 
-		BigDecimal utilization = calcluateUtilization(nodeMetricList, type);
+		long utilization = calcluateUtilization(nodeMetricList, type);
 
 		V1NodeList nodeList = null;
 
@@ -364,25 +302,25 @@ public class MetricService {
 			throw new ZcpException("ZCP-009", e.getMessage());
 		}
 
-		BigDecimal allocatable = calcluateAllocatable(nodeList, type);
+		long allocatable = calcluateAllocatable(nodeList, type);
 
-		BigDecimal available = new BigDecimal(allocatable.doubleValue() - utilization.doubleValue());
+		long available = allocatable - utilization;
 
 		ClusterStatusMetricsVO vo = new ClusterStatusMetricsVO();
 		if (StringUtils.equals(type, "cpu")) {
 			vo.setTitle("CPU");
 			vo.setUnit("Core");
-			vo.setAvailable(NumberUtils.formatCpuWithoutUnit(available.doubleValue()));
-			vo.setTotal(NumberUtils.formatCpuWithoutUnit(allocatable.doubleValue()));
-			vo.setUtilization(NumberUtils.formatCpuWithoutUnit(utilization.doubleValue()));
-			vo.setUtilizationPercentage(NumberUtils.percent(utilization.doubleValue(), allocatable.doubleValue()));
+			vo.setAvailable(NumberUtils.formatCpuWithoutUnit(QuantityUtils.toCores(available)));
+			vo.setTotal(NumberUtils.formatCpuWithoutUnit(QuantityUtils.toCores(allocatable)));
+			vo.setUtilization(NumberUtils.formatCpuWithoutUnit(QuantityUtils.toCores(utilization)));
+			vo.setUtilizationPercentage(NumberUtils.percent(utilization, allocatable));
 		} else {
 			vo.setTitle("Memory");
 			vo.setUnit("Gi");
-			vo.setAvailable(NumberUtils.formatMemoryWithoutUnit(available.doubleValue()));
-			vo.setTotal(NumberUtils.formatMemoryWithoutUnit(allocatable.doubleValue()));
-			vo.setUtilization(NumberUtils.formatMemoryWithoutUnit(utilization.doubleValue()));
-			vo.setUtilizationPercentage(NumberUtils.percent(utilization.doubleValue(), allocatable.doubleValue()));
+			vo.setAvailable(NumberUtils.formatMemoryWithoutUnit(available));
+			vo.setTotal(NumberUtils.formatMemoryWithoutUnit(allocatable));
+			vo.setUtilization(NumberUtils.formatMemoryWithoutUnit(utilization));
+			vo.setUtilizationPercentage(NumberUtils.percent(utilization, allocatable));
 		}
 		vo.setUtilizationTitle("Utilization");
 
@@ -515,21 +453,27 @@ public class MetricService {
 		for (V1Pod pod : pods) {
 			String phase = pod.getStatus().getPhase();
 
-			for (PodStatus status : PodStatus.values()) {
-				if (StringUtils.equals(phase, status.name())) {
-					PodStatusMetric psm = statuesMetrics.get(status);
-					if (psm != null) {
-						psm.increaseCount();
-					} else {
-						psm = new PodStatusMetric();
-						psm.setStatus(status);
-						psm.setCount(1);
-						statuesMetrics.put(status, psm);
-					}
-				} else {
-					logger.warn("This phase(" + phase + ") does not exist in PodStatus. Please check it");
+			PodStatus status = null;
+			for (PodStatus candidate : PodStatus.values()) {
+				if (StringUtils.equals(phase, candidate.name())) {
+					status = candidate;
+					break;
 				}
 			}
+			if (status == null) {
+				logger.warn("This phase(" + phase + ") does not exist in PodStatus. Please check it");
+				continue;
+			}
+
+			PodStatusMetric psm = statuesMetrics.get(status);
+			if (psm != null) {
+				psm.increaseCount();
+			} else {
+				psm = new PodStatusMetric();
+				psm.setStatus(status);
+				psm.setCount(1);
+				statuesMetrics.put(status, psm);
+			}
 		}
 
 		PodsStatusMetricsVO vo = new PodsStatusMetricsVO();
@@ -574,38 +518,40 @@ public class MetricService {
 		return vo;
 	}
 
-	private BigDecimal calcluateAllocatable(V1NodeList nodeList, String type) {
-		double allocatable = 0d;
+	// the millicores or the bytes
+	private long calcluateAllocatable(V1NodeList nodeList, String type) {
+		long allocatable = 0;
 		for (V1Node node : nodeList.getItems()) {
-			double data = 0d;
+			long data = 0;
 			if (StringUtils.equals(type, "cpu")) {
-				data = node.getStatus().getAllocatable().get("cpu").getNumber().doubleValue();
+				data = QuantityUtils.toMillicores(node.getStatus().getAllocatable().get("cpu"));
 			} else {
-				data = node.getStatus().getAllocatable().get("memory").getNumber().doubleValue();
+				data = QuantityUtils.toBytes(node.getStatus().getAllocatable().get("memory"));
 			}
 			allocatable += data;
 			logger.debug("Allocatable ::: {} - {}'s value is {}, sum is {}", node.getMetadata().getName(), type, data,
 					allocatable);
 		}
 
-		return new BigDecimal(allocatable);
+		return allocatable;
 	}
 
-	private BigDecimal calcluateUtilization(V1alpha1NodeMetricList nodeMetricList, String type) {
-		double utilization = 0d;
+	// the millicores or the bytes
+	private long calcluateUtilization(V1alpha1NodeMetricList nodeMetricList, String type) {
+		long utilization = 0;
 		for (V1alpha1NodeMetric nodeMetric : nodeMetricList.getItems()) {
-			double data = 0d;
+			long data = 0;
 			if (StringUtils.equals(type, "cpu")) {
-				data = nodeMetric.getUsage().getCpu().getNumber().doubleValue();
+				data = QuantityUtils.toMillicores(nodeMetric.getUsage().getCpu());
 			} else {
-				data = nodeMetric.getUsage().getMemory().getNumber().doubleValue();
+				data = QuantityUtils.toBytes(nodeMetric.getUsage().getMemory());
 			}
 			utilization += data;
 			logger.debug("Utilizaion ::: {} - {}'s value is {}, sum is {}", nodeMetric.getMetadata().getName(), type,
 					data, utilization);
 		}
 
-		return new BigDecimal(utilization);
+		return utilization;
 	}
 
 	private Map<String, V1ResourceQuota> getMappedResoruceQuotas(V1ResourceQuotaList v1ResourceQuotaList) {
@@ -673,19 +619,6 @@ public class MetricService {
 		}
 	}
 
-	private V1PodList getPodListByNode(String nodeName) throws ZcpException {
-		V1PodList podList = null;
-
-		try {
-			podList = kubeCoreManager.getPodListByNode(nodeName);
-		} catch (ApiException e) {
-			e.printStackTrace();
-			throw new ZcpException("ZCP-009", e.getMessage());
-		}
-
-		return podList;
-	}
-
 	private Map<DeploymentStatus, DeploymentStatusMetric> getDeploymentsStatusMap() {
 		Map<DeploymentStatus, DeploymentStatusMetric> statuesMetrics = new HashMap<>();
 
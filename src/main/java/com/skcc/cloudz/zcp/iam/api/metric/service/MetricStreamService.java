@@ -0,0 +1,250 @@
+package com.skcc.cloudz.zcp.iam.api.metric.service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor.Task;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+import com.skcc.cloudz.zcp.iam.common.vo.Response;
+
+/**
+ * Pushes the dashboard metrics to the subscribers by server-sent events.
+ *
+ * The snapshot is computed once per interval only while there are subscribers,
+ * so the upstream calls do not grow with the number of the open dashboards. A
+ * section (the event name) is sent only when it has changed, and a new
+ * subscriber receives all the sections of the last snapshot first. The data of
+ * an event is wrapped in the {@link Response} like the status apis.
+ *
+ * The events are queued per subscriber and written by a sender thread of the
+ * subscriber, so a slow client does not hold up the refresh nor the others. A
+ * subscriber whose queue is full is dropped.
+ */
+@Service
+public class MetricStreamService {
+
+	private final Logger logger = LoggerFactory.getLogger(MetricStreamService.class);
+
+	public static final String PODS_SECTION = "pods";
+	public static final String DEPLOYMENTS_SECTION = "deployments";
+	public static final String NODES_SECTION = "nodes";
+	public static final String USERS_SECTION = "users";
+	public static final String CLUSTER_CPU_SECTION = "cluster-cpu";
+	public static final String CLUSTER_MEMORY_SECTION = "cluster-memory";
+
+	@Value("${zcp.metrics.stream.intervalSeconds:10}")
+	private long intervalSeconds;
+
+	@Value("${zcp.metrics.stream.timeoutMinutes:30}")
+	private long timeoutMinutes;
+
+	@Value("${zcp.metrics.stream.queueSize:32}")
+	private int queueSize;
+
+	@Autowired
+	private MetricService metricService;
+
+	@Autowired
+	private FanOutExecutor fanOutExecutor;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+	// accessed only by the scheduler thread
+	private final Map<String, String> lastSections = new LinkedHashMap<>();
+
+	private long lastRefreshedAt;
+
+	private ScheduledExecutorService scheduler;
+
+	private ExecutorService sender;
+
+	@PostConstruct
+	public void start() {
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "metric-stream");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::refreshIfSubscribed, intervalSeconds, intervalSeconds,
+				TimeUnit.SECONDS);
+		// at most one thread per subscriber, which is blocked only by its own client
+		sender = Executors.newCachedThreadPool(r -> {
+			Thread thread = new Thread(r, "metric-stream-sender");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void stop() {
+		scheduler.shutdownNow();
+		sender.shutdownNow();
+		for (Subscriber subscriber : subscribers) {
+			subscriber.emitter.complete();
+		}
+	}
+
+	public SseEmitter subscribe() {
+		Subscriber subscriber = new Subscriber(new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes)),
+				Math.max(1, queueSize));
+		subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+		subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+
+		// the events are queued only by the scheduler thread to keep the order of them
+		scheduler.execute(() -> {
+			if (System.currentTimeMillis() - lastRefreshedAt >= TimeUnit.SECONDS.toMillis(intervalSeconds)) {
+				refresh();
+			}
+			for (Map.Entry<String, String> section : lastSections.entrySet()) {
+				if (!enqueue(subscriber, section.getKey(), section.getValue())) {
+					break;
+				}
+			}
+		});
+
+		logger.debug("A metric stream has been subscribed. subscribers is {}", subscribers.size());
+
+		return subscriber.emitter;
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	private void refreshIfSubscribed() {
+		if (!subscribers.isEmpty()) {
+			refresh();
+		}
+	}
+
+	private void refresh() {
+		lastRefreshedAt = System.currentTimeMillis();
+
+		Map<String, Task<?>> tasks = new LinkedHashMap<>();
+		tasks.put(PODS_SECTION, fanOutExecutor.submit(PODS_SECTION, () -> metricService.getPodsStatusMetrics(null)));
+		tasks.put(DEPLOYMENTS_SECTION,
+				fanOutExecutor.submit(DEPLOYMENTS_SECTION, () -> metricService.getDeploymentsStatusMetrics(null)));
+		tasks.put(NODES_SECTION, fanOutExecutor.submit(NODES_SECTION, () -> metricService.getNodesStatusMetrics()));
+		tasks.put(USERS_SECTION, fanOutExecutor.submit(USERS_SECTION, () -> metricService.getUsersStatusMetrics(null)));
+		tasks.put(CLUSTER_CPU_SECTION,
+				fanOutExecutor.submit(CLUSTER_CPU_SECTION, () -> metricService.getClusterMetrics("cpu")));
+		tasks.put(CLUSTER_MEMORY_SECTION,
+				fanOutExecutor.submit(CLUSTER_MEMORY_SECTION, () -> metricService.getClusterMetrics("memory")));
+
+		Map<String, String> changedSections = new HashMap<>();
+		for (Map.Entry<String, Task<?>> task : tasks.entrySet()) {
+			String section = task.getKey();
+			try {
+				Response<Object> response = new Response<>();
+				response.setData(task.getValue().get());
+				String json = objectMapper.writeValueAsString(response);
+				if (!StringUtils.equals(json, lastSections.get(section))) {
+					lastSections.put(section, json);
+					changedSections.put(section, json);
+				}
+			} catch (ZcpException | JsonProcessingException | RuntimeException e) {
+				// the last value of the section is kept
+				logger.warn("The metric section({}) could not be refreshed. {}", section, e.getMessage());
+			}
+		}
+
+		if (changedSections.isEmpty()) {
+			return;
+		}
+
+		for (Subscriber subscriber : subscribers) {
+			for (Map.Entry<String, String> section : changedSections.entrySet()) {
+				if (!enqueue(subscriber, section.getKey(), section.getValue())) {
+					break;
+				}
+			}
+		}
+	}
+
+	private boolean enqueue(Subscriber subscriber, String section, String json) {
+		if (!subscriber.events.offer(SseEmitter.event().name(section).data(json, MediaType.APPLICATION_JSON))) {
+			logger.warn("A metric stream subscriber is dropped because it is behind by {} events", queueSize);
+			drop(subscriber, null);
+			return false;
+		}
+		if (subscriber.sending.compareAndSet(false, true)) {
+			sender.execute(() -> drain(subscriber));
+		}
+		return true;
+	}
+
+	private void drain(Subscriber subscriber) {
+		while (true) {
+			SseEventBuilder event;
+			while ((event = subscriber.events.poll()) != null) {
+				try {
+					subscriber.emitter.send(event);
+				} catch (IOException | IllegalStateException e) {
+					// the client has gone
+					drop(subscriber, e);
+					return;
+				}
+			}
+
+			subscriber.sending.set(false);
+			// an event may have been queued after the last poll
+			if (subscriber.events.isEmpty() || !subscriber.sending.compareAndSet(false, true)) {
+				return;
+			}
+		}
+	}
+
+	private void drop(Subscriber subscriber, Exception cause) {
+		if (subscribers.remove(subscriber)) {
+			subscriber.events.clear();
+			if (cause == null) {
+				// the emitter is locked by a send which may be stuck on the client, so it is not completed here
+				sender.execute(subscriber.emitter::complete);
+			} else {
+				subscriber.emitter.completeWithError(cause);
+			}
+		}
+	}
+
+	private static class Subscriber {
+		private final SseEmitter emitter;
+		private final BlockingQueue<SseEventBuilder> events;
+		private final AtomicBoolean sending = new AtomicBoolean();
+
+		Subscriber(SseEmitter emitter, int queueSize) {
+			this.emitter = emitter;
+			this.events = new ArrayBlockingQueue<>(queueSize);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.skcc.cloudz.zcp.iam.api.metric.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.skcc.cloudz.zcp.iam.common.model.ComputeResources;
+
+import io.kubernetes.client.models.V1Container;
+import io.kubernetes.client.models.V1Pod;
+import io.kubernetes.client.models.V1ResourceRequirements;
+
+/**
+ * The sum of the container requests and limits of the pods which are scheduled
+ * on a node, in millicores and bytes.
+ */
+public class NodeResourceUsage {
+
+	public static final NodeResourceUsage EMPTY = new NodeResourceUsage();
+
+	private final ComputeResources requests = new ComputeResources();
+	private final ComputeResources limits = new ComputeResources();
+
+	/**
+	 * Groups the pods by spec.nodeName in one pass. The pods which are not
+	 * scheduled yet are skipped.
+	 */
+	public static Map<String, NodeResourceUsage> groupByNode(List<V1Pod> pods) {
+		Map<String, NodeResourceUsage> usages = new HashMap<>();
+		if (pods == null) {
+			return usages;
+		}
+
+		for (V1Pod pod : pods) {
+			if (pod.getSpec() == null || pod.getSpec().getNodeName() == null) {
+				continue;
+			}
+
+			String nodeName = pod.getSpec().getNodeName();
+			NodeResourceUsage usage = usages.get(nodeName);
+			if (usage == null) {
+				usage = new NodeResourceUsage();
+				usages.put(nodeName, usage);
+			}
+
+			usage.add(pod);
+		}
+
+		return usages;
+	}
+
+	private void add(V1Pod pod) {
+		List<V1Container> containers = pod.getSpec().getContainers();
+		if (containers == null) {
+			return;
+		}
+
+		for (V1Container container : containers) {
+			V1ResourceRequirements resources = container.getResources();
+			if (resources == null) {
+				continue;
+			}
+
+			requests.add(resources.getRequests());
+			limits.add(resources.getLimits());
+		}
+	}
+
+	public ComputeResources getRequests() {
+		return requests;
+	}
+
+	public ComputeResources getLimits() {
+		return limits;
+	}
+
+}
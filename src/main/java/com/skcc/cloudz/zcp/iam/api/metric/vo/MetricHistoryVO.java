@@ -0,0 +1,60 @@
+package com.skcc.cloudz.zcp.iam.api.metric.vo;
+
+public class MetricHistoryVO {
+
+	private String title;
+	private String unit;
+	private String resolution;
+	private long[] timestamps;
+	private double[] usage;
+	private double[] allocatable;
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getUnit() {
+		return unit;
+	}
+
+	public void setUnit(String unit) {
+		this.unit = unit;
+	}
+
+	public String getResolution() {
+		return resolution;
+	}
+
+	public void setResolution(String resolution) {
+		this.resolution = resolution;
+	}
+
+	public long[] getTimestamps() {
+		return timestamps;
+	}
+
+	public void setTimestamps(long[] timestamps) {
+		this.timestamps = timestamps;
+	}
+
+	public double[] getUsage() {
+		return usage;
+	}
+
+	public void setUsage(double[] usage) {
+		this.usage = usage;
+	}
+
+	public double[] getAllocatable() {
+		return allocatable;
+	}
+
+	public void setAllocatable(double[] allocatable) {
+		this.allocatable = allocatable;
+	}
+
+}
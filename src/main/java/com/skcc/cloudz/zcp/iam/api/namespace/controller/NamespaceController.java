@@ -12,14 +12,21 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.skcc.cloudz.zcp.iam.api.namespace.service.NamespaceProvisioningService;
 import com.skcc.cloudz.zcp.iam.api.namespace.service.NamespaceService;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.ItemList;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.LabelVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceLabelResultVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceLabelsVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionJobVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceResourceDetailVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceResourceVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.RoleBindingVO;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUserList;
+import com.skcc.cloudz.zcp.iam.common.util.ETagBuilder;
 import com.skcc.cloudz.zcp.iam.common.vo.Response;
 
 import io.kubernetes.client.models.V1Namespace;
@@ -36,10 +43,19 @@ public class NamespaceController {
 	@Autowired
 	private NamespaceService namespaceService;
 
+	@Autowired
+	private NamespaceProvisioningService namespaceProvisioningService;
+
 	@RequestMapping(value = "/namespaces", method = RequestMethod.GET)
-	public Response<V1NamespaceList> getNamespaces() throws Exception {
+	public Response<V1NamespaceList> getNamespaces(WebRequest webRequest) throws Exception {
+		V1NamespaceList namespaceList = namespaceService.getNamespaces();
+		String etag = new ETagBuilder().addResources(namespaceList.getItems(), V1Namespace::getMetadata).build();
+		if (webRequest.checkNotModified(etag)) {
+			return null;
+		}
+
 		Response<V1NamespaceList> response = new Response<>();
-		response.setData(namespaceService.getNamespaces());
+		response.setData(namespaceList);
 
 		return response;
 	}
@@ -96,6 +112,41 @@ public class NamespaceController {
 		return new Response<Object>();
 	}
 
+	/**
+	 * Adds and removes the labels of many namespaces at once. The result of each
+	 * namespace is returned.
+	 */
+	@RequestMapping(value = "/namespace/labels/batch", method = RequestMethod.POST)
+	public Response<ItemList<NamespaceLabelResultVO>> updateNamespaceLabels(@RequestBody NamespaceLabelsVO vo)
+			throws Exception {
+		ItemList<NamespaceLabelResultVO> results = new ItemList<>();
+		results.setItems(namespaceService.updateNamespaceLabels(vo));
+
+		Response<ItemList<NamespaceLabelResultVO>> response = new Response<>();
+		response.setData(results);
+		return response;
+	}
+
+	/**
+	 * Starts provisioning the namespaces from the template in the background.
+	 * The progress of each namespace is returned by the job.
+	 */
+	@RequestMapping(value = "/namespace/provisioning", method = RequestMethod.POST)
+	public Response<NamespaceProvisionJobVO> provisionNamespaces(@RequestBody @Valid NamespaceProvisionVO vo)
+			throws Exception {
+		Response<NamespaceProvisionJobVO> response = new Response<>();
+		response.setData(namespaceProvisioningService.provisionNamespaces(vo));
+		return response;
+	}
+
+	@RequestMapping(value = "/namespace/provisioning/{jobId}", method = RequestMethod.GET)
+	public Response<NamespaceProvisionJobVO> getProvisioningJob(@PathVariable("jobId") String jobId)
+			throws Exception {
+		Response<NamespaceProvisionJobVO> response = new Response<>();
+		response.setData(namespaceProvisioningService.getJob(jobId));
+		return response;
+	}
+
 	@RequestMapping(value = "/namespace/labels", method = RequestMethod.GET)
 	public Response<ItemList<String>> getAllLabels() throws Exception {
 		Response<ItemList<String>> response = new Response<>();
@@ -0,0 +1,184 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionJobVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionResultVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceTemplateVO;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+
+/**
+ * Provisions many namespaces from a template in the background. The
+ * namespaces are provisioned in parallel, so a job takes about the time of the
+ * slowest namespace instead of the sum.
+ *
+ * The namespaces of all the jobs are provisioned by their own pool of
+ * parallelism threads, not by the fan-out pool of the requests, so the jobs
+ * never take the threads of the interactive requests. A namespace is several
+ * upstream calls, so it is not bound by the deadline of one fan-out call. Each
+ * call is bound by the timeouts of the kube client instead.
+ *
+ * The jobs are kept in memory, and a completed job is removed after the
+ * retention time.
+ */
+@Service
+public class NamespaceProvisioningService {
+
+	private final Logger log = LoggerFactory.getLogger(NamespaceProvisioningService.class);
+
+	@Autowired
+	private NamespaceService namespaceService;
+
+	@Value("${zcp.namespace.provision.maxSize:100}")
+	private int maxSize;
+
+	@Value("${zcp.namespace.provision.parallelism:8}")
+	private int parallelism;
+
+	@Value("${zcp.namespace.provision.jobThreads:2}")
+	private int jobThreads;
+
+	@Value("${zcp.namespace.provision.retentionMinutes:60}")
+	private long retentionMinutes;
+
+	private final Map<String, NamespaceProvisionJobVO> jobs = new ConcurrentHashMap<>();
+
+	private ExecutorService jobExecutor;
+
+	private ExecutorService provisionExecutor;
+
+	@PostConstruct
+	public void init() {
+		jobExecutor = newFixedThreadPool(jobThreads, "namespace-provision-job-");
+		provisionExecutor = newFixedThreadPool(parallelism, "namespace-provision-");
+	}
+
+	@PreDestroy
+	public void destroy() {
+		jobExecutor.shutdownNow();
+		provisionExecutor.shutdownNow();
+	}
+
+	public NamespaceProvisionJobVO provisionNamespaces(NamespaceProvisionVO vo) throws ZcpException {
+		if (vo.getNamespaces() == null || vo.getNamespaces().isEmpty()) {
+			throw new ZcpException("N0011", "The namespaces are required");
+		}
+		if (vo.getTemplate() == null) {
+			throw new ZcpException("N0011", "The template is required");
+		}
+
+		Set<String> namespaces = new LinkedHashSet<>();
+		for (String namespace : vo.getNamespaces()) {
+			if (StringUtils.isBlank(namespace)) {
+				throw new ZcpException("N0011", "The namespace name is empty");
+			}
+			namespaces.add(namespace.trim());
+		}
+		if (namespaces.size() > maxSize) {
+			throw new ZcpException("N0011",
+					"The namespaces(" + namespaces.size() + ") are more than the max size(" + maxSize + ")");
+		}
+
+		removeExpiredJobs();
+
+		List<NamespaceProvisionResultVO> items = new ArrayList<>();
+		for (String namespace : namespaces) {
+			items.add(new NamespaceProvisionResultVO(namespace));
+		}
+
+		NamespaceProvisionJobVO job = new NamespaceProvisionJobVO();
+		job.setId(UUID.randomUUID().toString());
+		job.setStatus(NamespaceProvisionJobVO.Status.PENDING);
+		job.setCreatedTime(new Date());
+		job.setItems(items);
+		jobs.put(job.getId(), job);
+
+		NamespaceTemplateVO template = vo.getTemplate();
+		jobExecutor.execute(() -> run(job, template));
+
+		return job;
+	}
+
+	public NamespaceProvisionJobVO getJob(String jobId) throws ZcpException {
+		NamespaceProvisionJobVO job = jobs.get(jobId);
+		if (job == null) {
+			throw new ZcpException("N0012", "The provisioning job(" + jobId + ") does not exist");
+		}
+		return job;
+	}
+
+	private void run(NamespaceProvisionJobVO job, NamespaceTemplateVO template) {
+		job.setStatus(NamespaceProvisionJobVO.Status.RUNNING);
+		log.info("The provisioning job({}) of {} namespaces has started", job.getId(), job.getTotalCount());
+
+		Map<NamespaceProvisionResultVO, Future<?>> futures = new LinkedHashMap<>();
+		for (NamespaceProvisionResultVO result : job.getItems()) {
+			futures.put(result, provisionExecutor.submit(() -> {
+				try {
+					namespaceService.provisionNamespace(result.getNamespace(), template, result);
+				} catch (ZcpException | RuntimeException e) {
+					// reported at once, not when the whole job is done
+					result.fail(e.getMessage());
+				}
+			}));
+		}
+
+		for (Map.Entry<NamespaceProvisionResultVO, Future<?>> future : futures.entrySet()) {
+			try {
+				future.getValue().get();
+			} catch (ExecutionException e) {
+				future.getKey().fail(e.getCause().getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				log.warn("The provisioning job({}) has been stopped", job.getId());
+				for (NamespaceProvisionResultVO result : job.getItems()) {
+					result.fail("The provisioning job has been stopped");
+				}
+				break;
+			}
+		}
+
+		job.setCompletedTime(new Date());
+		job.setStatus(NamespaceProvisionJobVO.Status.COMPLETED);
+		log.info("The provisioning job({}) has completed. {} of {} namespaces have failed", job.getId(),
+				job.getFailedCount(), job.getTotalCount());
+	}
+
+	private static ExecutorService newFixedThreadPool(int threads, String namePrefix) {
+		AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+			Thread thread = new Thread(r, namePrefix + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private void removeExpiredJobs() {
+		long retentionMillis = retentionMinutes * 60 * 1000;
+		jobs.values().removeIf(job -> job.isExpired(retentionMillis));
+	}
+}
@@ -4,8 +4,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -16,10 +18,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.ItemList;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceLabelResultVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceLabelsVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceProvisionResultVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceResourceDetailVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceResourceVO;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.NamespaceTemplateVO;
 import com.skcc.cloudz.zcp.iam.api.namespace.vo.RoleBindingVO;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor.Task;
 import com.skcc.cloudz.zcp.iam.common.exception.KeyCloakException;
 import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
 import com.skcc.cloudz.zcp.iam.common.model.CPUUnit;
@@ -29,12 +39,14 @@ import com.skcc.cloudz.zcp.iam.common.model.ZcpLimitRange;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpResourceQuota;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUser;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUserList;
+import com.skcc.cloudz.zcp.iam.common.util.QuantityUtils;
 import com.skcc.cloudz.zcp.iam.common.util.Util;
 import com.skcc.cloudz.zcp.iam.manager.KeyCloakManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeRbacAuthzManager;
 import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
 import com.skcc.cloudz.zcp.iam.manager.ResourcesNameManager;
+import com.skcc.cloudz.zcp.iam.manager.cache.PrivilegeDecisionCache;
 
 import io.kubernetes.client.ApiException;
 import io.kubernetes.client.custom.Quantity;
@@ -59,6 +71,12 @@ public class NamespaceService {
 
 	private final Logger log = LoggerFactory.getLogger(NamespaceService.class);
 
+	private static final int NOT_FOUND = 404;
+
+	private static final int CONFLICT = 409;
+
+	private static final String ADMIN_ACTION = "admin";
+
 	@Autowired
 	private KeyCloakManager keyCloakManager;
 
@@ -68,6 +86,18 @@ public class NamespaceService {
 	@Autowired
 	private KubeRbacAuthzManager kubeRbacAuthzManager;
 
+	@Autowired
+	private FanOutExecutor fanOutExecutor;
+
+	@Autowired
+	private PrivilegeDecisionCache privilegeDecisionCache;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${zcp.namespace.label.parallelism:8}")
+	private int labelParallelism;
+
 	@Value("${zcp.kube.namespace}")
 	private String zcpSystemNamespace;
 
@@ -92,14 +122,18 @@ public class NamespaceService {
 		// check user privillege
 		checkUserPrivilege(namespace, userId);
 
+		Task<V1ResourceQuota> resourceQuotaTask = fanOutExecutor.submit("resourcequota",
+				() -> kubeCoreManager.getResourceQuota(namespace, ResourcesNameManager.getResouceQuotaName(namespace)));
+		Task<V1LimitRange> limitRangeTask = fanOutExecutor.submit("limitrange",
+				() -> kubeCoreManager.getLimitRange(namespace, ResourcesNameManager.getLimtRangeName(namespace)));
+
 		// get namespace resource
 		NamespaceResourceDetailVO namespaceDetail = new NamespaceResourceDetailVO();
 		namespaceDetail.setNamespace(namespace);
 
 		V1ResourceQuota v1ResourceQuota = null;
 		try {
-			v1ResourceQuota = kubeCoreManager.getResourceQuota(namespace,
-					ResourcesNameManager.getResouceQuotaName(namespace));
+			v1ResourceQuota = resourceQuotaTask.get(ApiException.class);
 		} catch (ApiException e) {
 			// we can ignore this case
 			log.debug("The resouece quota of " + namespace + " does not exist");
@@ -116,7 +150,7 @@ public class NamespaceService {
 
 		V1LimitRange v1LimitRange = null;
 		try {
-			v1LimitRange = kubeCoreManager.getLimitRange(namespace, ResourcesNameManager.getLimtRangeName(namespace));
+			v1LimitRange = limitRangeTask.get(ApiException.class);
 		} catch (ApiException e) {
 			// we can ignore this case
 			log.debug("The limit range of " + namespace + " does not exist");
@@ -130,6 +164,15 @@ public class NamespaceService {
 	}
 
 	private void checkUserPrivilege(String namespace, String userId) throws ZcpException {
+		PrivilegeDecisionCache.Decision decision = privilegeDecisionCache.get(userId, namespace, ADMIN_ACTION);
+		if (decision != null) {
+			if (!decision.isAllowed()) {
+				throw new ZcpException("ZCP-0001", decision.getDeniedMessage());
+			}
+			return;
+		}
+
+		long generation = privilegeDecisionCache.getGeneration();
 		UserRepresentation userRepresentation = null;
 		try {
 			userRepresentation = keyCloakManager.getUser(userId);
@@ -140,12 +183,29 @@ public class NamespaceService {
 		String username = userRepresentation.getUsername();
 		log.debug("keyclock username is - {}", username);
 
+		String deniedMessage = decideUserPrivilege(namespace, userId, username);
+		privilegeDecisionCache.put(userId, namespace, ADMIN_ACTION, username, deniedMessage, generation);
+		if (deniedMessage != null) {
+			throw new ZcpException("ZCP-0001", deniedMessage);
+		}
+	}
+
+	/**
+	 * @return the message why the user is not the admin of the namespace or null
+	 *         if the user is. The failed calls except not found are thrown, so
+	 *         they are not cached as the denied decisions.
+	 */
+	private String decideUserPrivilege(String namespace, String userId, String username) throws ZcpException {
 		// check clusterrolebinding
 		V1ClusterRoleBinding userClusterRoleBinding = null;
 		try {
 			userClusterRoleBinding = kubeRbacAuthzManager.getClusterRoleBindingByUsername(username);
 		} catch (ApiException e2) {
-			throw new ZcpException("ZCP-0001", "The clusterrolebinding of user(" + userId + ") does not exist");
+			String message = "The clusterrolebinding of user(" + userId + ") does not exist";
+			if (e2.getCode() == NOT_FOUND) {
+				return message;
+			}
+			throw new ZcpException("ZCP-0001", message);
 		}
 
 		String userClusterRole = userClusterRoleBinding.getRoleRef().getName();
@@ -159,18 +219,22 @@ public class NamespaceService {
 			try {
 				userNamespaceRoleBinding = kubeRbacAuthzManager.getRoleBindingByUserName(namespace, username);
 			} catch (ApiException e) {
-				throw new ZcpException("ZCP-0001",
-						"The namespace(" + namespace + ") rolebinding of user(" + userId + ") does not exist");
+				String message = "The namespace(" + namespace + ") rolebinding of user(" + userId + ") does not exist";
+				if (e.getCode() == NOT_FOUND) {
+					return message;
+				}
+				throw new ZcpException("ZCP-0001", message);
 			}
 
 			String userNamespaceRole = userNamespaceRoleBinding.getRoleRef().getName();
 			isNamespaceAdmin = StringUtils.equals(userNamespaceRole, ClusterRole.ADMIN.getRole()) ? true : false;
 
 			if (!isClusterAdmin && !isNamespaceAdmin) {
-				throw new ZcpException("ZCP-0001",
-						"The user(" + userId + ") does not have a permission for namespace(" + namespace + ")");
+				return "The user(" + userId + ") does not have a permission for namespace(" + namespace + ")";
 			}
 		}
+
+		return null;
 	}
 
 	public void saveNamespace(NamespaceResourceVO vo) throws ZcpException {
@@ -187,17 +251,8 @@ public class NamespaceService {
 		}
 
 		if (currentV1Namespace == null) {
-			V1Namespace v1Namespace = new V1Namespace();
-			v1Namespace.setApiVersion("v1");
-			v1Namespace.setKind("Namespace");
-			v1Namespace.setSpec(new V1NamespaceSpec().addFinalizersItem("kubernetes"));
-			V1ObjectMeta namespaceMetadata = new V1ObjectMeta();
-			namespaceMetadata.setName(vo.getNamespace());
-			v1Namespace.setMetadata(namespaceMetadata);
-			v1Namespace.getMetadata().setLabels(ResourcesLabelManager.getSystemLabels());
-
 			try {
-				kubeCoreManager.createNamespace(namespaceName, v1Namespace);
+				kubeCoreManager.createNamespace(namespaceName, makeNamespace(namespaceName));
 			} catch (ApiException e) {
 				e.printStackTrace();
 				throw new ZcpException("N002", e.getMessage());
@@ -209,6 +264,78 @@ public class NamespaceService {
 		saveNamespaceLimitRange(vo.getLimitRange(), namespaceName);
 	}
 
+	/**
+	 * Creates a namespace and the resources of the template in it, and reports
+	 * the progress to the result. The namespace is created without a GET, and the
+	 * resources of a new namespace are also created without GETs because they
+	 * can not exist yet. When the namespace already exists, the resources are
+	 * saved as {@link #saveNamespace(NamespaceResourceVO)} does and the existing
+	 * role bindings are replaced.
+	 */
+	public void provisionNamespace(String namespaceName, NamespaceTemplateVO template,
+			NamespaceProvisionResultVO result) throws ZcpException {
+		result.setStatus(NamespaceProvisionResultVO.Status.RUNNING);
+
+		result.setStep("namespace");
+		boolean exists = false;
+		try {
+			kubeCoreManager.createNamespace(namespaceName, makeNamespace(namespaceName));
+		} catch (ApiException e) {
+			if (e.getCode() != CONFLICT) {
+				throw new ZcpException("N002", e.getMessage());
+			}
+			exists = true;
+		}
+
+		ZcpResourceQuota resourceQuota = template.getResourceQuota();
+		if (resourceQuota != null) {
+			result.setStep("resourceQuota");
+			if (exists) {
+				saveNamespaceResoruceQuota(resourceQuota, namespaceName);
+			} else if (!resourceQuota.isEmpty()) {
+				try {
+					kubeCoreManager.createResourceQuota(namespaceName,
+							gerneateV1ResourceQuota(resourceQuota, namespaceName));
+				} catch (ApiException e) {
+					throw new ZcpException("N002", e.getMessage());
+				}
+			}
+		}
+
+		ZcpLimitRange limitRange = template.getLimitRange();
+		if (limitRange != null) {
+			result.setStep("limitRange");
+			if (exists) {
+				saveNamespaceLimitRange(limitRange, namespaceName);
+			} else if (!limitRange.isEmpty()) {
+				try {
+					kubeCoreManager.createLimitRange(namespaceName, generateV1LimitRange(limitRange, namespaceName));
+				} catch (ApiException e) {
+					throw new ZcpException("N002", e.getMessage());
+				}
+			}
+		}
+
+		if (template.getRoleBindings() != null) {
+			for (RoleBindingVO roleBinding : template.getRoleBindings()) {
+				result.setStep("roleBinding(" + roleBinding.getUsername() + ")");
+				try {
+					kubeRbacAuthzManager.createRoleBinding(namespaceName, makeRoleBinding(namespaceName, roleBinding));
+				} catch (ApiException e) {
+					if (e.getCode() != CONFLICT) {
+						throw new ZcpException("N0002", e.getMessage());
+					}
+					editRoleBinding(namespaceName, roleBinding);
+				} finally {
+					privilegeDecisionCache.invalidateUser(roleBinding.getUsername());
+				}
+			}
+		}
+
+		result.setStep(null);
+		result.setStatus(exists ? NamespaceProvisionResultVO.Status.UPDATED : NamespaceProvisionResultVO.Status.CREATED);
+	}
+
 	public void deleteNamespace(String namespace, String userId) throws ZcpException {
 		// check user privillege
 		checkUserPrivilege(namespace, userId);
@@ -217,6 +344,8 @@ public class NamespaceService {
 			kubeCoreManager.deleteNamespace(namespace);
 		} catch (ApiException e) {
 			throw new ZcpException("N0009", e.getMessage());
+		} finally {
+			privilegeDecisionCache.invalidateNamespace(namespace);
 		}
 	}
 
@@ -228,28 +357,41 @@ public class NamespaceService {
 			throw new ZcpException("N0005", e.getMessage());
 		}
 		List<V1RoleBinding> rolebindings = rolebindingList.getItems();
-		List<UserRepresentation> keycloakUsers = keyCloakManager.getUserList();
-		List<ZcpUser> zcpUsers = new ArrayList<ZcpUser>();
 
+		// the rolebindings carry the username in the label, so only the bound users are looked up
+		Map<String, V1RoleBinding> mappedRoleBindings = new LinkedHashMap<>();
 		for (V1RoleBinding rolebinding : rolebindings) {
-			String rolebindingName = rolebinding.getMetadata().getName();
-			for (UserRepresentation keycloakUser : keycloakUsers) {
-				if (rolebindingName.equals(ResourcesNameManager.getRoleBindingName(keycloakUser.getUsername()))) {
-					ZcpUser user = new ZcpUser();
-					user.setId(keycloakUser.getId());
-					user.setUsername(keycloakUser.getUsername());
-					user.setEmail(keycloakUser.getEmail());
-					user.setLastName(keycloakUser.getLastName());
-					user.setFirstName(keycloakUser.getFirstName());
-					user.setCreatedDate(new Date(keycloakUser.getCreatedTimestamp()));
-					user.setEnabled(keycloakUser.isEnabled());
-					user.setNamespacedRole(ClusterRole.getClusterRole(rolebinding.getRoleRef().getName()));
-
-					zcpUsers.add(user);
-				}
+			Map<String, String> labels = rolebinding.getMetadata().getLabels();
+			String username = labels == null ? null : labels.get(ResourcesLabelManager.SYSTEM_USERNAME_LABEL_NAME);
+			if (username != null
+					&& rolebinding.getMetadata().getName().equals(ResourcesNameManager.getRoleBindingName(username))) {
+				mappedRoleBindings.put(username, rolebinding);
 			}
 		}
 
+		Map<String, UserRepresentation> keycloakUsers = keyCloakManager
+				.getUserMapByUsernames(mappedRoleBindings.keySet());
+		List<ZcpUser> zcpUsers = new ArrayList<ZcpUser>();
+
+		for (Map.Entry<String, V1RoleBinding> entry : mappedRoleBindings.entrySet()) {
+			UserRepresentation keycloakUser = keycloakUsers.get(entry.getKey());
+			if (keycloakUser == null) {
+				continue;
+			}
+
+			ZcpUser user = new ZcpUser();
+			user.setId(keycloakUser.getId());
+			user.setUsername(keycloakUser.getUsername());
+			user.setEmail(keycloakUser.getEmail());
+			user.setLastName(keycloakUser.getLastName());
+			user.setFirstName(keycloakUser.getFirstName());
+			user.setCreatedDate(new Date(keycloakUser.getCreatedTimestamp()));
+			user.setEnabled(keycloakUser.isEnabled());
+			user.setNamespacedRole(ClusterRole.getClusterRole(entry.getValue().getRoleRef().getName()));
+
+			zcpUsers.add(user);
+		}
+
 		ZcpUserList userlist = new ZcpUserList();
 		userlist.setItems(zcpUsers);
 
@@ -282,30 +424,141 @@ public class NamespaceService {
 		return null;
 	}
 
+	/**
+	 * Adds the label by a merge patch, so the namespace is neither read nor
+	 * replaced as a whole.
+	 */
 	public void createNamespaceLabel(String namespaceName, String newLabel) throws ZcpException {
-		V1Namespace namespace = getNamespace(namespaceName);
-		Map<String, String> labels = namespace.getMetadata().getLabels();
-		namespace.getMetadata().setLabels(addLabel(labels, newLabel));
+		if (StringUtils.isEmpty(newLabel)) {
+			return;
+		}
+
+		String[] label = parseLabel(newLabel);
+		Map<String, Object> labels = new HashMap<>();
+		labels.put(label[0], label[1]);
 
 		try {
-			kubeCoreManager.replaceNamespace(namespaceName, namespace);
+			kubeCoreManager.patchNamespace(namespaceName, KubeCoreManager.MERGE_PATCH, labelsPatch(labels, null));
 		} catch (ApiException e) {
 			throw new ZcpException("N0009", e.getMessage());
 		}
-
 	}
 
+	/**
+	 * Removes the label only when it has the given value. The value is checked
+	 * by the test operation of a json patch in the same request.
+	 */
 	public void deleteNamespaceLabel(String namespaceName, String label) throws ZcpException {
-		V1Namespace namespace = getNamespace(namespaceName);
-		Map<String, String> labels = namespace.getMetadata().getLabels();
-		namespace.getMetadata().setLabels(removeLabel(labels, label));
+		String[] keyValue = StringUtils.isEmpty(label) ? null : label.split("=");
+		if (keyValue == null || keyValue.length != 2) {
+			log.debug("label is invalid - {}", label);
+			return;
+		}
+
+		String path = "/metadata/labels/" + keyValue[0].replace("~", "~0").replace("/", "~1");
+		List<Map<String, Object>> operations = new ArrayList<>();
+		Map<String, Object> test = new LinkedHashMap<>();
+		test.put("op", "test");
+		test.put("path", path);
+		test.put("value", keyValue[1]);
+		operations.add(test);
+		Map<String, Object> remove = new LinkedHashMap<>();
+		remove.put("op", "remove");
+		remove.put("path", path);
+		operations.add(remove);
 
 		try {
-			kubeCoreManager.replaceNamespace(namespaceName, namespace);
+			kubeCoreManager.patchNamespace(namespaceName, KubeCoreManager.JSON_PATCH,
+					objectMapper.writeValueAsBytes(operations));
 		} catch (ApiException e) {
+			if (e.getCode() == 422) {
+				// the label does not exist or has the other value
+				log.debug("The label({}) of namespace({}) does not exist", label, namespaceName);
+				return;
+			}
+			throw new ZcpException("N0009", e.getMessage());
+		} catch (JsonProcessingException e) {
 			throw new ZcpException("N0009", e.getMessage());
 		}
+	}
+
+	/**
+	 * Applies the label changes to many namespaces. The namespaces are listed
+	 * once, and each namespace is changed by a merge patch with its
+	 * resourceVersion, so a namespace changed in the meantime fails with a
+	 * conflict instead of losing the change.
+	 */
+	public List<NamespaceLabelResultVO> updateNamespaceLabels(NamespaceLabelsVO vo) throws ZcpException {
+		Map<String, String> addLabels = parseLabels(vo.getAddLabels());
+		Map<String, String> removeLabels = parseLabels(vo.getRemoveLabels());
+		if (addLabels.isEmpty() && removeLabels.isEmpty()) {
+			throw new ZcpException("N0010", "There are no labels to add or remove");
+		}
+
+		boolean hasNamespaces = vo.getNamespaces() != null && !vo.getNamespaces().isEmpty();
+		if (!hasNamespaces && StringUtils.isEmpty(vo.getLabelSelector())) {
+			throw new ZcpException("N0010", "The namespaces or the label selector is required");
+		}
+
+		V1NamespaceList namespaceList = null;
+		try {
+			namespaceList = kubeCoreManager.getNamespaceList(vo.getLabelSelector());
+		} catch (ApiException e) {
+			throw new ZcpException("N001", e.getMessage());
+		}
+
+		Map<String, V1Namespace> namespaces = new LinkedHashMap<>();
+		for (V1Namespace namespace : namespaceList.getItems()) {
+			namespaces.put(namespace.getMetadata().getName(), namespace);
+		}
+
+		Map<String, NamespaceLabelResultVO> results = new LinkedHashMap<>();
+		Map<String, Callable<Object>> calls = new LinkedHashMap<>();
+		for (String namespaceName : hasNamespaces ? vo.getNamespaces() : namespaces.keySet()) {
+			V1Namespace namespace = namespaces.get(namespaceName);
+			if (namespace == null) {
+				results.put(namespaceName, new NamespaceLabelResultVO(namespaceName, NamespaceLabelResultVO.Status.FAILED,
+						"The namespace does not exist or does not match the label selector"));
+				continue;
+			}
+
+			Map<String, String> labels = namespace.getMetadata().getLabels() == null ? new HashMap<>()
+					: namespace.getMetadata().getLabels();
+			Map<String, Object> changes = new HashMap<>();
+			for (Map.Entry<String, String> label : addLabels.entrySet()) {
+				if (!StringUtils.equals(label.getValue(), labels.get(label.getKey()))) {
+					changes.put(label.getKey(), label.getValue());
+				}
+			}
+			for (Map.Entry<String, String> label : removeLabels.entrySet()) {
+				if (!addLabels.containsKey(label.getKey())
+						&& StringUtils.equals(label.getValue(), labels.get(label.getKey()))) {
+					// null removes the key in a merge patch
+					changes.put(label.getKey(), null);
+				}
+			}
+
+			if (changes.isEmpty()) {
+				results.put(namespaceName,
+						new NamespaceLabelResultVO(namespaceName, NamespaceLabelResultVO.Status.UNCHANGED, null));
+				continue;
+			}
+
+			byte[] patch = labelsPatch(changes, namespace.getMetadata().getResourceVersion());
+			results.put(namespaceName,
+					new NamespaceLabelResultVO(namespaceName, NamespaceLabelResultVO.Status.UPDATED, null));
+			calls.put(namespaceName,
+					() -> kubeCoreManager.patchNamespace(namespaceName, KubeCoreManager.MERGE_PATCH, patch));
+		}
 
+		Map<String, String> failures = fanOutExecutor.runAll(calls, labelParallelism);
+		for (Map.Entry<String, String> failure : failures.entrySet()) {
+			NamespaceLabelResultVO result = results.get(failure.getKey());
+			result.setStatus(NamespaceLabelResultVO.Status.FAILED);
+			result.setMessage(failure.getValue());
+		}
+
+		return new ArrayList<>(results.values());
 	}
 
 	public void deleteClusterRoleBinding(String clusterRoleBindingName) throws IOException, ApiException {
@@ -319,6 +572,8 @@ public class NamespaceService {
 			roleBinding = kubeRbacAuthzManager.createRoleBinding(namespace, roleBinding);
 		} catch (ApiException e) {
 			throw new ZcpException("N0002", e.getMessage());
+		} finally {
+			privilegeDecisionCache.invalidateUser(vo.getUsername());
 		}
 	}
 
@@ -334,6 +589,8 @@ public class NamespaceService {
 		} catch (ApiException e) {
 			e.printStackTrace();
 			throw new ZcpException("N0003", e.getMessage());
+		} finally {
+			privilegeDecisionCache.invalidateUser(vo.getUsername());
 		}
 	}
 
@@ -346,6 +603,8 @@ public class NamespaceService {
 		} catch (ApiException e) {
 			e.printStackTrace();
 			throw new ZcpException("N0002", e.getMessage());
+		} finally {
+			privilegeDecisionCache.invalidateUser(data.getUsername());
 		}
 
 	}
@@ -355,111 +614,100 @@ public class NamespaceService {
 
 		String value = data.get("limits.cpu");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setCpuLimits(getResourceValue(value));
-			resourceQuota.setCpuLimitsUnit(getCPUUnitFormat(value));
+			long millicores = QuantityUtils.parseMillicores(value);
+			CPUUnit unit = getCPUUnitFormat(value, millicores);
+			resourceQuota.setCpuLimits(getCPUValue(millicores, unit));
+			resourceQuota.setCpuLimitsUnit(unit);
 		}
 		value = data.get("limits.memory");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setMemoryLimits(getResourceValue(value));
-			resourceQuota.setMemoryLimitsUnit(getMemoryUnitFormat(value));
+			long bytes = QuantityUtils.parseBytes(value);
+			MemoryUnit unit = getMemoryUnitFormat(value, bytes);
+			resourceQuota.setMemoryLimits(getMemoryValue(bytes, unit));
+			resourceQuota.setMemoryLimitsUnit(unit);
 		}
 		value = data.get("requests.cpu");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setCpuRequests(getResourceValue(value));
-			resourceQuota.setCpuRequestsUnit(getCPUUnitFormat(value));
+			long millicores = QuantityUtils.parseMillicores(value);
+			CPUUnit unit = getCPUUnitFormat(value, millicores);
+			resourceQuota.setCpuRequests(getCPUValue(millicores, unit));
+			resourceQuota.setCpuRequestsUnit(unit);
 		}
 		value = data.get("requests.memory");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setMemoryRequests(getResourceValue(value));
-			resourceQuota.setMemoryRequestsUnit(getMemoryUnitFormat(value));
+			long bytes = QuantityUtils.parseBytes(value);
+			MemoryUnit unit = getMemoryUnitFormat(value, bytes);
+			resourceQuota.setMemoryRequests(getMemoryValue(bytes, unit));
+			resourceQuota.setMemoryRequestsUnit(unit);
 		}
 
 		value = data.get("configmaps");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setConfigmaps(getResourceValue(value));
+			resourceQuota.setConfigmaps(getCountValue(value));
 		}
 		value = data.get("persistentvolumeclaims");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setPersistentvolumeclaims(getResourceValue(value));
+			resourceQuota.setPersistentvolumeclaims(getCountValue(value));
 		}
 		value = data.get("pods");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setPods(getResourceValue(value));
+			resourceQuota.setPods(getCountValue(value));
 		}
 		value = data.get("resourcequotas");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setResourcequotas(getResourceValue(value));
+			resourceQuota.setResourcequotas(getCountValue(value));
 		}
 		value = data.get("secrets");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setSecrets(getResourceValue(value));
+			resourceQuota.setSecrets(getCountValue(value));
 		}
 		value = data.get("services");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setServices(getResourceValue(value));
+			resourceQuota.setServices(getCountValue(value));
 		}
 		value = data.get("services.loadbalancers");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setServicesLoadbalancers(getResourceValue(value));
+			resourceQuota.setServicesLoadbalancers(getCountValue(value));
 		}
 		value = data.get("services.nodeports");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setServicesNodeports(getResourceValue(value));
+			resourceQuota.setServicesNodeports(getCountValue(value));
 		}
 		value = data.get("replicationcontrollers");
 		if (StringUtils.isNotEmpty(value)) {
-			resourceQuota.setReplicationcontrollers(getResourceValue(value));
+			resourceQuota.setReplicationcontrollers(getCountValue(value));
 		}
 
 		return resourceQuota;
 	}
 
-	private Integer getResourceValue(String value) {
-		if (value == null)
-			return null;
-
-		Quantity quantity = new Quantity(value);
-		if (quantity.getFormat() == Quantity.Format.BINARY_SI) {
-			if (StringUtils.contains(value, "Gi"))
-				return Integer.valueOf(StringUtils.substringBefore(value, "Gi"));
-			if (StringUtils.contains(value, "Mi"))
-				return Integer.valueOf(StringUtils.substringBefore(value, "Mi"));
-			return null;
-		} else {
-			if (StringUtils.contains(value, "m"))
-				return Integer.valueOf(StringUtils.substringBefore(value, "m"));
-			return Integer.valueOf(value);
-		}
+	private Integer getCountValue(String value) {
+		return Math.toIntExact(QuantityUtils.parseBytes(value));
 	}
 
-	private CPUUnit getCPUUnitFormat(String value) {
-		if (value == null)
-			return null;
+	// the unit written in the quota (500m or 2), or millicore when it is not a whole number of cores
+	private CPUUnit getCPUUnitFormat(String value, long millicores) {
+		if (StringUtils.endsWith(value, "m") || millicores % QuantityUtils.MILLICORES_PER_CORE != 0)
+			return CPUUnit.MilliCore;
+		return CPUUnit.Core;
+	}
 
-		Quantity quantity = new Quantity(value);
-		if (quantity.getFormat() == Quantity.Format.BINARY_SI) {
-			return null;
-		} else {
-			if (StringUtils.contains(value, "m"))
-				return CPUUnit.MilliCore;
-			return CPUUnit.Core;
-		}
+	// the unit written in the quota (512Mi or 2Gi), or Mi when it is not a whole number of Gi
+	private MemoryUnit getMemoryUnitFormat(String value, long bytes) {
+		if (StringUtils.endsWith(value, "Mi") || bytes % QuantityUtils.BYTES_PER_GIBIBYTE != 0)
+			return MemoryUnit.Mi;
+		return MemoryUnit.Gi;
 	}
 
-	private MemoryUnit getMemoryUnitFormat(String value) {
-		if (value == null)
-			return null;
+	private Integer getCPUValue(long millicores, CPUUnit unit) {
+		long value = unit == CPUUnit.MilliCore ? millicores : millicores / QuantityUtils.MILLICORES_PER_CORE;
+		return Math.toIntExact(value);
+	}
 
-		Quantity quantity = new Quantity(value);
-		if (quantity.getFormat() == Quantity.Format.BINARY_SI) {
-			if (StringUtils.contains(value, "Gi"))
-				return MemoryUnit.Gi;
-			if (StringUtils.contains(value, "Mi"))
-				return MemoryUnit.Mi;
-			return MemoryUnit.Gi;
-		} else {
-			return null;
-		}
+	private Integer getMemoryValue(long bytes, MemoryUnit unit) {
+		long value = unit == MemoryUnit.Mi ? bytes / QuantityUtils.BYTES_PER_MEBIBYTE
+				: bytes / QuantityUtils.BYTES_PER_GIBIBYTE;
+		return Math.toIntExact(value);
 	}
 
 	private ZcpLimitRange generateLimitRange(V1LimitRange v1LimitRange) {
@@ -497,30 +745,10 @@ public class NamespaceService {
 		if (quantity == null)
 			return null;
 
-		double value = quantity.getNumber().doubleValue();
 		if (quantity.getFormat() == Quantity.Format.BINARY_SI) {
-			if (value == 0) {
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(value), "."));
-			}
-
-			double formattedValue = value / 1024 / 1024;
-			if (formattedValue < 1024) {
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(formattedValue), "."));
-			} else {
-				formattedValue = formattedValue / 1024;
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(formattedValue), "."));
-			}
+			return getMemoryValue(QuantityUtils.toBytes(quantity), getMemoryUnitFormat(quantity));
 		} else {
-			if (value == 0) {
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(value), "."));
-			}
-
-			if (value < 1) {
-				double formattedValue = value * 1000;
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(formattedValue), "."));
-			} else {
-				return Integer.valueOf(StringUtils.substringBefore(String.valueOf(value), "."));
-			}
+			return getCPUValue(QuantityUtils.toMillicores(quantity), getCPUUnitFormat(quantity));
 		}
 	}
 
@@ -528,16 +756,11 @@ public class NamespaceService {
 		if (quantity == null)
 			return null;
 
-		double value = quantity.getNumber().doubleValue();
-
 		if (quantity.getFormat() == Quantity.Format.BINARY_SI) {
 			return null;
 		} else {
-			if (value == 0) {
-				return CPUUnit.Core;
-			}
-
-			if (value < 1) {
+			long millicores = QuantityUtils.toMillicores(quantity);
+			if (millicores > 0 && millicores < QuantityUtils.MILLICORES_PER_CORE) {
 				return CPUUnit.MilliCore;
 			} else {
 				return CPUUnit.Core;
@@ -549,17 +772,11 @@ public class NamespaceService {
 		if (quantity == null)
 			return null;
 
-		double value = quantity.getNumber().doubleValue();
-
 		if (quantity.getFormat() != Quantity.Format.BINARY_SI) {
 			return null;
 		} else {
-			if (value == 0) {
-				return MemoryUnit.Gi;
-			}
-
-			double formattedValue = value / 1024 / 1024;
-			if (formattedValue < 1024) {
+			long bytes = QuantityUtils.toBytes(quantity);
+			if (bytes > 0 && bytes < QuantityUtils.BYTES_PER_GIBIBYTE) {
 				return MemoryUnit.Mi;
 			} else {
 				return MemoryUnit.Gi;
@@ -740,6 +957,19 @@ public class NamespaceService {
 		return v1ResourceQuota;
 	}
 
+	private V1Namespace makeNamespace(String namespaceName) {
+		V1Namespace v1Namespace = new V1Namespace();
+		v1Namespace.setApiVersion("v1");
+		v1Namespace.setKind("Namespace");
+		v1Namespace.setSpec(new V1NamespaceSpec().addFinalizersItem("kubernetes"));
+		V1ObjectMeta namespaceMetadata = new V1ObjectMeta();
+		namespaceMetadata.setName(namespaceName);
+		v1Namespace.setMetadata(namespaceMetadata);
+		v1Namespace.getMetadata().setLabels(ResourcesLabelManager.getSystemLabels());
+
+		return v1Namespace;
+	}
+
 	private V1RoleBinding makeRoleBinding(String namespace, RoleBindingVO vo) {
 		String username = vo.getUsername();
 		String serviceAccountName = ResourcesNameManager.getServiceAccountName(username);
@@ -773,53 +1003,40 @@ public class NamespaceService {
 		return roleBinding;
 	}
 
-	private Map<String, String> removeLabel(Map<String, String> labels, String label) {
-		if (labels == null || labels.isEmpty()) {
-			return labels;
-		}
-
-		if (StringUtils.isEmpty(label)) {
-			return labels;
-		}
-
-		String[] map = label.split("=");
-		if (map == null || map.length != 2) {
+	private String[] parseLabel(String label) throws ZcpException {
+		String[] keyValue = label.split("=");
+		if (keyValue.length != 2) {
 			log.debug("label is invalid - {}", label);
-			return labels;
-		}
-
-		String key = map[0];
-		String value = map[1];
-
-		if (StringUtils.equals(value, labels.get(key))) {
-			labels.remove(key);
+			throw new ZcpException("N099",
+					"label[" + label + "] value is invalid. The label format should be 'key=value'");
 		}
-
-		return labels;
+		return keyValue;
 	}
 
-	private Map<String, String> addLabel(Map<String, String> labels, String newLabel) throws ZcpException {
-		if (StringUtils.isEmpty(newLabel)) {
-			return labels;
+	private Map<String, String> parseLabels(List<String> labels) throws ZcpException {
+		Map<String, String> parsed = new LinkedHashMap<>();
+		if (labels != null) {
+			for (String label : labels) {
+				String[] keyValue = parseLabel(label);
+				parsed.put(keyValue[0], keyValue[1]);
+			}
 		}
+		return parsed;
+	}
 
-		String[] map = newLabel.split("=");
-		if (map == null || map.length != 2) {
-			log.debug("label is invalid - {}", newLabel);
-			throw new ZcpException("N099",
-					"label[" + newLabel + "] value is invalid. The label format should be 'key=value'");
+	private byte[] labelsPatch(Map<String, Object> labels, String resourceVersion) throws ZcpException {
+		Map<String, Object> metadata = new LinkedHashMap<>();
+		metadata.put("labels", labels);
+		if (resourceVersion != null) {
+			metadata.put("resourceVersion", resourceVersion);
 		}
+		Map<String, Object> patch = new LinkedHashMap<>();
+		patch.put("metadata", metadata);
 
-		String key = map[0];
-		String value = map[1];
-
-		if (labels == null) {
-			labels = new HashMap<>();
+		try {
+			return objectMapper.writeValueAsBytes(patch);
+		} catch (JsonProcessingException e) {
+			throw new ZcpException("N0009", e.getMessage());
 		}
-
-		labels.put(key, value);
-
-		return labels;
 	}
-
 }
@@ -0,0 +1,50 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+/**
+ * The result of a namespace of the batch label changes.
+ */
+public class NamespaceLabelResultVO {
+
+	public enum Status {
+		UPDATED, UNCHANGED, FAILED
+	}
+
+	private String namespace;
+	private Status status;
+	private String message;
+
+	public NamespaceLabelResultVO() {
+		super();
+	}
+
+	public NamespaceLabelResultVO(String namespace, Status status, String message) {
+		this.namespace = namespace;
+		this.status = status;
+		this.message = message;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	public void setNamespace(String namespace) {
+		this.namespace = namespace;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+import java.util.List;
+
+/**
+ * The label changes of the namespaces. The target namespaces are the given
+ * namespaces, or the namespaces matching the label selector, or the given
+ * namespaces which match the label selector when both are given.
+ */
+public class NamespaceLabelsVO {
+	private List<String> namespaces;
+	private String labelSelector;
+	private List<String> addLabels;
+	private List<String> removeLabels;
+
+	public List<String> getNamespaces() {
+		return namespaces;
+	}
+
+	public void setNamespaces(List<String> namespaces) {
+		this.namespaces = namespaces;
+	}
+
+	public String getLabelSelector() {
+		return labelSelector;
+	}
+
+	public void setLabelSelector(String labelSelector) {
+		this.labelSelector = labelSelector;
+	}
+
+	public List<String> getAddLabels() {
+		return addLabels;
+	}
+
+	public void setAddLabels(List<String> addLabels) {
+		this.addLabels = addLabels;
+	}
+
+	public List<String> getRemoveLabels() {
+		return removeLabels;
+	}
+
+	public void setRemoveLabels(List<String> removeLabels) {
+		this.removeLabels = removeLabels;
+	}
+
+}
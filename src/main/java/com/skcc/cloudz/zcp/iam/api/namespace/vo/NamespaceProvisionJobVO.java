@@ -0,0 +1,93 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A bulk provisioning of the namespaces. The job is running until every
+ * namespace is done, and the counts are computed from the namespaces.
+ */
+public class NamespaceProvisionJobVO {
+
+	public enum Status {
+		PENDING, RUNNING, COMPLETED
+	}
+
+	private String id;
+	private volatile Status status;
+	private Date createdTime;
+	private volatile Date completedTime;
+	private List<NamespaceProvisionResultVO> items;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public Date getCreatedTime() {
+		return createdTime;
+	}
+
+	public void setCreatedTime(Date createdTime) {
+		this.createdTime = createdTime;
+	}
+
+	public Date getCompletedTime() {
+		return completedTime;
+	}
+
+	public void setCompletedTime(Date completedTime) {
+		this.completedTime = completedTime;
+	}
+
+	public List<NamespaceProvisionResultVO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<NamespaceProvisionResultVO> items) {
+		this.items = items;
+	}
+
+	public int getTotalCount() {
+		return items.size();
+	}
+
+	public int getDoneCount() {
+		int count = 0;
+		for (NamespaceProvisionResultVO item : items) {
+			if (item.isDone()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public int getFailedCount() {
+		int count = 0;
+		for (NamespaceProvisionResultVO item : items) {
+			if (item.getStatus() == NamespaceProvisionResultVO.Status.FAILED) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@JsonIgnore
+	public boolean isExpired(long retentionMillis) {
+		return completedTime != null && System.currentTimeMillis() - completedTime.getTime() > retentionMillis;
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+/**
+ * The progress of a namespace of a bulk provisioning. The step is the resource
+ * which is being created, or which has failed.
+ *
+ * The fields are written by the provisioning threads and read by the request
+ * threads, so they are volatile. FAILED is final, the status is not changed
+ * once the namespace has failed.
+ */
+public class NamespaceProvisionResultVO {
+
+	public enum Status {
+		PENDING, RUNNING, CREATED, UPDATED, FAILED
+	}
+
+	private volatile String namespace;
+	private volatile Status status;
+	private volatile String step;
+	private volatile String message;
+
+	public NamespaceProvisionResultVO() {
+		super();
+	}
+
+	public NamespaceProvisionResultVO(String namespace) {
+		this.namespace = namespace;
+		this.status = Status.PENDING;
+	}
+
+	public boolean isDone() {
+		return status == Status.CREATED || status == Status.UPDATED || status == Status.FAILED;
+	}
+
+	public String getNamespace() {
+		return namespace;
+	}
+
+	public void setNamespace(String namespace) {
+		this.namespace = namespace;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public synchronized void setStatus(Status status) {
+		if (this.status != Status.FAILED) {
+			this.status = status;
+		}
+	}
+
+	/**
+	 * @return false if the namespace is already done
+	 */
+	public synchronized boolean fail(String message) {
+		if (isDone()) {
+			return false;
+		}
+		this.message = message;
+		this.status = Status.FAILED;
+		return true;
+	}
+
+	public String getStep() {
+		return step;
+	}
+
+	public void setStep(String step) {
+		this.step = step;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * The namespaces which are provisioned from the same template.
+ */
+public class NamespaceProvisionVO {
+	@NotNull
+	private List<String> namespaces;
+	@Valid
+	@NotNull
+	private NamespaceTemplateVO template;
+
+	public List<String> getNamespaces() {
+		return namespaces;
+	}
+
+	public void setNamespaces(List<String> namespaces) {
+		this.namespaces = namespaces;
+	}
+
+	public NamespaceTemplateVO getTemplate() {
+		return template;
+	}
+
+	public void setTemplate(NamespaceTemplateVO template) {
+		this.template = template;
+	}
+
+}
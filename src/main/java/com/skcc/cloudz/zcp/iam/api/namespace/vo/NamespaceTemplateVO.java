@@ -0,0 +1,44 @@
+package com.skcc.cloudz.zcp.iam.api.namespace.vo;
+
+import java.util.List;
+
+import javax.validation.Valid;
+
+import com.skcc.cloudz.zcp.iam.common.model.ZcpLimitRange;
+import com.skcc.cloudz.zcp.iam.common.model.ZcpResourceQuota;
+
+/**
+ * The resources which are created in each namespace of a bulk provisioning.
+ * The resource quota, the limit range and the role bindings are optional.
+ */
+public class NamespaceTemplateVO {
+	private ZcpResourceQuota resourceQuota;
+	private ZcpLimitRange limitRange;
+	@Valid
+	private List<RoleBindingVO> roleBindings;
+
+	public ZcpResourceQuota getResourceQuota() {
+		return resourceQuota;
+	}
+
+	public void setResourceQuota(ZcpResourceQuota resourceQuota) {
+		this.resourceQuota = resourceQuota;
+	}
+
+	public ZcpLimitRange getLimitRange() {
+		return limitRange;
+	}
+
+	public void setLimitRange(ZcpLimitRange limitRange) {
+		this.limitRange = limitRange;
+	}
+
+	public List<RoleBindingVO> getRoleBindings() {
+		return roleBindings;
+	}
+
+	public void setRoleBindings(List<RoleBindingVO> roleBindings) {
+		this.roleBindings = roleBindings;
+	}
+
+}
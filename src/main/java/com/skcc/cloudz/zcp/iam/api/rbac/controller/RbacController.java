@@ -9,10 +9,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.skcc.cloudz.zcp.iam.api.rbac.service.RbacService;
+import com.skcc.cloudz.zcp.iam.common.util.ETagBuilder;
 import com.skcc.cloudz.zcp.iam.common.vo.Response;
 
+import io.kubernetes.client.models.V1ClusterRole;
 import io.kubernetes.client.models.V1ClusterRoleList;
 
 @Configuration
@@ -27,10 +30,16 @@ public class RbacController {
 	private RbacService rbacService;
 
 	@RequestMapping(value = "/rbac/clusterRoles", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-	public Response<V1ClusterRoleList> getClusterRoleList(@RequestParam(required = false, value = "type") String type)
-			throws Exception {
+	public Response<V1ClusterRoleList> getClusterRoleList(@RequestParam(required = false, value = "type") String type,
+			WebRequest webRequest) throws Exception {
+		V1ClusterRoleList clusterRoleList = rbacService.getClusterRoles(type);
+		String etag = new ETagBuilder().addResources(clusterRoleList.getItems(), V1ClusterRole::getMetadata).build();
+		if (webRequest.checkNotModified(etag)) {
+			return null;
+		}
+
 		Response<V1ClusterRoleList> response = new Response<>();
-		response.setData(rbacService.getClusterRoles(type));
+		response.setData(clusterRoleList);
 		return response;
 	}
 
@@ -1,5 +1,7 @@
 package com.skcc.cloudz.zcp.iam.api.user.controller;
 
+import java.io.IOException;
+
 import javax.validation.Valid;
 
 import org.slf4j.Logger;
@@ -7,19 +9,29 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.skcc.cloudz.zcp.iam.api.user.service.UserService;
+import com.skcc.cloudz.zcp.iam.api.namespace.vo.ItemList;
+import com.skcc.cloudz.zcp.iam.api.user.vo.MemberListVO;
+import com.skcc.cloudz.zcp.iam.api.user.vo.MemberResultVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.MemberVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.ResetCredentialVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.ResetPasswordVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.UpdateClusterRoleVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.UpdatePasswordVO;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpKubeConfig;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUser;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUserList;
@@ -37,13 +49,59 @@ public class UserController {
 	@Autowired
 	private UserService userService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	@RequestMapping(value = "/users", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
-	public Response<ZcpUserList> getUsers(@RequestParam (required=false, value="keyword") String keyword) throws Exception {
+	public Response<ZcpUserList> getUsers(@RequestParam (required=false, value="keyword") String keyword,
+			@RequestParam(required = false, value = "first") Integer first,
+			@RequestParam(required = false, value = "max") Integer max,
+			@RequestParam(required = false, value = "cursor") String cursor, WebRequest webRequest) throws Exception {
+		ZcpUserList userList = null;
+		if (first == null && max == null && cursor == null) {
+			userList = userService.getUsers(keyword);
+		} else {
+			userList = userService.getUsers(keyword, first, max, cursor);
+		}
+		if (webRequest.checkNotModified(userList.getEtag())) {
+			return null;
+		}
+
 		Response<ZcpUserList> response = new Response<>();
-		response.setData(userService.getUsers(keyword));
+		response.setData(userList);
 		return response;
 	}
 
+	/**
+	 * Writes the same body as /users, but the users are written as the pages
+	 * arrive from keycloak.
+	 */
+	@RequestMapping(value = "/users/stream", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamUsers(
+			@RequestParam(required = false, value = "keyword") String keyword) throws Exception {
+		StreamingResponseBody body = out -> {
+			Response<Object> response = new Response<>();
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.writeStartObject();
+				generator.writeStringField("msg", response.getMsg());
+				generator.writeStringField("code", response.getCode());
+				generator.writeObjectFieldStart("data");
+				generator.writeArrayFieldStart("items");
+
+				userService.streamUsers(keyword, user -> generator.writeObject(user));
+
+				generator.writeEndArray();
+				generator.writeEndObject();
+				generator.writeEndObject();
+			} catch (ZcpException e) {
+				// the status has already been sent, so the response can only be aborted
+				throw new IOException(e.getMessage(), e);
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(body);
+	}
+
 	@RequestMapping(value = "/user", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
 	public Response<Object> addUser(@RequestBody @Valid MemberVO user) throws Exception {
 		Response<Object> response = new Response<Object>();
@@ -51,6 +109,20 @@ public class UserController {
 		return response;
 	}
 
+	/**
+	 * Creates the users at once. The result of each user is returned in the
+	 * order of the request.
+	 */
+	@RequestMapping(value = "/users/batch", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE)
+	public Response<ItemList<MemberResultVO>> addUsers(@RequestBody @Valid MemberListVO users) throws Exception {
+		ItemList<MemberResultVO> results = new ItemList<>();
+		results.setItems(userService.createUsers(users.getItems()));
+
+		Response<ItemList<MemberResultVO>> response = new Response<>();
+		response.setData(results);
+		return response;
+	}
+
 	@RequestMapping(value = "/user/{id}", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
 	public Response<ZcpUser> getUser(@PathVariable("id") String id) throws Exception {
 		logger.debug("The requested id is {}", id);
@@ -1,11 +1,17 @@
 package com.skcc.cloudz.zcp.iam.api.user.service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.lang3.StringUtils;
 import org.keycloak.representations.idm.CredentialRepresentation;
@@ -16,11 +22,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.skcc.cloudz.zcp.iam.api.user.vo.MemberResultVO;
+import com.skcc.cloudz.zcp.iam.api.user.vo.MemberResultVO.Status;
 import com.skcc.cloudz.zcp.iam.api.user.vo.MemberVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.ResetCredentialVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.ResetPasswordVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.UpdateClusterRoleVO;
 import com.skcc.cloudz.zcp.iam.api.user.vo.UpdatePasswordVO;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor.Task;
 import com.skcc.cloudz.zcp.iam.common.exception.KeyCloakException;
 import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
 import com.skcc.cloudz.zcp.iam.common.model.ClusterRole;
@@ -34,15 +44,16 @@ import com.skcc.cloudz.zcp.iam.common.model.ZcpKubeConfig.UserInfo;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpKubeConfig.UserInfo.User;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUser;
 import com.skcc.cloudz.zcp.iam.common.model.ZcpUserList;
+import com.skcc.cloudz.zcp.iam.common.util.ETagBuilder;
 import com.skcc.cloudz.zcp.iam.manager.KeyCloakManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
 import com.skcc.cloudz.zcp.iam.manager.KubeRbacAuthzManager;
 import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
 import com.skcc.cloudz.zcp.iam.manager.ResourcesNameManager;
+import com.skcc.cloudz.zcp.iam.manager.cache.PrivilegeDecisionCache;
 
 import io.kubernetes.client.ApiException;
 import io.kubernetes.client.models.V1ClusterRoleBinding;
-import io.kubernetes.client.models.V1ClusterRoleBindingList;
 import io.kubernetes.client.models.V1ObjectMeta;
 import io.kubernetes.client.models.V1ObjectReference;
 import io.kubernetes.client.models.V1RoleBinding;
@@ -50,8 +61,6 @@ import io.kubernetes.client.models.V1RoleBindingList;
 import io.kubernetes.client.models.V1RoleRef;
 import io.kubernetes.client.models.V1Secret;
 import io.kubernetes.client.models.V1ServiceAccount;
-import io.kubernetes.client.models.V1ServiceAccountList;
-import io.kubernetes.client.models.V1Status;
 import io.kubernetes.client.models.V1Subject;
 
 @Service
@@ -68,57 +77,199 @@ public class UserService {
 	@Autowired
 	private KubeRbacAuthzManager kubeRbacAuthzManager;
 
+	@Autowired
+	private FanOutExecutor fanOutExecutor;
+
+	@Autowired
+	private PrivilegeDecisionCache privilegeDecisionCache;
+
 	@Value("${zcp.kube.namespace}")
 	private String zcpSystemNamespace;
 
 	@Value("${kube.server.apiserver.endpoint}")
 	private String kubeApiServerEndpoint;
 
+	@Value("${zcp.keycloak.pageSize:100}")
+	private int userPageSize;
+
+	@Value("${zcp.users.maxPageSize:500}")
+	private int maxPageSize;
+
+	@Value("${zcp.user.batch.maxSize:1000}")
+	private int batchMaxSize;
+
+	@Value("${zcp.user.batch.parallelism:8}")
+	private int batchParallelism;
+
+	@Value("${zcp.user.delete.parallelism:8}")
+	private int deleteParallelism;
+
+	@Value("${zcp.user.serviceAccount.recreateAttempts:8}")
+	private int recreateAttempts;
+
+	@Value("${zcp.user.serviceAccount.recreateBackoffMillis:50}")
+	private long recreateBackoffMillis;
+
+	private static final long MAX_RECREATE_BACKOFF_MILLIS = 1000;
+
+	private static final String CURSOR_PREFIX = "first:";
+
+	private static final int CONFLICT = 409;
+
+	/**
+	 * Receives the users of {@link UserService#streamUsers(String, UserConsumer)}
+	 * one by one.
+	 */
+	public interface UserConsumer {
+		void accept(ZcpUser user) throws IOException;
+	}
+
 	public ZcpUserList getUsers(String keyword) throws ZcpException {
 		List<UserRepresentation> keyCloakUsers = keyCloakManager.getUserList(keyword);
+		UserBindings bindings = getUserBindings();
 
-		List<ZcpUser> users = new ArrayList<ZcpUser>();
-		for (UserRepresentation cloakUser : keyCloakUsers) {
-			ZcpUser user = new ZcpUser();
-			user.setId(cloakUser.getId());
-			user.setUsername(cloakUser.getUsername());
-			user.setEmail(cloakUser.getEmail());
-			user.setLastName(cloakUser.getLastName());
-			user.setFirstName(cloakUser.getFirstName());
-			user.setCreatedDate(new Date(cloakUser.getCreatedTimestamp()));
-			user.setEnabled(cloakUser.isEnabled());
+		ZcpUserList userList = new ZcpUserList(toZcpUsers(keyCloakUsers, bindings));
+		userList.setEtag(etagOf(keyCloakUsers, bindings));
 
-			users.add(user);
+		return userList;
+	}
+
+	/**
+	 * Returns a page of the users. The paging is pushed down to keycloak. The
+	 * cursor is the <code>next</code> of the previous page and takes precedence
+	 * over the first. The max is at most zcp.users.maxPageSize, so a page can
+	 * not pull the whole realm.
+	 */
+	public ZcpUserList getUsers(String keyword, Integer first, Integer max, String cursor) throws ZcpException {
+		int offset = StringUtils.isEmpty(cursor) ? (first == null ? 0 : first) : decodeCursor(cursor);
+		int size = max == null ? Math.min(userPageSize, maxPageSize) : max;
+		if (offset < 0 || size <= 0 || size > maxPageSize) {
+			throw new ZcpException("U0004",
+					"The first should not be negative and the max should be between 1 and " + maxPageSize);
+		}
+		if (offset > Integer.MAX_VALUE - size - 1) {
+			throw new ZcpException("U0004", "The first(" + offset + ") is too large");
+		}
+
+		// one more user is requested to know whether the next page exists
+		List<UserRepresentation> keyCloakUsers = keyCloakManager.getUserList(keyword, offset, size + 1);
+		UserBindings bindings = getUserBindings();
+		// the extra user is included because it decides the next
+		String etag = etagOf(keyCloakUsers, bindings);
+		boolean hasNext = keyCloakUsers.size() > size;
+		if (hasNext) {
+			keyCloakUsers = keyCloakUsers.subList(0, size);
+		}
+
+		ZcpUserList userList = new ZcpUserList(toZcpUsers(keyCloakUsers, bindings));
+		if (hasNext) {
+			userList.setNext(encodeCursor(offset + size));
+		}
+		userList.setEtag(etag);
+
+		return userList;
+	}
+
+	/**
+	 * Passes all the users to the consumer page by page as the pages arrive from
+	 * keycloak, so the whole realm is never held in memory.
+	 */
+	public void streamUsers(String keyword, UserConsumer consumer) throws ZcpException, IOException {
+		UserBindings bindings = getUserBindings();
+
+		int first = 0;
+		List<UserRepresentation> keyCloakUsers = null;
+		do {
+			keyCloakUsers = keyCloakManager.getUserList(keyword, first, userPageSize);
+			for (ZcpUser user : toZcpUsers(keyCloakUsers, bindings)) {
+				consumer.accept(user);
+			}
+			first += keyCloakUsers.size();
+		} while (keyCloakUsers.size() == userPageSize);
+
+		logger.debug("{} users have been streamed", first);
+	}
+
+	private String encodeCursor(int first) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + first).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private int decodeCursor(String cursor) throws ZcpException {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (decoded.startsWith(CURSOR_PREFIX)) {
+				return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+			}
+		} catch (IllegalArgumentException e) {
+			// NumberFormatException is also an IllegalArgumentException
 		}
 
-		Map<String, V1ClusterRoleBinding> mappedClusterRoleBindings = null;
+		throw new ZcpException("U0004", "The cursor(" + cursor + ") is invalid");
+	}
+
+	private UserBindings getUserBindings() throws ZcpException {
+		UserBindings bindings = new UserBindings();
 		try {
-			mappedClusterRoleBindings = getMappedClusterRoleBindings();
+			bindings.clusterRoleBindings = getMappedClusterRoleBindings();
 		} catch (ApiException e) {
 			e.printStackTrace();
 			throw new ZcpException("U0001");
 		}
 
-		Map<String, List<V1RoleBinding>> mappedRoleBindings = null;
 		try {
-			mappedRoleBindings = getMappedRoleBindings();
+			bindings.roleBindings = getMappedRoleBindings();
 		} catch (ApiException e) {
 			e.printStackTrace();
 			throw new ZcpException("U0002");
 		}
 
+		return bindings;
+	}
+
+	private String etagOf(List<UserRepresentation> keyCloakUsers, UserBindings bindings) {
+		List<V1RoleBinding> roleBindings = new ArrayList<>();
+		for (List<V1RoleBinding> userRoleBindings : bindings.roleBindings.values()) {
+			roleBindings.addAll(userRoleBindings);
+		}
+
+		return new ETagBuilder().addUsers(keyCloakUsers)
+				.addResources(bindings.clusterRoleBindings.values(), V1ClusterRoleBinding::getMetadata)
+				.addResources(roleBindings, V1RoleBinding::getMetadata).build();
+	}
+
+	private List<ZcpUser> toZcpUsers(List<UserRepresentation> keyCloakUsers, UserBindings bindings) {
+		List<ZcpUser> users = new ArrayList<ZcpUser>();
+		for (UserRepresentation cloakUser : keyCloakUsers) {
+			ZcpUser user = new ZcpUser();
+			user.setId(cloakUser.getId());
+			user.setUsername(cloakUser.getUsername());
+			user.setEmail(cloakUser.getEmail());
+			user.setLastName(cloakUser.getLastName());
+			user.setFirstName(cloakUser.getFirstName());
+			user.setCreatedDate(new Date(cloakUser.getCreatedTimestamp()));
+			user.setEnabled(cloakUser.isEnabled());
+
+			users.add(user);
+		}
+
 		for (ZcpUser user : users) {
-			List<V1RoleBinding> userRoleBindins = mappedRoleBindings.get(user.getUsername());
+			List<V1RoleBinding> userRoleBindins = bindings.roleBindings.get(user.getUsername());
 			if (userRoleBindins != null) {
 				user.setUsedNamespace(userRoleBindins.size());
 			}
-			V1ClusterRoleBinding userClusterRoleBinding = mappedClusterRoleBindings.get(user.getUsername());
+			V1ClusterRoleBinding userClusterRoleBinding = bindings.clusterRoleBindings.get(user.getUsername());
 			if (userClusterRoleBinding != null) {
 				user.setClusterRole(ClusterRole.getClusterRole(userClusterRoleBinding.getRoleRef().getName()));
 			}
 		}
 
-		return new ZcpUserList(users);
+		return users;
+	}
+
+	private static class UserBindings {
+		private Map<String, V1ClusterRoleBinding> clusterRoleBindings;
+		private Map<String, List<V1RoleBinding>> roleBindings;
 	}
 
 	public ZcpUser getUser(String id) throws ZcpException {
@@ -136,6 +287,9 @@ public class UserService {
 		zcpUser = convertUser(userRepresentation);
 		String username = zcpUser.getUsername();
 
+		Task<V1RoleBindingList> roleBindingListTask = fanOutExecutor.submit("user rolebindings",
+				() -> kubeRbacAuthzManager.getRoleBindingListByUsername(username));
+
 		V1ClusterRoleBinding userClusterRoleBinding = null;
 		try {
 			userClusterRoleBinding = kubeRbacAuthzManager.getClusterRoleBindingByUsername(username);
@@ -156,7 +310,7 @@ public class UserService {
 
 		List<V1RoleBinding> userRoleBindings = null;
 		try {
-			userRoleBindings = kubeRbacAuthzManager.getRoleBindingListByUsername(username).getItems();
+			userRoleBindings = roleBindingListTask.get(ApiException.class).getItems();
 		} catch (ApiException e) {
 			//e.printStackTrace();
 			//throw new ZcpException("ZCP-0001", e.getMessage());
@@ -178,67 +332,201 @@ public class UserService {
 	}
 
 	public void createUser(MemberVO user) throws ZcpException {
-		// 1. create service account
-		V1ServiceAccountList serviceAccountList = null;
+		createUserResources(user, true);
+
+		// 3. create keycloak user
+		user.setEnabled(Boolean.TRUE);
+		UserRepresentation userRepresentation = getKeyCloakUser(null, user);
+
+		keyCloakManager.createUser(userRepresentation);
+	}
+
+	/**
+	 * Creates the keycloak users in one partial import, and then creates the
+	 * serviceaccounts and clusterrolebindings of the added users in parallel.
+	 * The existing keycloak users are not changed.
+	 */
+	public List<MemberResultVO> createUsers(List<MemberVO> users) throws ZcpException {
+		if (users.size() > batchMaxSize) {
+			throw new ZcpException("U0005", "The users should not be more than " + batchMaxSize);
+		}
+
+		Map<String, MemberResultVO> results = new LinkedHashMap<>();
+		Map<String, MemberVO> members = new LinkedHashMap<>();
+		List<UserRepresentation> userRepresentations = new ArrayList<>();
+		for (MemberVO user : users) {
+			if (results.containsKey(user.getUsername())) {
+				// the result of the first one is kept
+				continue;
+			}
+			results.put(user.getUsername(), new MemberResultVO(user.getUsername(), Status.FAILED, null));
+			members.put(user.getUsername(), user);
+
+			user.setEnabled(Boolean.TRUE);
+			userRepresentations.add(getKeyCloakUser(null, user));
+		}
+
+		Map<String, String> actions = null;
 		try {
-			serviceAccountList = kubeCoreManager.getServiceAccountListByUsername(zcpSystemNamespace,
-					user.getUsername());
-		} catch (ApiException e) {
-			// ignore
+			actions = keyCloakManager.importUsers(userRepresentations);
+		} catch (KeyCloakException e) {
+			throw new ZcpException("U0006", e.getMessage());
+		}
+
+		Map<String, Callable<Object>> calls = new LinkedHashMap<>();
+		for (MemberResultVO result : results.values()) {
+			String action = actions.get(result.getUsername());
+			if (StringUtils.equals(action, "SKIPPED")) {
+				result.setStatus(Status.EXISTS);
+				continue;
+			} else if (!StringUtils.equals(action, "ADDED")) {
+				result.setMessage("The keycloak user has not been imported");
+				continue;
+			}
+
+			MemberVO user = members.get(result.getUsername());
+			calls.put(user.getUsername(), () -> {
+				createUserResources(user, false);
+				return null;
+			});
 		}
 
-		if (serviceAccountList != null) {
-			V1Status status = null;
-			try {
-				status = kubeCoreManager.deleteServiceAccountListByUsername(zcpSystemNamespace, user.getUsername());
-			} catch (ApiException e) {
-				throw new ZcpException("ZCP-008", e.getMessage());
+		Map<String, String> failures = fanOutExecutor.runAll(calls, batchParallelism);
+		for (String username : calls.keySet()) {
+			MemberResultVO result = results.get(username);
+			if (failures.containsKey(username)) {
+				result.setMessage("The keycloak user has been created, but the kubernetes resources have not. "
+						+ failures.get(username));
+			} else {
+				result.setStatus(Status.CREATED);
 			}
+		}
+
+		logger.debug("{} users have been requested, {} users have been created", users.size(),
+				calls.size() - failures.size());
 
-			logger.debug("The serviceaccounts of user({}) have been removed. {}", user.getUsername(),
-					status.getMessage());
+		return new ArrayList<>(results.values());
+	}
+
+	/**
+	 * Creates the serviceaccount and the clusterrolebinding of the user. They do
+	 * not depend on each other, so they are created concurrently unless the
+	 * caller already runs on the fan-out pool.
+	 */
+	private void createUserResources(MemberVO user, boolean concurrent) throws ZcpException {
+		String username = user.getUsername();
+		if (!concurrent) {
+			createOrReplaceServiceAccount(username);
+			createOrReplaceClusterRoleBinding(username, user.getClusterRole());
+			return;
+		}
+
+		Task<Void> serviceAccountTask = fanOutExecutor.submit("serviceaccount of " + username, () -> {
+			createOrReplaceServiceAccount(username);
+			return null;
+		});
+		createOrReplaceClusterRoleBinding(username, user.getClusterRole());
+		serviceAccountTask.get();
+	}
+
+	/**
+	 * Creates the serviceaccount of the user. The conflict means it already
+	 * exists, and then it is created again so the token of it is always new.
+	 */
+	private void createOrReplaceServiceAccount(String username) throws ZcpException {
+		try {
+			kubeCoreManager.createServiceAccount(zcpSystemNamespace, getServiceAccount(username));
+			return;
+		} catch (ApiException e) {
+			if (e.getCode() != CONFLICT) {
+				throw new ZcpException("ZCP-009", e.getMessage());
+			}
 		}
 
-		V1ServiceAccount serviceAccount = getServiceAccount(user.getUsername());
+		logger.debug("The serviceaccount of user({}) already exists, so it is replaced", username);
+		recreateServiceAccount(username);
+	}
 
+	private void createServiceAccountIfAbsent(String username) throws ZcpException {
 		try {
-			serviceAccount = kubeCoreManager.createServiceAccount(zcpSystemNamespace, serviceAccount);
+			kubeCoreManager.createServiceAccount(zcpSystemNamespace, getServiceAccount(username));
 		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
+			if (e.getCode() != CONFLICT) {
+				throw new ZcpException("ZCP-000", e.getMessage());
+			}
 		}
+	}
 
-		// 2. create clusterRolebindinding
-		V1ClusterRoleBindingList clusterRoleBindingList = null;
+	/**
+	 * Deletes the serviceaccounts of the user and creates it again. The deletion
+	 * returns before the old serviceaccount is gone, so the creation is retried
+	 * with a doubling backoff (at most zcp.user.serviceAccount.recreateAttempts
+	 * times) while it conflicts with the old one.
+	 */
+	private void recreateServiceAccount(String username) throws ZcpException {
 		try {
-			clusterRoleBindingList = kubeRbacAuthzManager.getClusterRoleBindingListByUsername(user.getUsername());
+			kubeCoreManager.deleteServiceAccountListByUsername(zcpSystemNamespace, username);
 		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
+			throw new ZcpException("ZCP-008", e.getMessage());
 		}
 
-		if (clusterRoleBindingList != null) {
-			V1Status status = null;
+		long backoffMillis = recreateBackoffMillis;
+		for (int attempt = 1;; attempt++) {
 			try {
-				status = kubeRbacAuthzManager.deleteClusterRoleBindingByUsername(user.getUsername());
+				kubeCoreManager.createServiceAccount(zcpSystemNamespace, getServiceAccount(username));
+				return;
 			} catch (ApiException e) {
-				throw new ZcpException("ZCP-008", e.getMessage());
+				if (e.getCode() != CONFLICT || attempt >= recreateAttempts) {
+					throw new ZcpException("ZCP-009", e.getMessage());
+				}
 			}
 
-			logger.debug("The clusterRoleBindings of user({}) have been removed. {}", user.getUsername(),
-					status.getMessage());
+			logger.debug("The old serviceaccount of user({}) is not gone yet, retried in {}ms", username,
+					backoffMillis);
+			try {
+				Thread.sleep(backoffMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ZcpException("ZCP-009", "The creation of the serviceaccount has been interrupted");
+			}
+			backoffMillis = Math.min(backoffMillis * 2, MAX_RECREATE_BACKOFF_MILLIS);
 		}
+	}
 
-		V1ClusterRoleBinding clusterRoleBinding = getClusterRoleBinding(user.getUsername(), user.getClusterRole());
+	private void createOrReplaceClusterRoleBinding(String username, ClusterRole clusterRole) throws ZcpException {
 		try {
-			clusterRoleBinding = kubeRbacAuthzManager.createClusterRoleBinding(clusterRoleBinding);
+			kubeRbacAuthzManager.createClusterRoleBinding(getClusterRoleBinding(username, clusterRole));
+			return;
 		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
+			if (e.getCode() != CONFLICT) {
+				throw new ZcpException("ZCP-009", e.getMessage());
+			}
+		} finally {
+			privilegeDecisionCache.invalidateUser(username);
 		}
 
-		// 3. create keycloak user
-		user.setEnabled(Boolean.TRUE);
-		UserRepresentation userRepresentation = getKeyCloakUser(null, user);
+		logger.debug("The clusterrolebinding of user({}) already exists, so it is replaced", username);
+		replaceClusterRoleBinding(username, clusterRole);
+	}
 
-		keyCloakManager.createUser(userRepresentation);
+	/**
+	 * The roleRef of a clusterrolebinding can not be changed, so the
+	 * clusterrolebindings of the user are deleted and it is created again.
+	 */
+	private void replaceClusterRoleBinding(String username, ClusterRole clusterRole) throws ZcpException {
+		try {
+			kubeRbacAuthzManager.deleteClusterRoleBindingByUsername(username);
+		} catch (ApiException e) {
+			throw new ZcpException("ZCP-008", e.getMessage());
+		}
+
+		try {
+			kubeRbacAuthzManager.createClusterRoleBinding(getClusterRoleBinding(username, clusterRole));
+		} catch (ApiException e) {
+			throw new ZcpException("ZCP-009", e.getMessage());
+		} finally {
+			privilegeDecisionCache.invalidateUser(username);
+		}
 	}
 
 	public void updateUser(String id, MemberVO user) throws ZcpException {
@@ -250,38 +538,51 @@ public class UserService {
 		}
 	}
 
+	/**
+	 * Deletes the kubernetes resources of the user in parallel, and then the
+	 * keycloak user. The failed deletions are retried once, and when some of
+	 * them still fail the keycloak user is kept so the deletion can be requested
+	 * again. All the deletions are idempotent.
+	 */
 	public void deleteUser(String id) throws ZcpException {
-		ZcpUser zcpUser = getUser(id);
+		UserRepresentation userRepresentation = null;
+		try {
+			userRepresentation = keyCloakManager.getUser(id);
+		} catch (KeyCloakException e) {
+			throw new ZcpException("U0003", e.getMessage());
+		}
 
-		String username = zcpUser.getUsername();
+		String username = userRepresentation.getUsername();
 
-		// delete service account
+		Set<String> userNamespaces = new TreeSet<>();
 		try {
-			kubeCoreManager.deleteServiceAccountListByUsername(zcpSystemNamespace, username);
+			for (V1RoleBinding roleBinding : kubeRbacAuthzManager.getRoleBindingListByUsername(username).getItems()) {
+				userNamespaces.add(roleBinding.getMetadata().getNamespace());
+			}
 		} catch (ApiException e) {
-			e.printStackTrace();
 			throw new ZcpException("ZCP-000", e.getMessage());
 		}
 
-		// delete clusterrolebinding
-		try {
-			kubeRbacAuthzManager.deleteClusterRoleBindingByUsername(username);
-		} catch (ApiException e) {
-			e.printStackTrace();
-			throw new ZcpException("ZCP-000", e.getMessage());
+		Map<String, Callable<Object>> deletions = new LinkedHashMap<>();
+		deletions.put("serviceaccounts",
+				() -> kubeCoreManager.deleteServiceAccountListByUsername(zcpSystemNamespace, username));
+		deletions.put("clusterrolebindings", () -> kubeRbacAuthzManager.deleteClusterRoleBindingByUsername(username));
+		for (String namespace : userNamespaces) {
+			deletions.put("rolebindings in " + namespace,
+					() -> kubeRbacAuthzManager.deleteRoleBindingListByUsername(namespace, username));
 		}
 
-		// delete rolebindings
-		List<String> userNamespaces = zcpUser.getNamespaces();
-		if (userNamespaces != null && !userNamespaces.isEmpty()) {
-			for (String namespace : userNamespaces) {
-				try {
-					kubeRbacAuthzManager.deleteRoleBindingListByUsername(namespace, username);
-				} catch (ApiException e) {
-					e.printStackTrace();
-					throw new ZcpException("ZCP-000", e.getMessage());
-				}
-			}
+		Map<String, String> failures = fanOutExecutor.runAll(deletions, deleteParallelism);
+		if (!failures.isEmpty()) {
+			logger.debug("The deletions of user({}) are retried. {}", username, failures.keySet());
+			deletions.keySet().retainAll(failures.keySet());
+			failures = fanOutExecutor.runAll(deletions, deleteParallelism);
+		}
+		privilegeDecisionCache.invalidateUser(username);
+
+		if (!failures.isEmpty()) {
+			throw new ZcpException("ZCP-000",
+					"The resources of user(" + username + ") could not be deleted. " + failures);
 		}
 
 		// delete keycloak user
@@ -303,53 +604,17 @@ public class UserService {
 
 		String username = userRepresentation.getUsername();
 
-		// should check the service account exist or not
 		// if user created by himself, the service account may not exist
 		// so should create the service account
-		V1ServiceAccountList serviceAccounts = null;
-		try {
-			serviceAccounts = kubeCoreManager.getServiceAccountListByUsername(zcpSystemNamespace, username);
-		} catch (ApiException e) {
-			throw new ZcpException("ZCP-000", e.getMessage());
-		}
-
-		if (serviceAccounts == null || serviceAccounts.getItems() == null || serviceAccounts.getItems().isEmpty()) {
-			V1ServiceAccount serviceAccount = getServiceAccount(username);
-			try {
-				kubeCoreManager.createServiceAccount(zcpSystemNamespace, serviceAccount);
-			} catch (ApiException e) {
-				e.printStackTrace();
-				throw new ZcpException("ZCP-000", e.getMessage());
-			}
-		}
+		Task<Void> serviceAccountTask = fanOutExecutor.submit("serviceaccount of " + username, () -> {
+			createServiceAccountIfAbsent(username);
+			return null;
+		});
 
-		// delete clusterRolebindinding
-		V1ClusterRoleBindingList clusterRoleBindingList = null;
-		try {
-			clusterRoleBindingList = kubeRbacAuthzManager.getClusterRoleBindingListByUsername(username);
-		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
-		}
+		// the clusterrolebinding exists in most cases, so it is replaced without trying to create it first
+		replaceClusterRoleBinding(username, vo.getClusterRole());
+		serviceAccountTask.get();
 
-		if (clusterRoleBindingList != null) {
-			V1Status status = null;
-			try {
-				status = kubeRbacAuthzManager.deleteClusterRoleBindingByUsername(username);
-			} catch (ApiException e) {
-				throw new ZcpException("ZCP-008", e.getMessage());
-			}
-
-			logger.debug("The clusterRoleBindings of user({}) have been removed. {}", username, status.getMessage());
-		}
-
-		// create new clusterRolebindinding
-		V1ClusterRoleBinding clusterRoleBinding = getClusterRoleBinding(username, vo.getClusterRole());
-		try {
-			clusterRoleBinding = kubeRbacAuthzManager.createClusterRoleBinding(clusterRoleBinding);
-		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
-		}
-		
 		// create a rolebinding of default namespace
 		ZcpUser zcpUser = convertUser(userRepresentation);
 		String defaultNamespace = "default"; // this is a default namespace of k8s
@@ -360,6 +625,8 @@ public class UserService {
 				roleBinding = kubeRbacAuthzManager.createRoleBinding(defaultNamespace, roleBinding);
 			} catch (ApiException e) {
 				throw new ZcpException("N0002", e.getMessage());
+			} finally {
+				privilegeDecisionCache.invalidateUser(username);
 			}
 			zcpUser.setDefaultNamespace(defaultNamespace);
 
@@ -525,32 +792,7 @@ public class UserService {
 
 		String username = userRepresentation.getUsername();
 
-		V1ServiceAccountList serviceAccountList = null;
-		try {
-			serviceAccountList = kubeCoreManager.getServiceAccountListByUsername(zcpSystemNamespace, username);
-		} catch (ApiException e) {
-			// ignore
-		}
-
-		if (serviceAccountList != null) {
-			V1Status status = null;
-			try {
-				status = kubeCoreManager.deleteServiceAccountListByUsername(zcpSystemNamespace, username);
-			} catch (ApiException e) {
-				throw new ZcpException("ZCP-008", e.getMessage());
-			}
-
-			logger.debug("The serviceaccounts of user({}) have been removed. {}", username, status.getMessage());
-		}
-
-		V1ServiceAccount serviceAccount = getServiceAccount(username);
-
-		try {
-			serviceAccount = kubeCoreManager.createServiceAccount(zcpSystemNamespace, serviceAccount);
-		} catch (ApiException e) {
-			throw new ZcpException("ZCP-009", e.getMessage());
-		}
-
+		recreateServiceAccount(username);
 	}
 
 	private Map<String, List<V1RoleBinding>> getMappedRoleBindings() throws ApiException {
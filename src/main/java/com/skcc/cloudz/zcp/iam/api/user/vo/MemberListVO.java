@@ -0,0 +1,25 @@
+package com.skcc.cloudz.zcp.iam.api.user.vo;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import com.skcc.cloudz.zcp.iam.common.vo.Ivo;
+
+public class MemberListVO implements Ivo {
+	@Valid
+	@NotNull
+	@Size(min = 1)
+	private List<MemberVO> items;
+
+	public List<MemberVO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<MemberVO> items) {
+		this.items = items;
+	}
+
+}
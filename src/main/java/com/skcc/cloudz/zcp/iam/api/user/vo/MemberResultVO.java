@@ -0,0 +1,50 @@
+package com.skcc.cloudz.zcp.iam.api.user.vo;
+
+/**
+ * The result of a user of the batch creation.
+ */
+public class MemberResultVO {
+
+	public enum Status {
+		CREATED, EXISTS, FAILED
+	}
+
+	private String username;
+	private Status status;
+	private String message;
+
+	public MemberResultVO() {
+		super();
+	}
+
+	public MemberResultVO(String username, Status status, String message) {
+		this.username = username;
+		this.status = status;
+		this.message = message;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public void setUsername(String username) {
+		this.username = username;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+}
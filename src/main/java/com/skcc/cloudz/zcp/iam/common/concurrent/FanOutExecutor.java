@@ -0,0 +1,185 @@
+package com.skcc.cloudz.zcp.iam.common.concurrent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+
+/**
+ * Runs the independent upstream calls (keycloak, kube api server) of a request
+ * in parallel, so the latency of the request is about the slowest call instead
+ * of the sum of them.
+ *
+ * The pool is bounded. When the queue is full the call is run by the caller
+ * thread, so the calls are never rejected.
+ */
+@Component
+public class FanOutExecutor {
+
+	private final Logger logger = LoggerFactory.getLogger(FanOutExecutor.class);
+
+	public static final String UPSTREAM_ERROR_CODE = "ZCP-0010";
+
+	@Value("${zcp.fanout.threads:16}")
+	private int threads;
+
+	@Value("${zcp.fanout.queueSize:256}")
+	private int queueSize;
+
+	@Value("${zcp.fanout.timeoutSeconds:10}")
+	private long timeoutSeconds;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	public void init() {
+		executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), new FanOutThreadFactory(),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+
+		logger.debug("FanOutExecutor is initialized. threads is {}, queue size is {}", threads, queueSize);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Starts the call in the background. The name is only used for the error
+	 * messages and the logs.
+	 */
+	public <T> Task<T> submit(String name, Callable<T> call) {
+		return new Task<>(name, executor.submit(call), System.currentTimeMillis() + timeoutSeconds * 1000);
+	}
+
+	/**
+	 * Runs many calls, at most parallelism calls at once so a large batch does
+	 * not take the whole pool, and returns the error messages of the failed calls
+	 * by name. It does not stop at the first failure.
+	 */
+	public Map<String, String> runAll(Map<String, Callable<Object>> calls, int parallelism) throws ZcpException {
+		Semaphore permits = new Semaphore(parallelism);
+		Map<String, Task<Object>> tasks = new LinkedHashMap<>();
+		for (Map.Entry<String, Callable<Object>> call : calls.entrySet()) {
+			try {
+				permits.acquire();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ZcpException(UPSTREAM_ERROR_CODE, "The calls have been interrupted");
+			}
+			tasks.put(call.getKey(), submit(call.getKey(), () -> {
+				try {
+					return call.getValue().call();
+				} finally {
+					permits.release();
+				}
+			}));
+		}
+
+		Map<String, String> failures = new LinkedHashMap<>();
+		for (Map.Entry<String, Task<Object>> task : tasks.entrySet()) {
+			try {
+				task.getValue().get();
+			} catch (ZcpException | RuntimeException e) {
+				failures.put(task.getKey(), e.getMessage());
+			}
+		}
+
+		return failures;
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public int getQueueSize() {
+		return executor.getQueue().size();
+	}
+
+	public class Task<T> {
+
+		private final String name;
+
+		private final Future<T> future;
+
+		private final long deadline;
+
+		private Task(String name, Future<T> future, long deadline) {
+			this.name = name;
+			this.future = future;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Waits for the result until the timeout of the call. The exception of the
+		 * expected type which is thrown by the call is rethrown as it is, so the
+		 * callers can keep their own error handling. The timeout and the other
+		 * checked exceptions are mapped to {@link ZcpException}.
+		 */
+		public <E extends Exception> T get(Class<E> expected) throws E, ZcpException {
+			try {
+				return future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				throw new ZcpException(UPSTREAM_ERROR_CODE, "The upstream call(" + name + ") has timed out");
+			} catch (InterruptedException e) {
+				future.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new ZcpException(UPSTREAM_ERROR_CODE, "The upstream call(" + name + ") has been interrupted");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (expected.isInstance(cause)) {
+					throw expected.cast(cause);
+				}
+				if (cause instanceof ZcpException) {
+					throw (ZcpException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+
+				throw new ZcpException(UPSTREAM_ERROR_CODE,
+						"The upstream call(" + name + ") has failed. " + cause.getMessage());
+			}
+		}
+
+		public T get() throws ZcpException {
+			return get(ZcpException.class);
+		}
+	}
+
+	private static class FanOutThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "fanout-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
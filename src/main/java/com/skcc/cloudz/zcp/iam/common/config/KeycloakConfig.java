@@ -1,16 +1,32 @@
 package com.skcc.cloudz.zcp.iam.common.config;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.KeycloakBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.skcc.cloudz.zcp.iam.common.metrics.KeycloakMetricsFilter;
+
 
+/**
+ * The keycloak admin client which is shared by all the requests. It is built on
+ * a pooled http engine, because the default engine of resteasy has one
+ * connection and the concurrent calls wait for it.
+ *
+ * The grant type is password or client_credentials. The username and the
+ * password are not needed for client_credentials.
+ */
 @Configuration
 public class KeycloakConfig{
 	
@@ -28,24 +44,64 @@ public class KeycloakConfig{
 	@Value("${keycloak.master.clientSecret}")
 	private String clientSecret; 
 	
-	@Value("${keycloak.master.username}")
+	@Value("${keycloak.master.grantType:password}")
+	private String grantType;
+	
+	@Value("${keycloak.master.username:}")
 	private String username;
 	
-	@Value("${keycloak.master.password}")
+	@Value("${keycloak.master.password:}")
 	private String password;
 	
+	@Value("${keycloak.client.pool.maxConnections:64}")
+	private int maxConnections;
+	
+	@Value("${keycloak.client.pool.keepAliveSeconds:300}")
+	private long keepAliveSeconds;
+	
+	@Value("${keycloak.client.pool.checkoutTimeoutSeconds:10}")
+	private long checkoutTimeoutSeconds;
+	
+	@Value("${keycloak.client.connectTimeoutSeconds:10}")
+	private long connectTimeoutSeconds;
+	
+	@Value("${keycloak.client.socketTimeoutSeconds:30}")
+	private long socketTimeoutSeconds;
+	
+	@Autowired
+	private KeycloakMetricsFilter metricsFilter;
+	
 	@Bean
 	@Qualifier("keycloak")
 	public Keycloak getInstance() {
-		log.debug("Keycloak init...!!!!!!!!!!!!!!!!!!!!!");
-		return KeycloakBuilder.builder() //
+		log.debug("Keycloak init. grant type is {}, max connections is {}", grantType, maxConnections);
+		
+		// all the calls are to one host, so the route has all the connections
+		ResteasyClient client = new ResteasyClientBuilder() //
+				.connectionPoolSize(maxConnections) //
+				.maxPooledPerRoute(maxConnections) //
+				.connectionTTL(keepAliveSeconds, TimeUnit.SECONDS) //
+				.connectionCheckoutTimeout(checkoutTimeoutSeconds, TimeUnit.SECONDS) //
+				.connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS) //
+				.readTimeout(socketTimeoutSeconds, TimeUnit.SECONDS) //
+				.register(metricsFilter) //
+				.build();
+		
+		KeycloakBuilder builder = KeycloakBuilder.builder() //
 				.serverUrl(serverUrl) //
 				.realm(realm) //
-				.grantType(OAuth2Constants.PASSWORD) //
 				.clientId(clientId) //
 				.clientSecret(clientSecret) //
-				.username(username) //
-				.password(password) //
-				.build();
+				.resteasyClient(client);
+		
+		if (StringUtils.equals(grantType, OAuth2Constants.CLIENT_CREDENTIALS)) {
+			builder.grantType(OAuth2Constants.CLIENT_CREDENTIALS);
+		} else {
+			builder.grantType(OAuth2Constants.PASSWORD) //
+					.username(username) //
+					.password(password);
+		}
+		
+		return builder.build();
 	}
 }
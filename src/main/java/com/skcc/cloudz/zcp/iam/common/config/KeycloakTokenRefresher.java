@@ -0,0 +1,134 @@
+package com.skcc.cloudz.zcp.iam.common.config;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.token.TokenManager;
+import org.keycloak.representations.AccessTokenResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes the admin token of the keycloak client in the background before
+ * it expires, so the requests do not wait for the token to be refreshed.
+ *
+ * The token is refreshed aheadSeconds before it expires, which should be more
+ * than the min validity (30 seconds) of the token manager, otherwise a request
+ * may refresh the token before this does. When the token has no refresh token
+ * (client_credentials) a new token is granted instead. A failed refresh is
+ * retried after retrySeconds, and meanwhile the client refreshes the token by
+ * itself when it is used.
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=keycloakTokenRefresher")
+public class KeycloakTokenRefresher {
+
+	private final Logger logger = LoggerFactory.getLogger(KeycloakTokenRefresher.class);
+
+	@Autowired
+	@Qualifier("keycloak")
+	private Keycloak keycloak;
+
+	@Value("${keycloak.client.tokenRefresh.enabled:true}")
+	private boolean enabled;
+
+	@Value("${keycloak.client.tokenRefresh.aheadSeconds:45}")
+	private long aheadSeconds;
+
+	@Value("${keycloak.client.tokenRefresh.retrySeconds:5}")
+	private long retrySeconds;
+
+	private ScheduledExecutorService scheduler;
+
+	private final AtomicLong refreshCount = new AtomicLong();
+
+	private final AtomicLong failureCount = new AtomicLong();
+
+	private volatile AccessTokenResponse lastToken;
+
+	private volatile long expireAt;
+
+	@PostConstruct
+	public void start() {
+		if (!enabled) {
+			logger.info("The keycloak token refresh is disabled");
+			return;
+		}
+
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "keycloak-token-refresher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		// the first token is granted in the background, so the startup does not fail when keycloak is down
+		scheduler.execute(this::refresh);
+	}
+
+	@PreDestroy
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+	}
+
+	@ManagedAttribute
+	public long getRefreshCount() {
+		return refreshCount.get();
+	}
+
+	@ManagedAttribute
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+
+	@ManagedAttribute
+	public long getExpiresInSeconds() {
+		return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(expireAt - System.currentTimeMillis()));
+	}
+
+	private void refresh() {
+		TokenManager tokenManager = keycloak.tokenManager();
+		try {
+			AccessTokenResponse token = null;
+			if (lastToken == null) {
+				token = tokenManager.getAccessToken();
+			} else if (lastToken.getRefreshToken() == null) {
+				token = tokenManager.grantToken();
+			} else {
+				token = tokenManager.refreshToken();
+			}
+			refreshCount.incrementAndGet();
+			lastToken = token;
+			schedule(token);
+		} catch (RuntimeException e) {
+			retry(e);
+		}
+	}
+
+	private void schedule(AccessTokenResponse token) {
+		expireAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(token.getExpiresIn());
+		long delay = Math.max(retrySeconds, token.getExpiresIn() - aheadSeconds);
+		scheduler.schedule(this::refresh, delay, TimeUnit.SECONDS);
+		logger.debug("The keycloak token expires in {} seconds, and is refreshed in {} seconds",
+				token.getExpiresIn(), delay);
+	}
+
+	private void retry(RuntimeException e) {
+		failureCount.incrementAndGet();
+		logger.warn("The keycloak token could not be refreshed, so it is retried in {} seconds. {}", retrySeconds,
+				e.getMessage());
+		scheduler.schedule(this::refresh, retrySeconds, TimeUnit.SECONDS);
+	}
+}
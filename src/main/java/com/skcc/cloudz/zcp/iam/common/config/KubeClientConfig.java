@@ -0,0 +1,97 @@
+package com.skcc.cloudz.zcp.iam.common.config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.skcc.cloudz.zcp.iam.common.metrics.KubeMetricsInterceptor;
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.OkHttpClient;
+
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.util.Config;
+
+/**
+ * The kubernetes api client which is shared by all the managers, so they use
+ * one connection pool and one limit of the concurrent requests.
+ */
+@Configuration
+public class KubeClientConfig {
+
+	private final Logger log = LoggerFactory.getLogger(KubeClientConfig.class);
+
+	@Value("${kube.client.pool.maxIdleConnections:20}")
+	private int maxIdleConnections;
+
+	@Value("${kube.client.pool.keepAliveSeconds:300}")
+	private long keepAliveSeconds;
+
+	@Value("${kube.client.connectTimeoutSeconds:10}")
+	private long connectTimeoutSeconds;
+
+	@Value("${kube.client.readTimeoutSeconds:30}")
+	private long readTimeoutSeconds;
+
+	@Value("${kube.client.writeTimeoutSeconds:30}")
+	private long writeTimeoutSeconds;
+
+	// overrides the server of the kubeconfig or the cluster, e.g. for a local stub api server
+	@Value("${kube.client.basePath:}")
+	private String basePath;
+
+	@Bean
+	@Qualifier("kubeConnectionPool")
+	public ConnectionPool kubeConnectionPool() {
+		return new ConnectionPool(maxIdleConnections, TimeUnit.SECONDS.toMillis(keepAliveSeconds));
+	}
+
+	@Bean
+	@Qualifier("kubeApiClient")
+	public ApiClient kubeApiClient(@Qualifier("kubeConnectionPool") ConnectionPool connectionPool,
+			KubeRequestLimiter requestLimiter, KubeMetricsInterceptor metricsInterceptor) throws IOException {
+		ApiClient client = newClient(basePath);
+
+		OkHttpClient httpClient = client.getHttpClient();
+		httpClient.setConnectionPool(connectionPool);
+		httpClient.setConnectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS);
+		httpClient.setReadTimeout(readTimeoutSeconds, TimeUnit.SECONDS);
+		httpClient.setWriteTimeout(writeTimeoutSeconds, TimeUnit.SECONDS);
+		httpClient.interceptors().add(requestLimiter);
+		// after the limiter, so the time waiting for a permit is not recorded
+		httpClient.interceptors().add(metricsInterceptor);
+
+		// for the apis which are created without a client
+		io.kubernetes.client.Configuration.setDefaultApiClient(client);
+
+		log.debug("The kube api client is initialized. basePath is {}", client.getBasePath());
+
+		return client;
+	}
+
+	/**
+	 * Creates a client for the long running watches. It shares the connection
+	 * pool, but is not limited by {@link KubeRequestLimiter} and has no read
+	 * timeout.
+	 */
+	public static ApiClient newWatchClient(ConnectionPool connectionPool, String basePath) throws IOException {
+		ApiClient client = newClient(basePath);
+		client.getHttpClient().setConnectionPool(connectionPool);
+		client.getHttpClient().setReadTimeout(0, TimeUnit.SECONDS);
+		return client;
+	}
+
+	private static ApiClient newClient(String basePath) throws IOException {
+		ApiClient client = Config.defaultClient();
+		if (StringUtils.isNotEmpty(basePath)) {
+			client.setBasePath(basePath);
+		}
+		return client;
+	}
+}
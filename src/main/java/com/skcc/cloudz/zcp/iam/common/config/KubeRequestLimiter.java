@@ -0,0 +1,192 @@
+package com.skcc.cloudz.zcp.iam.common.config;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Limits the concurrent requests per host of the kube api client. The okhttp
+ * dispatcher limits only the asynchronous calls, but the generated apis execute
+ * the calls synchronously.
+ *
+ * A permit is held until the response body is closed. The usage of the permits
+ * and of the connection pool is exported through JMX
+ * (zcp-iam:name=kubeApiClient).
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=kubeApiClient")
+public class KubeRequestLimiter implements Interceptor {
+
+	@Value("${kube.client.maxRequestsPerHost:32}")
+	private int maxRequestsPerHost;
+
+	@Value("${kube.client.acquireTimeoutSeconds:10}")
+	private long acquireTimeoutSeconds;
+
+	@Autowired
+	@Qualifier("kubeConnectionPool")
+	private ConnectionPool connectionPool;
+
+	private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+
+	private final AtomicInteger waitingCount = new AtomicInteger();
+
+	private final AtomicLong requestCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Semaphore semaphore = permits.computeIfAbsent(chain.request().url().getHost(),
+				host -> new Semaphore(maxRequestsPerHost));
+
+		acquire(semaphore, chain.request().url().getHost());
+
+		Response response = null;
+		try {
+			response = chain.proceed(chain.request());
+		} finally {
+			if (response == null || response.body() == null) {
+				release(semaphore);
+			}
+		}
+
+		return response.newBuilder().body(new ReleasingResponseBody(response.body(), semaphore)).build();
+	}
+
+	private void acquire(Semaphore semaphore, String host) throws IOException {
+		waitingCount.incrementAndGet();
+		try {
+			if (!semaphore.tryAcquire(acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+				rejectedCount.incrementAndGet();
+				throw new IOException("Too many concurrent requests to " + host);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the request permit of " + host);
+		} finally {
+			waitingCount.decrementAndGet();
+		}
+
+		inFlightCount.incrementAndGet();
+		requestCount.incrementAndGet();
+	}
+
+	private void release(Semaphore semaphore) {
+		inFlightCount.decrementAndGet();
+		semaphore.release();
+	}
+
+	@ManagedAttribute
+	public int getMaxRequestsPerHost() {
+		return maxRequestsPerHost;
+	}
+
+	@ManagedAttribute
+	public int getInFlightCount() {
+		return inFlightCount.get();
+	}
+
+	@ManagedAttribute
+	public int getWaitingCount() {
+		return waitingCount.get();
+	}
+
+	@ManagedAttribute
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	@ManagedAttribute
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	@ManagedAttribute
+	public int getConnectionCount() {
+		return connectionPool.getConnectionCount();
+	}
+
+	@ManagedAttribute
+	public int getIdleConnectionCount() {
+		return connectionPool.getIdleConnectionCount();
+	}
+
+	private class ReleasingResponseBody extends ResponseBody {
+
+		private final ResponseBody delegate;
+
+		private final BufferedSource source;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		ReleasingResponseBody(ResponseBody delegate, Semaphore semaphore) throws IOException {
+			this.delegate = delegate;
+			this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+				@Override
+				public long read(Buffer sink, long byteCount) throws IOException {
+					long read = super.read(sink, byteCount);
+					if (read == -1) {
+						releaseOnce(semaphore);
+					}
+					return read;
+				}
+
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						releaseOnce(semaphore);
+					}
+				}
+			});
+		}
+
+		private void releaseOnce(Semaphore semaphore) {
+			if (released.compareAndSet(false, true)) {
+				release(semaphore);
+			}
+		}
+
+		@Override
+		public MediaType contentType() {
+			return delegate.contentType();
+		}
+
+		@Override
+		public long contentLength() throws IOException {
+			return delegate.contentLength();
+		}
+
+		@Override
+		public BufferedSource source() throws IOException {
+			return source;
+		}
+	}
+}
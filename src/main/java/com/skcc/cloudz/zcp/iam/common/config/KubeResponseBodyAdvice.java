@@ -1,9 +1,17 @@
 package com.skcc.cloudz.zcp.iam.common.config;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
-import java.util.Arrays;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -15,90 +23,136 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 import com.skcc.cloudz.zcp.iam.common.annotation.NullProperty;
 import com.skcc.cloudz.zcp.iam.common.vo.Response;
 
-@ControllerAdvice 
+/**
+ * Sets the fields of {@link NullProperty} to null before the response is
+ * written.
+ *
+ * The dotted paths are split once per handler method and the field accessors
+ * are resolved once per class, both are cached so the advice can be used by the
+ * concurrent requests. The lists in the middle of a path are applied to each
+ * element. The body is changed in place, so it should not be a shared (cached)
+ * object.
+ */
+@ControllerAdvice
 public class KubeResponseBodyAdvice implements ResponseBodyAdvice<Object> {
 
-	NullProperty property = null; 
-	
+	private final Logger log = LoggerFactory.getLogger(KubeResponseBodyAdvice.class);
+
+	private static final NullingPlan NO_PLAN = new NullingPlan(Collections.<String[]>emptyList());
+
+	private static final FieldAccessor MISSING_FIELD = new FieldAccessor(null, null);
+
+	private final ConcurrentMap<Method, NullingPlan> plans = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<Class<?>, ConcurrentMap<String, FieldAccessor>> accessors = new ConcurrentHashMap<>();
+
 	@Override
 	public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
-		property = returnType.getMethod().getAnnotation(NullProperty.class);
-		return property != null;
+		return getPlan(returnType.getMethod()) != NO_PLAN;
 	}
 
 	@Override
-	@SuppressWarnings("unchecked")
 	public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
 			Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
 			ServerHttpResponse response) {
+		if (body instanceof Response) {
+			Object data = ((Response<?>) body).getData();
+			for (String[] path : getPlan(returnType.getMethod()).paths) {
+				setNull(data, path, 0);
+			}
+		}
+
+		return body;
+	}
+
+	private NullingPlan getPlan(Method method) {
+		if (method == null) {
+			return NO_PLAN;
+		}
+
+		return plans.computeIfAbsent(method, m -> {
+			NullProperty property = m.getAnnotation(NullProperty.class);
+			if (property == null) {
+				return NO_PLAN;
+			}
+
+			List<String[]> paths = new ArrayList<>();
+			for (String field : property.field()) {
+				paths.add(field.split("\\."));
+			}
+			return new NullingPlan(paths);
+		});
+	}
+
+	private void setNull(Object target, String[] path, int index) {
+		if (target == null) {
+			return;
+		}
+
+		if (target instanceof List) {
+			for (Object element : (List<?>) target) {
+				setNull(element, path, index);
+			}
+			return;
+		}
+
+		FieldAccessor accessor = getAccessor(target.getClass(), path[index]);
+		if (accessor == MISSING_FIELD) {
+			return;
+		}
+
 		try {
-			List<String> fields = Arrays.asList(property.field());
-			
-			for(String field : fields) {
-			//if(fields.stream().anyMatch(data -> "metadata.creationTimestamp".equals(data))) {
-				if(field.split("\\.").length == 1) {
-					Object data = ((Response<Object>)body).getData();
-					if(data == null) continue;
-					Field fieldMeta = data.getClass().getDeclaredField(field.split("\\.")[0]);
-					fieldMeta.setAccessible(true);
-					fieldMeta.set(data, null);
-				}
-				else if(field.split("\\.").length == 2) {
-					Object data = ((Response<Object>)body).getData();
-					if(data == null) continue;
-					Field field1 = data.getClass().getDeclaredField(field.split("\\.")[0]);
-					field1.setAccessible(true);
-					Object obj1 = field1.get(data);
-					if(obj1 instanceof List){
-						List<Object> listObj = (List<Object> )obj1;
-						for(Object o : listObj) {
-							Field field2 = o.getClass().getDeclaredField(field.split("\\.")[1]);
-							field2.setAccessible(true);
-							field2.set(o, null);
-						}
-					}else {
-						Field field2 = obj1.getClass().getDeclaredField(field.split("\\.")[1]);
-						field2.setAccessible(true);
-						field2.set(obj1, null);
-					}
-					
-				}
-				else if(field.split("\\.").length == 3) {
-					Object data = ((Response<Object>)body).getData();
-					if(data == null) continue;
-					Field field1 = data.getClass().getDeclaredField(field.split("\\.")[0]);
-					field1.setAccessible(true);
-					Object obj1 = field1.get(data);
-					if(obj1 instanceof List){
-						List<Object> listObj = (List<Object> )obj1;
-						for(Object o : listObj) {
-							Field field2 = o.getClass().getDeclaredField(field.split("\\.")[1]);
-							field2.setAccessible(true);
-							Object obj2 = field2.get(o);
-							Field field3 = obj2.getClass().getDeclaredField(field.split("\\.")[2]);
-							field3.setAccessible(true);
-							field3.set(obj2, null);
-						}
-					}else {
-						Field field2 = obj1.getClass().getDeclaredField(field.split("\\.")[1]);
-						field2.setAccessible(true);
-						Object obj2 = field2.get(obj1);
-						Field field3 = obj2.getClass().getDeclaredField(field.split("\\.")[2]);
-						field3.setAccessible(true);
-						field3.set(obj2, null);
+			if (index == path.length - 1) {
+				accessor.setter.invoke(target, (Object) null);
+			} else {
+				setNull(accessor.getter.invoke(target), path, index + 1);
+			}
+		} catch (Throwable e) {
+			log.warn("The field({}) of {} can not be set to null. {}", path[index], target.getClass().getName(),
+					e.getMessage());
+		}
+	}
+
+	private FieldAccessor getAccessor(Class<?> type, String name) {
+		return accessors.computeIfAbsent(type, t -> new ConcurrentHashMap<>()).computeIfAbsent(name, n -> {
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				try {
+					Field field = c.getDeclaredField(n);
+					if (field.getType().isPrimitive()) {
+						break;
 					}
+
+					field.setAccessible(true);
+					MethodHandles.Lookup lookup = MethodHandles.lookup();
+					return new FieldAccessor(lookup.unreflectGetter(field), lookup.unreflectSetter(field));
+				} catch (NoSuchFieldException e) {
+					// look up the super class
+				} catch (IllegalAccessException | SecurityException e) {
+					break;
 				}
 			}
-		} catch (SecurityException | NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+
+			log.warn("The nullable field({}) does not exist in {}", n, type.getName());
+			return MISSING_FIELD;
+		});
+	}
+
+	private static class NullingPlan {
+		private final List<String[]> paths;
+
+		NullingPlan(List<String[]> paths) {
+			this.paths = paths;
 		}
-			
-		return body;
 	}
-	
-//	private Field setNull(Object data, String[] name) {
-//		
-//	}
-	
+
+	private static class FieldAccessor {
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		FieldAccessor(MethodHandle getter, MethodHandle setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+
 }
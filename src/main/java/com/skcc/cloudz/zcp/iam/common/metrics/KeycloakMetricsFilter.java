@@ -0,0 +1,77 @@
+package com.skcc.cloudz.zcp.iam.common.metrics;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the requests of the keycloak client until the response arrives. The
+ * operation is the method and the path, with the realm and the ids replaced
+ * by placeholders, e.g. "GET /admin/realms/{realm}/users/{id}".
+ *
+ * A request which fails without a response (a connection error or a timeout)
+ * does not reach the response filter, so it is not recorded.
+ */
+@Component
+public class KeycloakMetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+	private static final String UPSTREAM = "keycloak";
+
+	private static final String START_PROPERTY = KeycloakMetricsFilter.class.getName() + ".start";
+
+	private static final Pattern ID = Pattern
+			.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+	@Autowired
+	private UpstreamMetrics upstreamMetrics;
+
+	@Override
+	public void filter(ClientRequestContext requestContext) throws IOException {
+		requestContext.setProperty(START_PROPERTY, System.nanoTime());
+	}
+
+	@Override
+	public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext)
+			throws IOException {
+		Object start = requestContext.getProperty(START_PROPERTY);
+		if (start == null) {
+			return;
+		}
+		upstreamMetrics.record(UPSTREAM, operationOf(requestContext.getMethod(), requestContext.getUri().getPath()),
+				UpstreamMetrics.outcomeOf(responseContext.getStatus()), System.nanoTime() - (Long) start);
+	}
+
+	static String operationOf(String method, String path) {
+		StringBuilder operation = new StringBuilder(method).append(' ');
+		String[] segments = path.split("/");
+		// the path of the server url, e.g. /auth, is left out
+		int first = 0;
+		for (int i = 0; i < segments.length; i++) {
+			if (segments[i].equals("admin") || segments[i].equals("realms")) {
+				first = i;
+				break;
+			}
+		}
+		for (int i = first; i < segments.length; i++) {
+			if (segments[i].isEmpty()) {
+				continue;
+			}
+			operation.append('/');
+			if (i > 0 && segments[i - 1].equals("realms")) {
+				operation.append("{realm}");
+			} else if (ID.matcher(segments[i]).matches()) {
+				operation.append("{id}");
+			} else {
+				operation.append(segments[i]);
+			}
+		}
+		return operation.toString();
+	}
+}
@@ -0,0 +1,81 @@
+package com.skcc.cloudz.zcp.iam.common.metrics;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.squareup.okhttp.HttpUrl;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+/**
+ * Times the requests of the kube api client until the response headers
+ * arrive. The operation is the verb and the resource of the request, e.g.
+ * "list pods" or "get namespaces", so the names are not in the tags.
+ *
+ * It is added after {@link com.skcc.cloudz.zcp.iam.common.config.KubeRequestLimiter},
+ * so the time waiting for a permit is not included.
+ */
+@Component
+public class KubeMetricsInterceptor implements Interceptor {
+
+	private static final String UPSTREAM = "kube";
+
+	@Autowired
+	private UpstreamMetrics upstreamMetrics;
+
+	@Override
+	public Response intercept(Chain chain) throws IOException {
+		Request request = chain.request();
+		String operation = operationOf(request.method(), request.httpUrl());
+		long start = System.nanoTime();
+		try {
+			Response response = chain.proceed(request);
+			upstreamMetrics.record(UPSTREAM, operation, UpstreamMetrics.outcomeOf(response.code()),
+					System.nanoTime() - start);
+			return response;
+		} catch (IOException | RuntimeException e) {
+			upstreamMetrics.record(UPSTREAM, operation, UpstreamMetrics.outcomeOf(e), System.nanoTime() - start);
+			throw e;
+		}
+	}
+
+	// /api/v1/[namespaces/{namespace}/]{resource}[/{name}[/{subresource}]] or the same under /apis/{group}/{version}
+	static String operationOf(String method, HttpUrl url) {
+		List<String> segments = url.pathSegments();
+		int index = !segments.isEmpty() && segments.get(0).equals("apis") ? 3 : 2;
+		if (segments.size() > index + 2 && segments.get(index).equals("namespaces")) {
+			index += 2;
+		}
+		if (segments.size() <= index) {
+			return method.toLowerCase() + " " + url.encodedPath();
+		}
+
+		String resource = segments.get(index);
+		boolean named = segments.size() > index + 1;
+		if (segments.size() > index + 2) {
+			resource += "/" + segments.get(index + 2);
+		}
+
+		switch (method) {
+		case "GET":
+			if ("true".equals(url.queryParameter("watch"))) {
+				return "watch " + resource;
+			}
+			return (named ? "get " : "list ") + resource;
+		case "POST":
+			return "create " + resource;
+		case "PUT":
+			return "replace " + resource;
+		case "PATCH":
+			return "patch " + resource;
+		case "DELETE":
+			return (named ? "delete " : "deletecollection ") + resource;
+		default:
+			return method.toLowerCase() + " " + resource;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.skcc.cloudz.zcp.iam.common.metrics;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * The round trips to the kube api server and keycloak as
+ * <code>zcp.upstream.requests</code> tagged by upstream (kube, keycloak),
+ * operation and outcome (ok, 404, 4xx, 5xx, timeout, error).
+ *
+ * They are recorded at the transport, by {@link KubeMetricsInterceptor} and
+ * {@link KeycloakMetricsFilter}, so the calls which are answered from the
+ * caches are not counted.
+ */
+@Component
+public class UpstreamMetrics {
+
+	public static final String METRIC_NAME = "zcp.upstream.requests";
+
+	@Autowired
+	private MeterRegistry registry;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	public void record(String upstream, String operation, String outcome, long nanos) {
+		timer(upstream, operation, outcome).record(Duration.ofNanos(nanos));
+	}
+
+	private Timer timer(String upstream, String operation, String outcome) {
+		String key = upstream + '/' + operation + '/' + outcome;
+		Timer timer = timers.get(key);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(key,
+					k -> Timer.builder(METRIC_NAME).tag("upstream", upstream).tag("operation", operation)
+							.tag("outcome", outcome).publishPercentileHistogram()
+							.maximumExpectedValue(Duration.ofSeconds(30)).register(registry));
+		}
+		return timer;
+	}
+
+	static String outcomeOf(int status) {
+		if (status == 404) {
+			return "404";
+		} else if (status >= 500) {
+			return "5xx";
+		} else if (status >= 400) {
+			return "4xx";
+		}
+		return "ok";
+	}
+
+	static String outcomeOf(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SocketTimeoutException) {
+				return "timeout";
+			}
+			if (cause.getCause() == cause) {
+				break;
+			}
+		}
+		return "error";
+	}
+}
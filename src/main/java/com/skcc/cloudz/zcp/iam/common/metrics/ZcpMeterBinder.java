@@ -0,0 +1,76 @@
+package com.skcc.cloudz.zcp.iam.common.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.skcc.cloudz.zcp.iam.api.metric.service.MetricStreamService;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.config.KubeRequestLimiter;
+import com.skcc.cloudz.zcp.iam.manager.cache.KeyCloakUserCache;
+import com.skcc.cloudz.zcp.iam.manager.cache.PrivilegeDecisionCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the counters of the caches and the pools, which are also exported
+ * through JMX, to the meter registry (the prometheus endpoint).
+ */
+@Component
+public class ZcpMeterBinder implements MeterBinder {
+
+	@Autowired
+	private KeyCloakUserCache keyCloakUserCache;
+
+	@Autowired
+	private PrivilegeDecisionCache privilegeDecisionCache;
+
+	@Autowired
+	private KubeRequestLimiter kubeRequestLimiter;
+
+	@Autowired
+	private FanOutExecutor fanOutExecutor;
+
+	@Autowired
+	private MetricStreamService metricStreamService;
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("zcp.keycloak.cache.requests", keyCloakUserCache, KeyCloakUserCache::getHitCount)
+				.tag("result", "hit").register(registry);
+		FunctionCounter.builder("zcp.keycloak.cache.requests", keyCloakUserCache, KeyCloakUserCache::getMissCount)
+				.tag("result", "miss").register(registry);
+		FunctionCounter
+				.builder("zcp.keycloak.cache.evictions", keyCloakUserCache, KeyCloakUserCache::getEvictionCount)
+				.register(registry);
+		Gauge.builder("zcp.keycloak.cache.size", keyCloakUserCache, KeyCloakUserCache::getSize).register(registry);
+
+		FunctionCounter.builder("zcp.authz.cache.requests", privilegeDecisionCache, PrivilegeDecisionCache::getHitCount)
+				.tag("result", "hit").register(registry);
+		FunctionCounter
+				.builder("zcp.authz.cache.requests", privilegeDecisionCache, PrivilegeDecisionCache::getMissCount)
+				.tag("result", "miss").register(registry);
+		Gauge.builder("zcp.authz.cache.size", privilegeDecisionCache, PrivilegeDecisionCache::getSize)
+				.register(registry);
+
+		Gauge.builder("zcp.kube.client.requests.inflight", kubeRequestLimiter, KubeRequestLimiter::getInFlightCount)
+				.register(registry);
+		Gauge.builder("zcp.kube.client.requests.waiting", kubeRequestLimiter, KubeRequestLimiter::getWaitingCount)
+				.register(registry);
+		FunctionCounter
+				.builder("zcp.kube.client.requests.rejected", kubeRequestLimiter, KubeRequestLimiter::getRejectedCount)
+				.register(registry);
+		Gauge.builder("zcp.kube.client.connections", kubeRequestLimiter, KubeRequestLimiter::getConnectionCount)
+				.tag("state", "all").register(registry);
+		Gauge.builder("zcp.kube.client.connections", kubeRequestLimiter, KubeRequestLimiter::getIdleConnectionCount)
+				.tag("state", "idle").register(registry);
+
+		Gauge.builder("zcp.fanout.active", fanOutExecutor, FanOutExecutor::getActiveCount).register(registry);
+		Gauge.builder("zcp.fanout.queue", fanOutExecutor, FanOutExecutor::getQueueSize).register(registry);
+
+		Gauge.builder("zcp.metrics.stream.subscribers", metricStreamService, MetricStreamService::getSubscriberCount)
+				.register(registry);
+	}
+}
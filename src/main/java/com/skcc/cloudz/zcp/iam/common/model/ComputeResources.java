@@ -0,0 +1,98 @@
+package com.skcc.cloudz.zcp.iam.common.model;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.skcc.cloudz.zcp.iam.common.util.NumberUtils;
+import com.skcc.cloudz.zcp.iam.common.util.QuantityUtils;
+
+import io.kubernetes.client.custom.Quantity;
+
+/**
+ * The cpu (in millicores) and the memory (in bytes) of the allocatable, the
+ * requests or the limits of a node or a namespace.
+ *
+ * The values are kept as primitives, so they are summed without any
+ * allocation, and are formatted only when the views (the format* and percent
+ * methods) are serialized.
+ */
+public class ComputeResources {
+
+	private long cpuMillicores;
+
+	private long memoryBytes;
+
+	public ComputeResources() {
+	}
+
+	public ComputeResources(long cpuMillicores, long memoryBytes) {
+		this.cpuMillicores = cpuMillicores;
+		this.memoryBytes = memoryBytes;
+	}
+
+	/**
+	 * @param resources
+	 *            the resources of a container or a node, keyed by "cpu" and
+	 *            "memory"
+	 */
+	public static ComputeResources of(Map<String, Quantity> resources) {
+		return new ComputeResources().add(resources);
+	}
+
+	/**
+	 * @param values
+	 *            the hard or used values of a resource quota
+	 * @param cpuKey
+	 *            "requests.cpu" or "limits.cpu"
+	 * @param memoryKey
+	 *            "requests.memory" or "limits.memory"
+	 */
+	public static ComputeResources parse(Map<String, String> values, String cpuKey, String memoryKey) {
+		if (values == null) {
+			return new ComputeResources();
+		}
+		return new ComputeResources(QuantityUtils.parseMillicores(values.get(cpuKey)),
+				QuantityUtils.parseBytes(values.get(memoryKey)));
+	}
+
+	public ComputeResources add(Map<String, Quantity> resources) {
+		if (resources != null) {
+			cpuMillicores += QuantityUtils.toMillicores(resources.get("cpu"));
+			memoryBytes += QuantityUtils.toBytes(resources.get("memory"));
+		}
+		return this;
+	}
+
+	public long getCpuMillicores() {
+		return cpuMillicores;
+	}
+
+	public long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	public double getCpuCores() {
+		return QuantityUtils.toCores(cpuMillicores);
+	}
+
+	public String formatCpu() {
+		return NumberUtils.formatCpu(getCpuCores());
+	}
+
+	public String formatMemory() {
+		return NumberUtils.formatMemory(memoryBytes);
+	}
+
+	public BigDecimal percentCpuOf(ComputeResources total) {
+		return NumberUtils.percent(cpuMillicores, total.cpuMillicores);
+	}
+
+	public BigDecimal percentMemoryOf(ComputeResources total) {
+		return NumberUtils.percent(memoryBytes, total.memoryBytes);
+	}
+
+	@Override
+	public String toString() {
+		return "cpu=" + cpuMillicores + "m, memory=" + memoryBytes;
+	}
+}
@@ -8,6 +8,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
 
+/**
+ * The resource quota is kept in millicores and bytes, and the strings and the
+ * percentages of the response are formatted when the namespace is serialized.
+ * They are null when the namespace has no resource quota.
+ */
 public class ZcpNamespace {
 
 	private String name;
@@ -15,45 +20,10 @@ public class ZcpNamespace {
 	private Date creationDate;
 	private int userCount;
 
-	@JsonIgnore
-	private BigDecimal hardCpuRequests;
-	@JsonIgnore
-	private BigDecimal usedCpuRequests;
-	@JsonProperty("hardCpuRequests")
-	private String hardCpuRequestsString;
-	@JsonProperty("usedCpuRequests")
-	private String usedCpuRequestsString;
-	private BigDecimal cpuRequestsPercentage;
-
-	@JsonIgnore
-	private BigDecimal hardMemoryRequests;
-	@JsonIgnore
-	private BigDecimal usedMemoryRequests;
-	@JsonProperty("hardMemoryRequests")
-	private String hardMemoryRequestsString;
-	@JsonProperty("usedMemoryRequests")
-	private String usedMemoryRequestsString;
-	private BigDecimal memoryRequestsPercentage;
-
-	@JsonIgnore
-	private BigDecimal hardCpuLimits;
-	@JsonIgnore
-	private BigDecimal usedCpuLimits;
-	@JsonProperty("hardCpuLimits")
-	private String hardCpuLimitsString;
-	@JsonProperty("usedCpuLimits")
-	private String usedCpuLimitsString;
-	private BigDecimal cpuLimitsPercentage;
-
-	@JsonIgnore
-	private BigDecimal hardMemoryLimits;
-	@JsonIgnore
-	private BigDecimal usedMemoryLimits;
-	@JsonProperty("hardMemoryLimits")
-	private String hardMemoryLimitsString;
-	@JsonProperty("usedMemoryLimits")
-	private String usedMemoryLimitsString;
-	private BigDecimal memoryLimitsPercentage;
+	private ComputeResources hardRequests;
+	private ComputeResources usedRequests;
+	private ComputeResources hardLimits;
+	private ComputeResources usedLimits;
 
 	public enum NamespaceStatus {
 		ACTIVE("Active"), TERMINATING("Terminating");
@@ -109,164 +79,96 @@ public class ZcpNamespace {
 		this.creationDate = creationDate;
 	}
 
-	public BigDecimal getHardCpuRequests() {
-		return hardCpuRequests;
-	}
-
-	public void setHardCpuRequests(BigDecimal hardCpuRequests) {
-		this.hardCpuRequests = hardCpuRequests;
-	}
-
-	public BigDecimal getUsedCpuRequests() {
-		return usedCpuRequests;
+	@JsonIgnore
+	public ComputeResources getHardRequests() {
+		return hardRequests;
 	}
 
-	public void setUsedCpuRequests(BigDecimal usedCpuRequests) {
-		this.usedCpuRequests = usedCpuRequests;
+	public void setHardRequests(ComputeResources hardRequests) {
+		this.hardRequests = hardRequests;
 	}
 
-	public String getHardCpuRequestsString() {
-		return hardCpuRequestsString;
+	@JsonIgnore
+	public ComputeResources getUsedRequests() {
+		return usedRequests;
 	}
 
-	public void setHardCpuRequestsString(String hardCpuRequestsString) {
-		this.hardCpuRequestsString = hardCpuRequestsString;
+	public void setUsedRequests(ComputeResources usedRequests) {
+		this.usedRequests = usedRequests;
 	}
 
-	public String getUsedCpuRequestsString() {
-		return usedCpuRequestsString;
+	@JsonIgnore
+	public ComputeResources getHardLimits() {
+		return hardLimits;
 	}
 
-	public void setUsedCpuRequestsString(String usedCpuRequestsString) {
-		this.usedCpuRequestsString = usedCpuRequestsString;
+	public void setHardLimits(ComputeResources hardLimits) {
+		this.hardLimits = hardLimits;
 	}
 
-	public BigDecimal getCpuRequestsPercentage() {
-		return cpuRequestsPercentage;
-	}
-
-	public void setCpuRequestsPercentage(BigDecimal cpuRequestsPercentage) {
-		this.cpuRequestsPercentage = cpuRequestsPercentage;
+	@JsonIgnore
+	public ComputeResources getUsedLimits() {
+		return usedLimits;
 	}
 
-	public BigDecimal getHardMemoryRequests() {
-		return hardMemoryRequests;
+	public void setUsedLimits(ComputeResources usedLimits) {
+		this.usedLimits = usedLimits;
 	}
 
-	public void setHardMemoryRequests(BigDecimal hardMemoryRequests) {
-		this.hardMemoryRequests = hardMemoryRequests;
+	@JsonProperty("hardCpuRequests")
+	public String getHardCpuRequestsString() {
+		return hardRequests == null ? null : hardRequests.formatCpu();
 	}
 
-	public BigDecimal getUsedMemoryRequests() {
-		return usedMemoryRequests;
+	@JsonProperty("usedCpuRequests")
+	public String getUsedCpuRequestsString() {
+		return usedRequests == null ? null : usedRequests.formatCpu();
 	}
 
-	public void setUsedMemoryRequests(BigDecimal usedMemoryRequests) {
-		this.usedMemoryRequests = usedMemoryRequests;
+	public BigDecimal getCpuRequestsPercentage() {
+		return usedRequests == null || hardRequests == null ? null : usedRequests.percentCpuOf(hardRequests);
 	}
 
+	@JsonProperty("hardMemoryRequests")
 	public String getHardMemoryRequestsString() {
-		return hardMemoryRequestsString;
-	}
-
-	public void setHardMemoryRequestsString(String hardMemoryRequestsString) {
-		this.hardMemoryRequestsString = hardMemoryRequestsString;
+		return hardRequests == null ? null : hardRequests.formatMemory();
 	}
 
+	@JsonProperty("usedMemoryRequests")
 	public String getUsedMemoryRequestsString() {
-		return usedMemoryRequestsString;
-	}
-
-	public void setUsedMemoryRequestsString(String usedMemoryRequestsString) {
-		this.usedMemoryRequestsString = usedMemoryRequestsString;
+		return usedRequests == null ? null : usedRequests.formatMemory();
 	}
 
 	public BigDecimal getMemoryRequestsPercentage() {
-		return memoryRequestsPercentage;
-	}
-
-	public void setMemoryRequestsPercentage(BigDecimal memoryRequestsPercentage) {
-		this.memoryRequestsPercentage = memoryRequestsPercentage;
-	}
-
-	public BigDecimal getHardCpuLimits() {
-		return hardCpuLimits;
-	}
-
-	public void setHardCpuLimits(BigDecimal hardCpuLimits) {
-		this.hardCpuLimits = hardCpuLimits;
-	}
-
-	public BigDecimal getUsedCpuLimits() {
-		return usedCpuLimits;
-	}
-
-	public void setUsedCpuLimits(BigDecimal usedCpuLimits) {
-		this.usedCpuLimits = usedCpuLimits;
+		return usedRequests == null || hardRequests == null ? null : usedRequests.percentMemoryOf(hardRequests);
 	}
 
+	@JsonProperty("hardCpuLimits")
 	public String getHardCpuLimitsString() {
-		return hardCpuLimitsString;
-	}
-
-	public void setHardCpuLimitsString(String hardCpuLimitsString) {
-		this.hardCpuLimitsString = hardCpuLimitsString;
+		return hardLimits == null ? null : hardLimits.formatCpu();
 	}
 
+	@JsonProperty("usedCpuLimits")
 	public String getUsedCpuLimitsString() {
-		return usedCpuLimitsString;
-	}
-
-	public void setUsedCpuLimitsString(String usedCpuLimitsString) {
-		this.usedCpuLimitsString = usedCpuLimitsString;
+		return usedLimits == null ? null : usedLimits.formatCpu();
 	}
 
 	public BigDecimal getCpuLimitsPercentage() {
-		return cpuLimitsPercentage;
-	}
-
-	public void setCpuLimitsPercentage(BigDecimal cpuLimitsPercentage) {
-		this.cpuLimitsPercentage = cpuLimitsPercentage;
-	}
-
-	public BigDecimal getHardMemoryLimits() {
-		return hardMemoryLimits;
-	}
-
-	public void setHardMemoryLimits(BigDecimal hardMemoryLimits) {
-		this.hardMemoryLimits = hardMemoryLimits;
-	}
-
-	public BigDecimal getUsedMemoryLimits() {
-		return usedMemoryLimits;
-	}
-
-	public void setUsedMemoryLimits(BigDecimal usedMemoryLimits) {
-		this.usedMemoryLimits = usedMemoryLimits;
+		return usedLimits == null || hardLimits == null ? null : usedLimits.percentCpuOf(hardLimits);
 	}
 
+	@JsonProperty("hardMemoryLimits")
 	public String getHardMemoryLimitsString() {
-		return hardMemoryLimitsString;
-	}
-
-	public void setHardMemoryLimitsString(String hardMemoryLimitsString) {
-		this.hardMemoryLimitsString = hardMemoryLimitsString;
+		return hardLimits == null ? null : hardLimits.formatMemory();
 	}
 
+	@JsonProperty("usedMemoryLimits")
 	public String getUsedMemoryLimitsString() {
-		return usedMemoryLimitsString;
-	}
-
-	public void setUsedMemoryLimitsString(String usedMemoryLimitsString) {
-		this.usedMemoryLimitsString = usedMemoryLimitsString;
+		return usedLimits == null ? null : usedLimits.formatMemory();
 	}
 
 	public BigDecimal getMemoryLimitsPercentage() {
-		return memoryLimitsPercentage;
-	}
-
-	public void setMemoryLimitsPercentage(BigDecimal memoryLimitsPercentage) {
-		this.memoryLimitsPercentage = memoryLimitsPercentage;
+		return usedLimits == null || hardLimits == null ? null : usedLimits.percentMemoryOf(hardLimits);
 	}
 
 	public int getUserCount() {
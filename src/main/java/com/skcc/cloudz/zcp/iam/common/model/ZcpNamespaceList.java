@@ -2,8 +2,16 @@ package com.skcc.cloudz.zcp.iam.common.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class ZcpNamespaceList {
 	List<ZcpNamespace> items;
+
+	/**
+	 * The weak ETag derived from the versions of the inputs of the list.
+	 */
+	@JsonIgnore
+	String etag;
 	
 	public ZcpNamespaceList() {
 		super();
@@ -20,4 +28,12 @@ public class ZcpNamespaceList {
 	public void setItems(List<ZcpNamespace> items) {
 		this.items = items;
 	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public void setEtag(String etag) {
+		this.etag = etag;
+	}
 }
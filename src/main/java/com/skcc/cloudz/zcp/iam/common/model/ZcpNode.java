@@ -6,104 +6,23 @@ import java.util.Date;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+/**
+ * The resources are kept in millicores and bytes, and the strings and the
+ * percentages of the response are formatted when the node is serialized.
+ */
 public class ZcpNode {
 
 	private String nodeName;
-	private NodeStatus status;
-	@JsonIgnore
-	private BigDecimal allocatableCpu;
-	@JsonProperty("allocatableCpu")
-	private String allocatableCpuString;
-	@JsonIgnore
-	private BigDecimal allocatableMemory;
-	@JsonProperty("allocatableMemory")
-	private String allocatableMemoryString;
-
-	@JsonIgnore
-	private BigDecimal cpuRequests;
-	@JsonProperty("cpuRequests")
-	private String cpuRequestsString;
-	private BigDecimal cpuRequestsPercentage;
-	@JsonIgnore
-	private BigDecimal memoryRequests;
-	@JsonProperty("memoryRequests")
-	private String memoryRequestsString;
-	private BigDecimal memoryRequestsPercentage;
-	@JsonIgnore
-	private BigDecimal cpuLimits;
-	@JsonProperty("cpuLimits")
-	private String cpuLimitsString;
-	private BigDecimal cpuLimitsPercentage;
-	@JsonIgnore
-	private BigDecimal memoryLimits;
-	@JsonProperty("memoryLimits")
-	private String memoryLimitsString;
-	private BigDecimal memoryLimitsPercentage;
-	private Date creationTime;
-
-	public BigDecimal getCpuRequests() {
-		return cpuRequests;
-	}
-
-	public void setCpuRequests(BigDecimal cpuRequests) {
-		this.cpuRequests = cpuRequests;
-	}
-
-	public BigDecimal getCpuRequestsPercentage() {
-		return cpuRequestsPercentage;
-	}
-
-	public void setCpuRequestsPercentage(BigDecimal cpuRequestsPercentage) {
-		this.cpuRequestsPercentage = cpuRequestsPercentage;
-	}
-
-	public BigDecimal getMemoryRequests() {
-		return memoryRequests;
-	}
-
-	public void setMemoryRequests(BigDecimal memoryRequests) {
-		this.memoryRequests = memoryRequests;
-	}
-
-	public BigDecimal getMemoryRequestsPercentage() {
-		return memoryRequestsPercentage;
-	}
-
-	public void setMemoryRequestsPercentage(BigDecimal memoryRequestsPercentage) {
-		this.memoryRequestsPercentage = memoryRequestsPercentage;
-	}
-
-	public BigDecimal getCpuLimits() {
-		return cpuLimits;
-	}
-
-	public void setCpuLimits(BigDecimal cpuLimits) {
-		this.cpuLimits = cpuLimits;
-	}
 
-	public BigDecimal getCpuLimitsPercentage() {
-		return cpuLimitsPercentage;
-	}
+	private NodeStatus status;
 
-	public void setCpuLimitsPercentage(BigDecimal cpuLimitsPercentage) {
-		this.cpuLimitsPercentage = cpuLimitsPercentage;
-	}
+	private ComputeResources allocatable;
 
-	public BigDecimal getMemoryLimits() {
-		return memoryLimits;
-	}
+	private ComputeResources requests;
 
-	public void setMemoryLimits(BigDecimal memoryLimits) {
-		this.memoryLimits = memoryLimits;
-	}
-
-	public BigDecimal getMemoryLimitsPercentage() {
-		return memoryLimitsPercentage;
-	}
+	private ComputeResources limits;
 
-	public void setMemoryLimitsPercentage(BigDecimal memoryLimitsPercentage) {
-		this.memoryLimitsPercentage = memoryLimitsPercentage;
-	}
+	private Date creationTime;
 
 	public String getNodeName() {
 		return nodeName;
@@ -129,68 +48,77 @@ public class ZcpNode {
 		this.creationTime = creationTime;
 	}
 
-	public String getCpuRequestsString() {
-		return cpuRequestsString;
+	@JsonIgnore
+	public ComputeResources getAllocatable() {
+		return allocatable;
 	}
 
-	public void setCpuRequestsString(String cpuRequestsString) {
-		this.cpuRequestsString = cpuRequestsString;
+	public void setAllocatable(ComputeResources allocatable) {
+		this.allocatable = allocatable;
 	}
 
-	public String getMemoryRequestsString() {
-		return memoryRequestsString;
+	@JsonIgnore
+	public ComputeResources getRequests() {
+		return requests;
 	}
 
-	public void setMemoryRequestsString(String memoryRequestsString) {
-		this.memoryRequestsString = memoryRequestsString;
+	public void setRequests(ComputeResources requests) {
+		this.requests = requests;
 	}
 
-	public String getCpuLimitsString() {
-		return cpuLimitsString;
+	@JsonIgnore
+	public ComputeResources getLimits() {
+		return limits;
 	}
 
-	public void setCpuLimitsString(String cpuLimitsString) {
-		this.cpuLimitsString = cpuLimitsString;
+	public void setLimits(ComputeResources limits) {
+		this.limits = limits;
 	}
 
-	public String getMemoryLimitsString() {
-		return memoryLimitsString;
+	@JsonProperty("allocatableCpu")
+	public String getAllocatableCpuString() {
+		return allocatable == null ? null : allocatable.formatCpu();
 	}
 
-	public void setMemoryLimitsString(String memoryLimitsString) {
-		this.memoryLimitsString = memoryLimitsString;
+	@JsonProperty("allocatableMemory")
+	public String getAllocatableMemoryString() {
+		return allocatable == null ? null : allocatable.formatMemory();
 	}
 
-	public BigDecimal getAllocatableCpu() {
-		return allocatableCpu;
+	@JsonProperty("cpuRequests")
+	public String getCpuRequestsString() {
+		return requests == null ? null : requests.formatCpu();
 	}
 
-	public void setAllocatableCpu(BigDecimal allocatableCpu) {
-		this.allocatableCpu = allocatableCpu;
+	public BigDecimal getCpuRequestsPercentage() {
+		return requests == null || allocatable == null ? null : requests.percentCpuOf(allocatable);
 	}
 
-	public String getAllocatableCpuString() {
-		return allocatableCpuString;
+	@JsonProperty("memoryRequests")
+	public String getMemoryRequestsString() {
+		return requests == null ? null : requests.formatMemory();
 	}
 
-	public void setAllocatableCpuString(String allocatableCpuString) {
-		this.allocatableCpuString = allocatableCpuString;
+	public BigDecimal getMemoryRequestsPercentage() {
+		return requests == null || allocatable == null ? null : requests.percentMemoryOf(allocatable);
 	}
 
-	public BigDecimal getAllocatableMemory() {
-		return allocatableMemory;
+	@JsonProperty("cpuLimits")
+	public String getCpuLimitsString() {
+		return limits == null ? null : limits.formatCpu();
 	}
 
-	public void setAllocatableMemory(BigDecimal allocatableMemory) {
-		this.allocatableMemory = allocatableMemory;
+	public BigDecimal getCpuLimitsPercentage() {
+		return limits == null || allocatable == null ? null : limits.percentCpuOf(allocatable);
 	}
 
-	public String getAllocatableMemoryString() {
-		return allocatableMemoryString;
+	@JsonProperty("memoryLimits")
+	public String getMemoryLimitsString() {
+		return limits == null ? null : limits.formatMemory();
 	}
 
-	public void setAllocatableMemoryString(String allocatableMemoryString) {
-		this.allocatableMemoryString = allocatableMemoryString;
+	public BigDecimal getMemoryLimitsPercentage() {
+		return limits == null || allocatable == null ? null : limits.percentMemoryOf(allocatable);
 	}
 
 }
@@ -2,8 +2,25 @@ package com.skcc.cloudz.zcp.iam.common.model;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
 public class ZcpUserList {
 	List<ZcpUser> items;
+
+	/**
+	 * The cursor of the next page. It is null when the list is not paged or the
+	 * page is the last one.
+	 */
+	@JsonInclude(Include.NON_NULL)
+	String next;
+
+	/**
+	 * The weak ETag derived from the versions of the inputs of the list.
+	 */
+	@JsonIgnore
+	String etag;
 	
 	public ZcpUserList() {
 		super();
@@ -21,4 +38,20 @@ public class ZcpUserList {
 		this.items = items;
 	}
 
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public void setEtag(String etag) {
+		this.etag = etag;
+	}
+
 }
@@ -0,0 +1,84 @@
+package com.skcc.cloudz.zcp.iam.common.util;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.keycloak.representations.idm.UserRepresentation;
+
+import io.kubernetes.client.models.V1ObjectMeta;
+
+/**
+ * Builds the weak ETag of a response from the versions of its inputs, so the
+ * ETag can be compared before the response is serialized.
+ *
+ * The kube resources are identified by uid and resourceVersion, and are added
+ * as an unordered set because the order of the items differs between the api
+ * server and the caches. The keycloak users have no version, so their fields
+ * used in the responses are added instead.
+ */
+public class ETagBuilder {
+
+	private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private long hash = FNV_OFFSET_BASIS;
+
+	public ETagBuilder add(Object value) {
+		hash = hash(hash, String.valueOf(value));
+		return this;
+	}
+
+	public <T> ETagBuilder addResources(Collection<T> resources, Function<T, V1ObjectMeta> metadata) {
+		if (resources == null) {
+			return add(null);
+		}
+
+		long sum = 0;
+		for (T resource : resources) {
+			V1ObjectMeta meta = metadata.apply(resource);
+			long itemHash = hash(FNV_OFFSET_BASIS, meta.getUid());
+			itemHash = hash(itemHash, meta.getResourceVersion());
+			sum += mix(itemHash);
+		}
+
+		return add(resources.size()).add(sum);
+	}
+
+	// totp is deprecated in the representation, but the user listing still answers it
+	@SuppressWarnings("deprecation")
+	public ETagBuilder addUsers(Collection<UserRepresentation> users) {
+		add(users.size());
+		for (UserRepresentation user : users) {
+			add(user.getId()).add(user.getUsername()).add(user.getEmail()).add(user.getFirstName())
+					.add(user.getLastName()).add(user.isEnabled()).add(user.isEmailVerified()).add(user.isTotp())
+					.add(user.getCreatedTimestamp()).add(user.getAttributes()).add(user.getRequiredActions());
+		}
+		return this;
+	}
+
+	public String build() {
+		return "W/\"" + Long.toHexString(hash) + "\"";
+	}
+
+	private static long hash(long hash, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		// the separator of the values
+		hash ^= 0xff;
+		hash *= FNV_PRIME;
+		return hash;
+	}
+
+	// the finalizer of murmur3, so the sum of the item hashes is well distributed
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb53fe85a6e53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -6,9 +6,195 @@ import java.text.NumberFormat;
 
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * The formatters of the cpu (cores) and memory (bytes) values.
+ *
+ * The formatters compute the digits from the value instead of round-tripping
+ * it through {@link String#valueOf(double)} and {@link BigDecimal#BigDecimal(String)},
+ * and return the cached strings for the millicores and the mebibytes. They give
+ * the same results as the string based formatters (the *ByString methods),
+ * which are still used for the values outside of the plain notation of
+ * {@link Double#toString(double)} (less than 1e-3 or 1e7 and more, negative,
+ * NaN and infinity), where the string based formatters have their own quirks.
+ */
 public class NumberUtils {
 
-	private static String percentFormat(double used, double hard) {
+	// Double.toString uses the plain notation (not the scientific one) in this range
+	private static final double PLAIN_MIN = 1e-3;
+
+	private static final double PLAIN_MAX = 1e7;
+
+	private static final String[] MILLICORES = new String[1000];
+
+	private static final String[] MEBIBYTES = new String[1024];
+
+	static {
+		for (int i = 0; i < MILLICORES.length; i++) {
+			MILLICORES[i] = i + "m";
+		}
+		for (int i = 0; i < MEBIBYTES.length; i++) {
+			MEBIBYTES[i] = i + "Mi";
+		}
+	}
+
+	public static BigDecimal percent(double used, double hard) {
+		if (used == 0 || hard == 0)
+			return BigDecimal.ZERO;
+
+		double value = 0;
+		if (used > 0 && hard > 0) {
+			value = used / hard * 100;
+		}
+
+		if (value >= 0 && value < PLAIN_MAX) {
+			long hundredths = floorHundredths(value);
+			// the half-even rounding of DecimalFormat depends on the digits of the tie, so the tie is left to it
+			double tie = (2 * hundredths + 1) / 200.0;
+			if (tie != value) {
+				if (tie < value) {
+					hundredths++;
+				}
+				return toDecimal(hundredths, hundredths % 100 == 0 ? 0 : hundredths % 10 == 0 ? 1 : 2);
+			}
+		}
+
+		return percentByString(used, hard);
+	}
+
+	/**
+	 * 1 = 1000m, 1Core = 1000milliccore
+	 * 
+	 * @param value
+	 * @return cpu size string with m or '' e.g) 1, 200m, 300m, 2
+	 */
+	public static String formatCpu(double value) {
+		if (value > 0 && value < 1) {
+			double millicores = value * 1000;
+			if (millicores >= PLAIN_MIN && millicores < MILLICORES.length) {
+				return MILLICORES[(int) millicores];
+			}
+		} else if (value >= 1 && value < PLAIN_MAX) {
+			return formatHundredths(value, null);
+		} else if (isPositiveZero(value)) {
+			return "0";
+		}
+
+		return formatCpuByString(value);
+	}
+
+	public static BigDecimal formatCpuWithoutUnit(double value) {
+		if (value >= PLAIN_MIN && value < PLAIN_MAX) {
+			long hundredths = floorHundredths(value);
+			return toDecimal(hundredths, fractionDigits(value, hundredths));
+		} else if (isPositiveZero(value)) {
+			return BigDecimal.ZERO;
+		}
+
+		return formatCpuWithoutUnitByString(value);
+	}
+
+	/**
+	 * 1 = 1 byte
+	 * 
+	 * @param value
+	 * @return memory size string with Gi or Mi e.g) 50Gi, 512Mi
+	 */
+	public static String formatMemory(double value) {
+		if (value > 0) {
+			double mebibytes = value / 1024 / 1024;
+			if (mebibytes < 1024) {
+				if (mebibytes >= PLAIN_MIN) {
+					return MEBIBYTES[(int) mebibytes];
+				}
+			} else {
+				double gibibytes = mebibytes / 1024;
+				if (gibibytes < PLAIN_MAX) {
+					return formatHundredths(gibibytes, "Gi");
+				}
+			}
+		} else if (isPositiveZero(value)) {
+			return "0";
+		}
+
+		return formatMemoryByString(value);
+	}
+
+	public static BigDecimal formatMemoryWithoutUnit(double value) {
+		double gibibytes = value / 1024 / 1024 / 1024;
+		if (gibibytes >= 1 && gibibytes < PLAIN_MAX) {
+			long hundredths = floorHundredths(gibibytes);
+			return toDecimal(hundredths, fractionDigits(gibibytes, hundredths));
+		}
+
+		// less than 1Gi is rejected by it
+		return formatMemoryWithoutUnitByString(value);
+	}
+
+	/**
+	 * The floor of the exact value * 100. The multiplication may be rounded up to
+	 * the next integer, so it is corrected by the divisions, which are correctly
+	 * rounded like the parsing of the decimal k / 100.
+	 *
+	 * @param value
+	 *            positive and less than 1e7
+	 */
+	private static long floorHundredths(double value) {
+		long hundredths = (long) (value * 100);
+		while (hundredths > 0 && hundredths / 100.0 > value) {
+			hundredths--;
+		}
+		while ((hundredths + 1) / 100.0 <= value) {
+			hundredths++;
+		}
+		return hundredths;
+	}
+
+	/**
+	 * The number of the fraction digits which the string based formatters keep
+	 * (at most 2). When the value is the double of a decimal with 2 or less
+	 * fraction digits, Double.toString gives that decimal without the trailing
+	 * zeros, otherwise it gives 3 or more fraction digits.
+	 */
+	private static int fractionDigits(double value, long hundredths) {
+		if (hundredths / 100.0 != value) {
+			return 2;
+		}
+		return hundredths % 100 == 0 ? 0 : hundredths % 10 == 0 ? 1 : 2;
+	}
+
+	private static BigDecimal toDecimal(long hundredths, int fractionDigits) {
+		if (fractionDigits == 0) {
+			return BigDecimal.valueOf(hundredths / 100);
+		} else if (fractionDigits == 1) {
+			return BigDecimal.valueOf(hundredths / 10, 1);
+		}
+		return BigDecimal.valueOf(hundredths, 2);
+	}
+
+	private static String formatHundredths(double value, String unit) {
+		long hundredths = floorHundredths(value);
+		int fractionDigits = fractionDigits(value, hundredths);
+
+		StringBuilder sb = new StringBuilder(24);
+		sb.append(hundredths / 100);
+		if (fractionDigits > 0) {
+			long fraction = hundredths % 100;
+			sb.append('.').append((char) ('0' + fraction / 10));
+			if (fractionDigits == 2) {
+				sb.append((char) ('0' + fraction % 10));
+			}
+		}
+		if (unit != null) {
+			sb.append(unit);
+		}
+		return sb.toString();
+	}
+
+	private static boolean isPositiveZero(double value) {
+		return Double.doubleToRawLongBits(value) == 0;
+	}
+
+	static String percentFormat(double used, double hard) {
 		double value = 0;
 		if (used > 0 && hard > 0) {
 			value = used / hard * 100;
@@ -24,7 +210,7 @@ public class NumberUtils {
 		return sb.toString();
 	}
 	
-	public static BigDecimal percent(double used, double hard) {
+	static BigDecimal percentByString(double used, double hard) {
 		if (used == 0)
 			return new BigDecimal(0);
 		if (hard == 0)
@@ -34,13 +220,7 @@ public class NumberUtils {
 		return value;
 	}
 
-	/**
-	 * 1 = 1000m, 1Core = 1000milliccore
-	 * 
-	 * @param value
-	 * @return cpu size string with m or '' e.g) 1, 200m, 300m, 2
-	 */
-	public static String formatCpu(double value) {
+	static String formatCpuByString(double value) {
 		if (value == 0)
 			return StringUtils.substringBefore(String.valueOf(value), ".");
 
@@ -60,7 +240,7 @@ public class NumberUtils {
 		}
 	}
 	
-	public static BigDecimal formatCpuWithoutUnit(double value) {
+	static BigDecimal formatCpuWithoutUnitByString(double value) {
 		String data = null;
 		
 		String decimalValue = StringUtils.substringBefore(String.valueOf(value), ".");
@@ -76,13 +256,7 @@ public class NumberUtils {
 		return new BigDecimal(data);
 	}
 
-	/**
-	 * 1 = 1 byte
-	 * 
-	 * @param value
-	 * @return memory size string with Gi or Mi e.g) 50Gi, 512Mi
-	 */
-	public static String formatMemory(double value) {
+	static String formatMemoryByString(double value) {
 		if (value == 0)
 			return StringUtils.substringBefore(String.valueOf(value), ".");
 
@@ -106,7 +280,7 @@ public class NumberUtils {
 		}
 	}
 	
-	public static BigDecimal formatMemoryWithoutUnit(double value) {
+	static BigDecimal formatMemoryWithoutUnitByString(double value) {
 		String data = null;
 		if (value == 0)
 			data = StringUtils.substringBefore(String.valueOf(value), ".");
@@ -0,0 +1,193 @@
+package com.skcc.cloudz.zcp.iam.common.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import io.kubernetes.client.custom.Quantity;
+
+/**
+ * Converts the kubernetes quantities to the primitive values, the cpu to
+ * millicores and the memory (or a count) to bytes (units), which are rounded up
+ * like the api server does.
+ *
+ * The strings of the grammar (a signed decimal number with a decimal or binary
+ * SI suffix) are parsed without {@link Quantity} and {@link BigDecimal}. The
+ * decimal exponents ("1e3"), the numbers which do not fit in a long and the
+ * invalid quantities are left to {@link Quantity}, so they are parsed (or
+ * rejected) the same way as before.
+ */
+public class QuantityUtils {
+
+	public static final int MILLICORES_PER_CORE = 1000;
+
+	public static final long BYTES_PER_MEBIBYTE = 1L << 20;
+
+	public static final long BYTES_PER_GIBIBYTE = 1L << 30;
+
+	private static final int MILLI_SCALE = 3;
+
+	// the mantissa can take one more digit without overflow
+	private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * @return the millicores of the cpu quantity ("250m", "2", "0.5") or 0 if it
+	 *         is null
+	 */
+	public static long parseMillicores(String value) {
+		return value == null ? 0 : parse(value, MILLI_SCALE);
+	}
+
+	/**
+	 * @return the bytes of the memory quantity ("512Mi", "1G") or the count of
+	 *         the other resources ("10"), or 0 if it is null
+	 */
+	public static long parseBytes(String value) {
+		return value == null ? 0 : parse(value, 0);
+	}
+
+	public static long toMillicores(Quantity quantity) {
+		return quantity == null ? 0 : toLong(quantity.getNumber(), MILLI_SCALE);
+	}
+
+	public static long toBytes(Quantity quantity) {
+		return quantity == null ? 0 : toLong(quantity.getNumber(), 0);
+	}
+
+	public static double toCores(long millicores) {
+		return (double) millicores / MILLICORES_PER_CORE;
+	}
+
+	private static long parse(String value, int scale) {
+		int length = value.length();
+		int i = 0;
+		boolean negative = false;
+		if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+			negative = value.charAt(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean fraction = false;
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (mantissa > MAX_MANTISSA) {
+					return parseByQuantity(value, scale);
+				}
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+				if (fraction) {
+					fractionDigits++;
+				}
+			} else if (c == '.' && !fraction) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return parseByQuantity(value, scale);
+		}
+
+		int exponent = 0;
+		int binaryExponent = 0;
+		int suffixLength = length - i;
+		if (suffixLength == 1) {
+			exponent = decimalExponent(value.charAt(i));
+			if (exponent == Integer.MIN_VALUE) {
+				return parseByQuantity(value, scale);
+			}
+		} else if (suffixLength == 2 && value.charAt(i + 1) == 'i') {
+			binaryExponent = binaryExponent(value.charAt(i));
+			if (binaryExponent == 0) {
+				return parseByQuantity(value, scale);
+			}
+		} else if (suffixLength != 0) {
+			return parseByQuantity(value, scale);
+		}
+
+		try {
+			long result = Math.multiplyExact(mantissa, 1L << (10 * binaryExponent));
+			int power = exponent + scale - fractionDigits;
+			if (power >= 0) {
+				if (power >= POWERS_OF_TEN.length) {
+					return parseByQuantity(value, scale);
+				}
+				result = Math.multiplyExact(result, POWERS_OF_TEN[power]);
+				return negative ? -result : result;
+			}
+
+			if (-power >= POWERS_OF_TEN.length) {
+				return parseByQuantity(value, scale);
+			}
+			long divisor = POWERS_OF_TEN[-power];
+			// rounded up (toward positive infinity)
+			return negative ? -(result / divisor) : -Math.floorDiv(-result, divisor);
+		} catch (ArithmeticException e) {
+			return parseByQuantity(value, scale);
+		}
+	}
+
+	private static int decimalExponent(char suffix) {
+		switch (suffix) {
+		case 'n':
+			return -9;
+		case 'u':
+			return -6;
+		case 'm':
+			return -3;
+		case 'k':
+			return 3;
+		case 'M':
+			return 6;
+		case 'G':
+			return 9;
+		case 'T':
+			return 12;
+		case 'P':
+			return 15;
+		case 'E':
+			return 18;
+		default:
+			return Integer.MIN_VALUE;
+		}
+	}
+
+	private static int binaryExponent(char suffix) {
+		switch (suffix) {
+		case 'K':
+			return 1;
+		case 'M':
+			return 2;
+		case 'G':
+			return 3;
+		case 'T':
+			return 4;
+		case 'P':
+			return 5;
+		case 'E':
+			return 6;
+		default:
+			return 0;
+		}
+	}
+
+	private static long parseByQuantity(String value, int scale) {
+		return toLong(new Quantity(value).getNumber(), scale);
+	}
+
+	private static long toLong(BigDecimal number, int scale) {
+		return number.movePointRight(scale).setScale(0, RoundingMode.CEILING).longValueExact();
+	}
+}
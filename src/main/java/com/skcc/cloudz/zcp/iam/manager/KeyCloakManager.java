@@ -1,7 +1,15 @@
 package com.skcc.cloudz.zcp.iam.manager;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
 import org.keycloak.admin.client.Keycloak;
@@ -9,6 +17,7 @@ import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UserResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.PartialImportRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,8 +27,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skcc.cloudz.zcp.iam.common.exception.KeyCloakException;
 import com.skcc.cloudz.zcp.iam.common.model.CredentialActionType;
+import com.skcc.cloudz.zcp.iam.manager.cache.KeyCloakUserCache;
 
 @Component
 public class KeyCloakManager {
@@ -37,6 +49,18 @@ public class KeyCloakManager {
 	@Value("${zcp.keycloak.realm}")
 	private String realm;
 
+	@Value("${zcp.keycloak.pageSize:100}")
+	private int pageSize;
+
+	@Value("${zcp.keycloak.scanThreshold:100}")
+	private int scanThreshold;
+
+	@Autowired
+	private KeyCloakUserCache userCache;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	public List<UserRepresentation> getUserList() {
 		return getUserList(null);
 	}
@@ -51,12 +75,61 @@ public class KeyCloakManager {
 		}
 	}
 
+	/**
+	 * The paging is done by keycloak, so only the requested page is transferred.
+	 */
+	public List<UserRepresentation> getUserList(String keyword, int first, int max) {
+		UsersResource usersResoure = keycloak.realm(realm).users();
+		if (StringUtils.isEmpty(keyword)) {
+			return usersResoure.list(first, max);
+		} else {
+			return usersResoure.search(keyword, first, max);
+		}
+	}
+
 	public void createUser(UserRepresentation userRepresentation) {
 		UsersResource usersRessource = keycloak.realm(realm).users();
 		usersRessource.create(userRepresentation);
 	}
 
+	/**
+	 * Creates the users in one request by the partial import of the realm. The
+	 * existing users are skipped.
+	 *
+	 * @return the action (ADDED, SKIPPED) by username
+	 */
+	public Map<String, String> importUsers(List<UserRepresentation> userRepresentations) throws KeyCloakException {
+		PartialImportRepresentation partialImport = new PartialImportRepresentation();
+		partialImport.setIfResourceExists(PartialImportRepresentation.Policy.SKIP.name());
+		partialImport.setUsers(userRepresentations);
+
+		Response response = keycloak.realm(realm).partialImport(partialImport);
+		try {
+			String body = response.readEntity(String.class);
+			if (response.getStatus() >= 300) {
+				throw new KeyCloakException("KK-0002", "The users could not be imported. " + body);
+			}
+
+			Map<String, String> actions = new HashMap<>();
+			for (JsonNode result : objectMapper.readTree(body).path("results")) {
+				if ("USER".equals(result.path("resourceType").asText())) {
+					actions.put(result.path("resourceName").asText(), result.path("action").asText());
+				}
+			}
+			return actions;
+		} catch (IOException e) {
+			throw new KeyCloakException("KK-0002", "The result of the import is invalid. " + e.getMessage());
+		} finally {
+			response.close();
+		}
+	}
+
 	public UserRepresentation getUser(String id) throws KeyCloakException {
+		UserRepresentation cachedUser = userCache.get(id);
+		if (cachedUser != null) {
+			return cachedUser;
+		}
+
 		UsersResource usersRessource = keycloak.realm(realm).users();
 		UserResource userResource = usersRessource.get(id);
 		if (userResource == null) {
@@ -71,9 +144,88 @@ public class KeyCloakManager {
 			throw new KeyCloakException("KK-0001", "The user(" + id + ") does not exist");
 		}
 
+		userCache.put(userRepresentation);
+
 		return userRepresentation;
 	}
 
+	/**
+	 * Looks up only the given users instead of the whole realm. The cached users
+	 * are used first and the others are searched by username, or found by a paged
+	 * scan of the realm when more than zcp.keycloak.scanThreshold are missing.
+	 *
+	 * @return the users keyed by username. The unknown usernames are left out.
+	 */
+	public Map<String, UserRepresentation> getUserMapByUsernames(Collection<String> usernames) {
+		Map<String, UserRepresentation> users = new HashMap<>();
+		Set<String> missings = new HashSet<>();
+		for (String username : usernames) {
+			UserRepresentation cachedUser = userCache.get(userCache.getIdByUsername(username));
+			if (cachedUser != null) {
+				users.put(username, cachedUser);
+			} else {
+				missings.add(username);
+			}
+		}
+
+		if (missings.isEmpty()) {
+			return users;
+		}
+
+		UsersResource usersResource = keycloak.realm(realm).users();
+		if (missings.size() > scanThreshold) {
+			int first = 0;
+			List<UserRepresentation> page = null;
+			do {
+				page = usersResource.list(first, pageSize);
+				for (UserRepresentation user : page) {
+					if (missings.remove(user.getUsername())) {
+						users.put(user.getUsername(), user);
+						userCache.put(user);
+					}
+				}
+				first += page.size();
+			} while (page.size() == pageSize && !missings.isEmpty());
+		} else {
+			for (String username : missings) {
+				UserRepresentation user = searchByUsername(usersResource, username);
+				if (user != null) {
+					users.put(username, user);
+					userCache.put(user);
+				}
+			}
+		}
+
+		return users;
+	}
+
+	/**
+	 * The search by username is a partial match, so the pages are read until the
+	 * exact one is found or the last page has been read.
+	 */
+	private UserRepresentation searchByUsername(UsersResource usersResource, String username) {
+		int first = 0;
+		List<UserRepresentation> page = null;
+		do {
+			page = usersResource.search(username, null, null, null, first, pageSize);
+			for (UserRepresentation user : page) {
+				if (StringUtils.equals(username, user.getUsername())) {
+					return user;
+				}
+			}
+			first += page.size();
+		} while (page.size() == pageSize);
+
+		return null;
+	}
+
+	/**
+	 * @return the id of the user if it has been read recently, otherwise null
+	 */
+	public String getCachedUserId(String username) {
+		return userCache.getIdByUsername(username);
+	}
+
 	public void editUser(UserRepresentation userRepresentation) throws KeyCloakException {
 		UsersResource usersRessource = keycloak.realm(realm).users();
 		// to keep the other's original values
@@ -90,6 +242,7 @@ public class KeyCloakManager {
 		currnetUserRepresentation.setEmailVerified(userRepresentation.isEmailVerified());
 		
 		userResource.update(currnetUserRepresentation);
+		userCache.invalidate(userRepresentation.getId());
 	}
 
 	public void deleteUser(String id) throws KeyCloakException {
@@ -100,6 +253,7 @@ public class KeyCloakManager {
 		}
 
 		userResource.remove();
+		userCache.invalidate(id);
 	}
 
 	@SuppressWarnings("unused")
@@ -132,6 +286,7 @@ public class KeyCloakManager {
 			throw new KeyCloakException("KK-000", "user does not exist");
 		}
 		userResource.resetPassword(credentail);
+		userCache.invalidate(id);
 	}
 
 	public void resetUserCredentials(String id, List<String> actions) throws KeyCloakException {
@@ -164,6 +319,7 @@ public class KeyCloakManager {
 		userRepresentation.setRequiredActions(actions);
 
 		userResource.update(userRepresentation);
+		userCache.invalidate(id);
 	}
 
 	public void deleteUserOtpPassword(String id) throws KeyCloakException {
@@ -173,6 +329,7 @@ public class KeyCloakManager {
 			throw new KeyCloakException("KK-000", "user does not exist");
 		}
 		userResource.removeTotp();
+		userCache.invalidate(id);
 	}
 
 	public void logout(String id) throws KeyCloakException {
@@ -182,6 +339,7 @@ public class KeyCloakManager {
 			throw new KeyCloakException("KK-000", "user does not exist");
 		}
 		userResource.logout();
+		userCache.invalidate(id);
 	}
 
 }
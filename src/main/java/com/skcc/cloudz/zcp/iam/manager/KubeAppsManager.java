@@ -1,19 +1,17 @@
 package com.skcc.cloudz.zcp.iam.manager;
 
-import java.io.IOException;
-
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.kubernetes.client.ApiClient;
 import io.kubernetes.client.ApiException;
-import io.kubernetes.client.Configuration;
 import io.kubernetes.client.apis.AppsV1beta2Api;
 import io.kubernetes.client.models.V1beta2DeploymentList;
-import io.kubernetes.client.util.Config;
 
 @Component
 public class KubeAppsManager {
@@ -27,9 +25,9 @@ public class KubeAppsManager {
 	@Value("${kube.client.api.output.pretty}")
 	private String pretty;
 
-	public KubeAppsManager() throws IOException {
-		client = Config.defaultClient();
-		Configuration.setDefaultApiClient(client);
+	@Autowired
+	public KubeAppsManager(@Qualifier("kubeApiClient") ApiClient client) {
+		this.client = client;
 		api = new AppsV1beta2Api(this.client);
 
 		logger.debug("KubeAppsManager is initialized");
@@ -1,17 +1,28 @@
 package com.skcc.cloudz.zcp.iam.manager;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.skcc.cloudz.zcp.iam.manager.cache.KubeRequestCoalescer;
+import com.skcc.cloudz.zcp.iam.manager.proto.KubeProtoClient;
+import com.skcc.cloudz.zcp.iam.manager.proto.KubeProtoConverter;
+import com.squareup.okhttp.Call;
 
 import io.kubernetes.client.ApiClient;
 import io.kubernetes.client.ApiException;
-import io.kubernetes.client.Configuration;
+import io.kubernetes.client.ApiResponse;
+import io.kubernetes.client.Pair;
 import io.kubernetes.client.apis.CoreV1Api;
 import io.kubernetes.client.models.V1DeleteOptions;
 import io.kubernetes.client.models.V1LimitRange;
@@ -26,11 +37,15 @@ import io.kubernetes.client.models.V1Secret;
 import io.kubernetes.client.models.V1ServiceAccount;
 import io.kubernetes.client.models.V1ServiceAccountList;
 import io.kubernetes.client.models.V1Status;
-import io.kubernetes.client.util.Config;
+import io.kubernetes.client.proto.V1;
 
 @Component
 public class KubeCoreManager {
 
+	public static final String MERGE_PATCH = "application/merge-patch+json";
+
+	public static final String JSON_PATCH = "application/json-patch+json";
+
 	private final Logger logger = (Logger) LoggerFactory.getLogger(KubeCoreManager.class);
 
 	private ApiClient client;
@@ -40,9 +55,15 @@ public class KubeCoreManager {
 	@Value("${kube.client.api.output.pretty}")
 	private String pretty;
 
-	public KubeCoreManager() throws IOException {
-		client = Config.defaultClient();
-		Configuration.setDefaultApiClient(client);
+	@Autowired
+	private KubeProtoClient protoClient;
+
+	@Autowired
+	private KubeRequestCoalescer coalescer;
+
+	@Autowired
+	public KubeCoreManager(@Qualifier("kubeApiClient") ApiClient client) {
+		this.client = client;
 		api = new CoreV1Api(this.client);
 
 		logger.debug("KubeCoreManager is initialized");
@@ -84,7 +105,23 @@ public class KubeCoreManager {
 	}
 
 	public V1NamespaceList getNamespaceList() throws ApiException {
-		String labelSelector = ResourcesLabelManager.getSystemLabelSelector();
+		return getNamespaceList(null);
+	}
+
+	/**
+	 * @param labelSelector
+	 *            the selector which is added to the selector of the zcp system
+	 *            namespaces
+	 */
+	public V1NamespaceList getNamespaceList(String labelSelector) throws ApiException {
+		labelSelector = ResourcesLabelManager.getSystemLabelSelector()
+				+ (StringUtils.isEmpty(labelSelector) ? "" : "," + labelSelector);
+		V1.NamespaceList protoList = protoClient.list(V1.NamespaceList.newBuilder(), "/api/v1/namespaces",
+				labelSelector, null);
+		if (protoList != null) {
+			return KubeProtoConverter.toNamespaceList(protoList);
+		}
+
 		return api.listNamespace(pretty, null, null, null, labelSelector, null, null,
 				null, null);
 	}
@@ -105,6 +142,25 @@ public class KubeCoreManager {
 		return api.replaceNamespace(namespaceName, namespace, pretty);
 	}
 
+	/**
+	 * The generated api always sends a patch as json-patch and serializes the
+	 * body by gson, so the call is built here with the given content type
+	 * ({@link #MERGE_PATCH}, {@link #JSON_PATCH}) and the raw body.
+	 */
+	public V1Namespace patchNamespace(String namespaceName, String contentType, byte[] patch) throws ApiException {
+		String path = "/api/v1/namespaces/" + client.escapeString(namespaceName);
+
+		Map<String, String> headerParams = new HashMap<>();
+		headerParams.put("Accept", "application/json");
+		headerParams.put("Content-Type", contentType);
+
+		Call call = client.buildCall(path, "PATCH", new ArrayList<Pair>(), new ArrayList<Pair>(), patch, headerParams,
+				new HashMap<String, Object>(), new String[] { "BearerToken" }, null);
+		ApiResponse<V1Namespace> response = client.execute(call, new TypeToken<V1Namespace>() {
+		}.getType());
+		return response.getData();
+	}
+
 	public V1Status deleteNamespace(String namespace) throws ApiException {
 		V1DeleteOptions deleteOptions = new V1DeleteOptions();
 		deleteOptions.setGracePeriodSeconds(0l);
@@ -167,6 +223,12 @@ public class KubeCoreManager {
 	}
 
 	public V1ResourceQuotaList getAllResourceQuotaList() throws ApiException {
+		V1.ResourceQuotaList protoList = protoClient.list(V1.ResourceQuotaList.newBuilder(), "/api/v1/resourcequotas",
+				null, null);
+		if (protoList != null) {
+			return KubeProtoConverter.toResourceQuotaList(protoList);
+		}
+
 		return api.listResourceQuotaForAllNamespaces(null, null, null, null, null, pretty, null, null, null);
 	}
 
@@ -177,10 +239,28 @@ public class KubeCoreManager {
 	}
 
 	public V1NodeList getNodeList() throws ApiException {
+		return coalescer.execute("nodes", this::listNodes);
+	}
+
+	private V1NodeList listNodes() throws ApiException {
+		V1.NodeList protoList = protoClient.list(V1.NodeList.newBuilder(), "/api/v1/nodes", null, null);
+		if (protoList != null) {
+			return KubeProtoConverter.toNodeList(protoList);
+		}
+
 		return api.listNode(pretty, null, null, null, null, null, null, null, null);
 	}
 
 	public V1PodList getAllPodList() throws ApiException {
+		return coalescer.execute("pods", this::listAllPods);
+	}
+
+	private V1PodList listAllPods() throws ApiException {
+		V1.PodList protoList = protoClient.list(V1.PodList.newBuilder(), "/api/v1/pods", null, null);
+		if (protoList != null) {
+			return KubeProtoConverter.toPodList(protoList);
+		}
+
 		return api.listPodForAllNamespaces(null, null, null, null, null, pretty, null, null, null);
 	}
 
@@ -190,10 +270,42 @@ public class KubeCoreManager {
 		fieldSelector.append(nodeName);
 		fieldSelector.append(",status.phase!=Failed,status.phase!=Succeeded");
 
+		V1.PodList protoList = protoClient.list(V1.PodList.newBuilder(), "/api/v1/pods", null,
+				fieldSelector.toString());
+		if (protoList != null) {
+			return KubeProtoConverter.toPodList(protoList);
+		}
+
 		return api.listPodForAllNamespaces(null, fieldSelector.toString(), null, null, null, pretty, null, null, null);
 	}
 
+	/**
+	 * @return the pods of all namespaces except the terminated (Failed,
+	 *         Succeeded) pods
+	 */
+	public V1PodList getNonTerminatedPodList() throws ApiException {
+		return coalescer.execute("pods?fieldSelector=status.phase!=Failed,status.phase!=Succeeded",
+				this::listNonTerminatedPods);
+	}
+
+	private V1PodList listNonTerminatedPods() throws ApiException {
+		V1.PodList protoList = protoClient.list(V1.PodList.newBuilder(), "/api/v1/pods", null,
+				"status.phase!=Failed,status.phase!=Succeeded");
+		if (protoList != null) {
+			return KubeProtoConverter.toPodList(protoList);
+		}
+
+		return api.listPodForAllNamespaces(null, "status.phase!=Failed,status.phase!=Succeeded", null, null, null,
+				pretty, null, null, null);
+	}
+
 	public V1PodList getPodListByNamespace(String namespace) throws ApiException {
+		V1.PodList protoList = protoClient.list(V1.PodList.newBuilder(), "/api/v1/namespaces/" + namespace + "/pods",
+				null, null);
+		if (protoList != null) {
+			return KubeProtoConverter.toPodList(protoList);
+		}
+
 		return api.listNamespacedPod(namespace, pretty, null, null, null, null, null, null, null, null);
 	}
 
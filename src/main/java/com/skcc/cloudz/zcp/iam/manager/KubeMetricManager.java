@@ -1,9 +1,9 @@
 package com.skcc.cloudz.zcp.iam.manager;
 
-import java.io.IOException;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -12,8 +12,6 @@ import com.skcc.cloudz.zcp.iam.manager.api.MetricV1alph1Api;
 
 import io.kubernetes.client.ApiClient;
 import io.kubernetes.client.ApiException;
-import io.kubernetes.client.Configuration;
-import io.kubernetes.client.util.Config;
 
 @Component
 public class KubeMetricManager {
@@ -27,9 +25,9 @@ public class KubeMetricManager {
 	@Value("${kube.client.api.output.pretty}")
 	private String pretty;
 
-	public KubeMetricManager() throws IOException {
-		client = Config.defaultClient();
-		Configuration.setDefaultApiClient(client);
+	@Autowired
+	public KubeMetricManager(@Qualifier("kubeApiClient") ApiClient client) {
+		this.client = client;
 		api = new MetricV1alph1Api(this.client);
 
 		logger.debug("KubeMetricManager is initialized");
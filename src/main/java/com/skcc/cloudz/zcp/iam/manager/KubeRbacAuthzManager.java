@@ -1,16 +1,20 @@
 package com.skcc.cloudz.zcp.iam.manager;
 
-import java.io.IOException;
-
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.skcc.cloudz.zcp.iam.manager.cache.KubeRequestCoalescer;
+import com.skcc.cloudz.zcp.iam.manager.cache.RbacBindingCache;
+import com.skcc.cloudz.zcp.iam.manager.proto.KubeProtoClient;
+import com.skcc.cloudz.zcp.iam.manager.proto.KubeProtoConverter;
+
 import io.kubernetes.client.ApiClient;
 import io.kubernetes.client.ApiException;
-import io.kubernetes.client.Configuration;
 import io.kubernetes.client.apis.RbacAuthorizationV1Api;
 import io.kubernetes.client.models.V1ClusterRoleBinding;
 import io.kubernetes.client.models.V1ClusterRoleBindingList;
@@ -19,7 +23,7 @@ import io.kubernetes.client.models.V1DeleteOptions;
 import io.kubernetes.client.models.V1RoleBinding;
 import io.kubernetes.client.models.V1RoleBindingList;
 import io.kubernetes.client.models.V1Status;
-import io.kubernetes.client.util.Config;
+import io.kubernetes.client.proto.V1Rbac;
 
 @Component
 public class KubeRbacAuthzManager {
@@ -33,9 +37,18 @@ public class KubeRbacAuthzManager {
 	@Value("${kube.client.api.output.pretty}")
 	private String pretty;
 
-	public KubeRbacAuthzManager() throws IOException {
-		client = Config.defaultClient();
-		Configuration.setDefaultApiClient(client);
+	@Autowired
+	private RbacBindingCache rbacBindingCache;
+
+	@Autowired
+	private KubeProtoClient protoClient;
+
+	@Autowired
+	private KubeRequestCoalescer coalescer;
+
+	@Autowired
+	public KubeRbacAuthzManager(@Qualifier("kubeApiClient") ApiClient client) {
+		this.client = client;
 		api = new RbacAuthorizationV1Api(this.client);
 
 		log.debug("KubeRbacAuthzManager is initialized");
@@ -53,56 +66,116 @@ public class KubeRbacAuthzManager {
 	}
 
 	public V1ClusterRoleBindingList getClusterRoleBindingList() throws ApiException {
+		if (rbacBindingCache.isClusterRoleBindingsSynced()) {
+			return rbacBindingCache.getClusterRoleBindingList();
+		}
+
 		return api.listClusterRoleBinding(pretty, null, null, null, ResourcesLabelManager.getSystemUserLabelSelector(),
 				null, null, null, null);
 	}
 
 	public V1ClusterRoleBindingList getClusterRoleBindingListByUsername(String username) throws ApiException {
+		if (rbacBindingCache.isClusterRoleBindingsSynced()) {
+			return rbacBindingCache.getClusterRoleBindingListByUsername(username);
+		}
+
 		return api.listClusterRoleBinding(pretty, null, null, null,
 				ResourcesLabelManager.getSystemUsernameLabelSelector(username), null, null, null, null);
 	}
 
 	public V1ClusterRoleBinding getClusterRoleBindingByUsername(String username) throws ApiException {
-		return api.readClusterRoleBinding(ResourcesNameManager.getClusterRoleBindingName(username), pretty);
+		String clusterRoleBindingName = ResourcesNameManager.getClusterRoleBindingName(username);
+		if (rbacBindingCache.isClusterRoleBindingsSynced()) {
+			V1ClusterRoleBinding clusterRoleBinding = rbacBindingCache.getClusterRoleBinding(clusterRoleBindingName);
+			if (clusterRoleBinding != null) {
+				return clusterRoleBinding;
+			}
+			// the clusterrolebinding without the system labels is not cached, so should read it
+		}
+
+		return api.readClusterRoleBinding(clusterRoleBindingName, pretty);
 	}
 
 	public V1ClusterRoleBinding createClusterRoleBinding(V1ClusterRoleBinding clusterrolebinding) throws ApiException {
-		return api.createClusterRoleBinding(clusterrolebinding, pretty);
+		V1ClusterRoleBinding created = api.createClusterRoleBinding(clusterrolebinding, pretty);
+		rbacBindingCache.updateClusterRoleBinding(created);
+		return created;
 	}
 
 	public V1Status deleteClusterRoleBinding(String clusterRoleBindingName) throws ApiException {
 		V1DeleteOptions deleteOptions = new V1DeleteOptions();
 		deleteOptions.setGracePeriodSeconds(0l);
-		return api.deleteClusterRoleBinding(clusterRoleBindingName, deleteOptions, pretty, null, null, null);
+		V1Status status = api.deleteClusterRoleBinding(clusterRoleBindingName, deleteOptions, pretty, null, null,
+				null);
+		rbacBindingCache.removeClusterRoleBinding(clusterRoleBindingName);
+		return status;
 	}
 
 	public V1Status deleteClusterRoleBindingByUsername(String username) throws ApiException {
-		return api.deleteCollectionClusterRoleBinding(pretty, null, null, null,
+		V1Status status = api.deleteCollectionClusterRoleBinding(pretty, null, null, null,
 				ResourcesLabelManager.getSystemUsernameLabelSelector(username), null, null, null, null);
+		rbacBindingCache.removeClusterRoleBindingsByUsername(username);
+		return status;
 	}
 
 	public V1ClusterRoleBinding editClusterRoleBinding(String clusterRoleBindingName,
 			V1ClusterRoleBinding clusterrolebinding) throws ApiException {
-		return api.replaceClusterRoleBinding(clusterRoleBindingName, clusterrolebinding, pretty);
+		V1ClusterRoleBinding replaced = api.replaceClusterRoleBinding(clusterRoleBindingName, clusterrolebinding,
+				pretty);
+		rbacBindingCache.updateClusterRoleBinding(replaced);
+		return replaced;
 	}
 
 	public V1RoleBindingList getRoleBindingListAllNamespaces() throws ApiException {
+		if (rbacBindingCache.isRoleBindingsSynced()) {
+			return rbacBindingCache.getRoleBindingList();
+		}
+
+		return coalescer.execute("rolebindings?labelSelector=" + ResourcesLabelManager.getSystemUserLabelSelector(),
+				this::listRoleBindingsAllNamespaces);
+	}
+
+	private V1RoleBindingList listRoleBindingsAllNamespaces() throws ApiException {
+		V1Rbac.RoleBindingList protoList = protoClient.list(V1Rbac.RoleBindingList.newBuilder(),
+				"/apis/rbac.authorization.k8s.io/v1/rolebindings", ResourcesLabelManager.getSystemUserLabelSelector(),
+				null);
+		if (protoList != null) {
+			return KubeProtoConverter.toRoleBindingList(protoList);
+		}
+
 		return api.listRoleBindingForAllNamespaces(null, null, null, ResourcesLabelManager.getSystemUserLabelSelector(),
 				null, pretty, null, null, null);
 	}
 
 	public V1RoleBindingList getRoleBindingListByNamespace(String namespace) throws ApiException {
+		if (rbacBindingCache.isRoleBindingsSynced()) {
+			return rbacBindingCache.getRoleBindingListByNamespace(namespace);
+		}
+
+		V1Rbac.RoleBindingList protoList = protoClient.list(V1Rbac.RoleBindingList.newBuilder(),
+				"/apis/rbac.authorization.k8s.io/v1/namespaces/" + namespace + "/rolebindings",
+				ResourcesLabelManager.getSystemUserLabelSelector(), null);
+		if (protoList != null) {
+			return KubeProtoConverter.toRoleBindingList(protoList);
+		}
+
 		return api.listNamespacedRoleBinding(namespace, pretty, null, null, null,
 				ResourcesLabelManager.getSystemUserLabelSelector(), null, null, null, null);
 	}
 
 	public V1RoleBindingList getRoleBindingListByUsername(String username) throws ApiException {
+		if (rbacBindingCache.isRoleBindingsSynced()) {
+			return rbacBindingCache.getRoleBindingListByUsername(username);
+		}
+
 		return api.listRoleBindingForAllNamespaces(null, null, null,
 				ResourcesLabelManager.getSystemUsernameLabelSelector(username), null, pretty, null, null, null);
 	}
 
 	public V1RoleBinding createRoleBinding(String namespace, V1RoleBinding rolebinding) throws ApiException {
-		return api.createNamespacedRoleBinding(namespace, rolebinding, pretty);
+		V1RoleBinding created = api.createNamespacedRoleBinding(namespace, rolebinding, pretty);
+		rbacBindingCache.updateRoleBinding(created);
+		return created;
 	}
 
 	public V1RoleBinding getRoleBindingByUserName(String namespace, String username) throws ApiException {
@@ -111,16 +184,23 @@ public class KubeRbacAuthzManager {
 
 	public V1RoleBinding replaceRoleBinding(String namespace, String roleBindingName, V1RoleBinding rolebinding)
 			throws ApiException {
-		return api.replaceNamespacedRoleBinding(roleBindingName, namespace, rolebinding, pretty);
+		V1RoleBinding replaced = api.replaceNamespacedRoleBinding(roleBindingName, namespace, rolebinding, pretty);
+		rbacBindingCache.updateRoleBinding(replaced);
+		return replaced;
 	}
 
 	public V1Status deleteRoleBinding(String namespace, String roleBindingName, V1DeleteOptions deleteOptions)
 			throws ApiException {
-		return api.deleteNamespacedRoleBinding(roleBindingName, namespace, deleteOptions, pretty, null, null, null);
+		V1Status status = api.deleteNamespacedRoleBinding(roleBindingName, namespace, deleteOptions, pretty, null,
+				null, null);
+		rbacBindingCache.removeRoleBinding(namespace, roleBindingName);
+		return status;
 	}
 
 	public V1Status deleteRoleBindingListByUsername(String namespace, String username) throws ApiException {
-		return api.deleteCollectionNamespacedRoleBinding(namespace, pretty, null, null, null,
+		V1Status status = api.deleteCollectionNamespacedRoleBinding(namespace, pretty, null, null, null,
 				ResourcesLabelManager.getSystemUsernameLabelSelector(username), null, null, null, null);
+		rbacBindingCache.removeRoleBindingsByUsername(namespace, username);
+		return status;
 	}
 }
@@ -0,0 +1,247 @@
+package com.skcc.cloudz.zcp.iam.manager.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
+
+import io.kubernetes.client.models.V1ObjectMeta;
+
+/**
+ * In-memory store of the rbac bindings which keeps the indexes by
+ * <code>cloudzcp.io/zcp-system-username</code> label and by namespace.
+ *
+ * The primary key is <code>namespace/name</code> (or <code>name</code> for the
+ * cluster scoped resources).
+ */
+class BindingIndex<T> {
+
+	interface MetadataAccessor<T> {
+		V1ObjectMeta getMetadata(T item);
+	}
+
+	private final MetadataAccessor<T> accessor;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Map<String, T> items = new HashMap<>();
+
+	private Map<String, Set<String>> usernameIndex = new HashMap<>();
+
+	private Map<String, Set<String>> namespaceIndex = new HashMap<>();
+
+	private volatile String resourceVersion;
+
+	BindingIndex(MetadataAccessor<T> accessor) {
+		this.accessor = accessor;
+	}
+
+	void replace(Collection<T> newItems, String newResourceVersion) {
+		Map<String, T> items = new HashMap<>();
+		Map<String, Set<String>> usernameIndex = new HashMap<>();
+		Map<String, Set<String>> namespaceIndex = new HashMap<>();
+		for (T item : newItems) {
+			String key = keyOf(item);
+			items.put(key, item);
+			addToIndex(usernameIndex, usernameOf(item), key);
+			addToIndex(namespaceIndex, namespaceOf(item), key);
+		}
+
+		lock.writeLock().lock();
+		try {
+			this.items = items;
+			this.usernameIndex = usernameIndex;
+			this.namespaceIndex = namespaceIndex;
+			this.resourceVersion = newResourceVersion;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	void upsert(T item) {
+		String key = keyOf(item);
+		lock.writeLock().lock();
+		try {
+			T old = items.put(key, item);
+			if (old != null) {
+				removeFromIndex(usernameIndex, usernameOf(old), key);
+				removeFromIndex(namespaceIndex, namespaceOf(old), key);
+			}
+			addToIndex(usernameIndex, usernameOf(item), key);
+			addToIndex(namespaceIndex, namespaceOf(item), key);
+			updateResourceVersion(item);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	void remove(T item) {
+		remove(namespaceOf(item), accessor.getMetadata(item).getName());
+		updateResourceVersion(item);
+	}
+
+	void remove(String namespace, String name) {
+		String key = keyOf(namespace, name);
+		lock.writeLock().lock();
+		try {
+			T old = items.remove(key);
+			if (old != null) {
+				removeFromIndex(usernameIndex, usernameOf(old), key);
+				removeFromIndex(namespaceIndex, namespaceOf(old), key);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	void removeByUsername(String namespace, String username) {
+		lock.writeLock().lock();
+		try {
+			Set<String> keys = usernameIndex.get(username);
+			if (keys == null) {
+				return;
+			}
+
+			for (String key : new ArrayList<>(keys)) {
+				T item = items.get(key);
+				if (item != null && (namespace == null || StringUtils.equals(namespace, namespaceOf(item)))) {
+					items.remove(key);
+					removeFromIndex(usernameIndex, username, key);
+					removeFromIndex(namespaceIndex, namespaceOf(item), key);
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	T get(String namespace, String name) {
+		lock.readLock().lock();
+		try {
+			return items.get(keyOf(namespace, name));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	List<T> list() {
+		lock.readLock().lock();
+		try {
+			return new ArrayList<>(items.values());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	List<T> listByUsername(String username) {
+		lock.readLock().lock();
+		try {
+			return collect(usernameIndex.get(username));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	List<T> listByNamespace(String namespace) {
+		lock.readLock().lock();
+		try {
+			return collect(namespaceIndex.get(namespace));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	String getResourceVersion() {
+		return resourceVersion;
+	}
+
+	int size() {
+		lock.readLock().lock();
+		try {
+			return items.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private List<T> collect(Set<String> keys) {
+		if (keys == null || keys.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<T> result = new ArrayList<>(keys.size());
+		for (String key : keys) {
+			T item = items.get(key);
+			if (item != null) {
+				result.add(item);
+			}
+		}
+
+		return result;
+	}
+
+	String resourceVersionOf(T item) {
+		return accessor.getMetadata(item).getResourceVersion();
+	}
+
+	private void updateResourceVersion(T item) {
+		String itemResourceVersion = resourceVersionOf(item);
+		if (itemResourceVersion != null) {
+			resourceVersion = itemResourceVersion;
+		}
+	}
+
+	private String keyOf(T item) {
+		return keyOf(namespaceOf(item), accessor.getMetadata(item).getName());
+	}
+
+	private String keyOf(String namespace, String name) {
+		return StringUtils.isEmpty(namespace) ? name : namespace + "/" + name;
+	}
+
+	private String namespaceOf(T item) {
+		return accessor.getMetadata(item).getNamespace();
+	}
+
+	private String usernameOf(T item) {
+		Map<String, String> labels = accessor.getMetadata(item).getLabels();
+		return labels == null ? null : labels.get(ResourcesLabelManager.SYSTEM_USERNAME_LABEL_NAME);
+	}
+
+	private static void addToIndex(Map<String, Set<String>> index, String value, String key) {
+		if (value == null) {
+			return;
+		}
+
+		Set<String> keys = index.get(value);
+		if (keys == null) {
+			keys = new HashSet<>();
+			index.put(value, keys);
+		}
+		keys.add(key);
+	}
+
+	private static void removeFromIndex(Map<String, Set<String>> index, String value, String key) {
+		if (value == null) {
+			return;
+		}
+
+		Set<String> keys = index.get(value);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				index.remove(value);
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package com.skcc.cloudz.zcp.iam.manager.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL evicting cache of the keycloak users keyed by id with a
+ * username to id index.
+ *
+ * The hit/miss counters are exported through JMX (zcp-iam:name=keyCloakUserCache).
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=keyCloakUserCache")
+public class KeyCloakUserCache {
+
+	private final Logger logger = LoggerFactory.getLogger(KeyCloakUserCache.class);
+
+	@Value("${zcp.keycloak.cache.maxSize:1000}")
+	private int maxSize;
+
+	@Value("${zcp.keycloak.cache.ttlSeconds:60}")
+	private long ttlSeconds;
+
+	private final Map<String, String> usernameIndex = new HashMap<>();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 3547436279612553453L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if (size() > maxSize) {
+				usernameIndex.remove(eldest.getValue().user.getUsername());
+				evictionCount.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * @return a copy of the cached user or null if it does not exist or has expired
+	 */
+	public UserRepresentation get(String id) {
+		if (id == null) {
+			return null;
+		}
+
+		UserRepresentation user = null;
+		synchronized (this) {
+			Entry entry = entries.get(id);
+			if (entry != null) {
+				if (entry.isExpired()) {
+					remove(id);
+				} else {
+					user = entry.user;
+				}
+			}
+		}
+
+		if (user == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		return copyOf(user);
+	}
+
+	public String getIdByUsername(String username) {
+		if (username == null) {
+			return null;
+		}
+
+		synchronized (this) {
+			String id = usernameIndex.get(username);
+			if (id != null) {
+				Entry entry = entries.get(id);
+				if (entry == null || entry.isExpired()) {
+					remove(id);
+					return null;
+				}
+			}
+			return id;
+		}
+	}
+
+	public void put(UserRepresentation user) {
+		if (user == null || user.getId() == null || maxSize <= 0) {
+			return;
+		}
+
+		UserRepresentation copy = copyOf(user);
+		long expireAt = System.currentTimeMillis() + ttlSeconds * 1000;
+		synchronized (this) {
+			Entry old = entries.put(copy.getId(), new Entry(copy, expireAt));
+			if (old != null && old.user.getUsername() != null) {
+				usernameIndex.remove(old.user.getUsername());
+			}
+			if (copy.getUsername() != null) {
+				usernameIndex.put(copy.getUsername(), copy.getId());
+			}
+		}
+	}
+
+	public synchronized void invalidate(String id) {
+		if (id == null) {
+			return;
+		}
+
+		remove(id);
+		logger.debug("The cached user({}) has been invalidated", id);
+	}
+
+	@ManagedOperation
+	public synchronized void invalidateAll() {
+		entries.clear();
+		usernameIndex.clear();
+	}
+
+	@ManagedAttribute
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	@ManagedAttribute
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	@ManagedAttribute
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@ManagedAttribute
+	public double getHitRatio() {
+		long hits = hitCount.get();
+		long total = hits + missCount.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@ManagedAttribute
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	@ManagedAttribute
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	private void remove(String id) {
+		Entry entry = entries.remove(id);
+		if (entry != null && entry.user.getUsername() != null) {
+			usernameIndex.remove(entry.user.getUsername());
+		}
+	}
+
+	private static UserRepresentation copyOf(UserRepresentation user) {
+		// the callers may change the representation before editing it
+		UserRepresentation copy = new UserRepresentation();
+		BeanUtils.copyProperties(user, copy);
+		return copy;
+	}
+
+	private static class Entry {
+		private final UserRepresentation user;
+		private final long expireAt;
+
+		Entry(UserRepresentation user, long expireAt) {
+			this.user = user;
+			this.expireAt = expireAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() > expireAt;
+		}
+	}
+}
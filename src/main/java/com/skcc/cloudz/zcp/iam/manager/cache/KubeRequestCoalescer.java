@@ -0,0 +1,136 @@
+package com.skcc.cloudz.zcp.iam.manager.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import io.kubernetes.client.ApiException;
+
+/**
+ * Single-flight coalescing of the identical list calls to the api server.
+ *
+ * The concurrent callers of the same key (the resource and the selectors)
+ * share one in-flight call and its decoded result (or its exception), so the
+ * callers must not modify the result. When reuseMillis is set the completed
+ * result is also returned to the callers of the same key for that long.
+ *
+ * The counters are exported through JMX (zcp-iam:name=kubeRequestCoalescer).
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=kubeRequestCoalescer")
+public class KubeRequestCoalescer {
+
+	@Value("${kube.client.coalesce.enabled:true}")
+	private boolean enabled;
+
+	@Value("${kube.client.coalesce.reuseMillis:0}")
+	private long reuseMillis;
+
+	private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+	private final AtomicLong callCount = new AtomicLong();
+
+	private final AtomicLong sharedCount = new AtomicLong();
+
+	public interface KubeCall<T> {
+		T call() throws ApiException;
+	}
+
+	public <T> T execute(String key, KubeCall<T> call) throws ApiException {
+		if (!enabled) {
+			return call.call();
+		}
+
+		while (true) {
+			Flight flight = flights.get(key);
+			if (flight != null && !flight.isExpired()) {
+				sharedCount.incrementAndGet();
+				return flight.await();
+			}
+
+			Flight created = new Flight();
+			boolean leader = flight == null ? flights.putIfAbsent(key, created) == null
+					: flights.replace(key, flight, created);
+			if (leader) {
+				callCount.incrementAndGet();
+				return created.run(key, call);
+			}
+			// the other caller has started the call first
+		}
+	}
+
+	@ManagedAttribute
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	@ManagedAttribute
+	public long getSharedCount() {
+		return sharedCount.get();
+	}
+
+	@ManagedAttribute
+	public int getInFlightCount() {
+		int count = 0;
+		for (Flight flight : flights.values()) {
+			if (!flight.future.isDone()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private class Flight {
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+		private volatile long completedAt;
+
+		<T> T run(String key, KubeCall<T> call) throws ApiException {
+			try {
+				T result = call.call();
+				completedAt = System.currentTimeMillis();
+				future.complete(result);
+				if (reuseMillis <= 0) {
+					flights.remove(key, this);
+				}
+				return result;
+			} catch (ApiException | RuntimeException | Error e) {
+				// the failure is not reused
+				flights.remove(key, this);
+				future.completeExceptionally(e);
+				throw e;
+			}
+		}
+
+		boolean isExpired() {
+			return future.isDone() && (reuseMillis <= 0 || future.isCompletedExceptionally()
+					|| System.currentTimeMillis() - completedAt > reuseMillis);
+		}
+
+		@SuppressWarnings("unchecked")
+		<T> T await() throws ApiException {
+			try {
+				return (T) future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new ApiException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof ApiException) {
+					throw (ApiException) cause;
+				} else if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				} else if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new ApiException(cause);
+			}
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package com.skcc.cloudz.zcp.iam.manager.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL evicting cache of the privilege decisions keyed by user id,
+ * namespace and action. Both the allowed and the denied decisions are cached,
+ * but only the decisions made from the existing or the missing bindings, not
+ * from the failed calls.
+ *
+ * The decisions of a user or a namespace are invalidated when its bindings are
+ * changed. A decision which was being made while the bindings were changed is
+ * not cached, because it may have read the old bindings (see
+ * {@link #getGeneration()}).
+ *
+ * The counters are exported through JMX (zcp-iam:name=privilegeDecisionCache).
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=privilegeDecisionCache")
+public class PrivilegeDecisionCache {
+
+	private final Logger logger = LoggerFactory.getLogger(PrivilegeDecisionCache.class);
+
+	@Value("${zcp.authz.cache.maxSize:10000}")
+	private int maxSize;
+
+	@Value("${zcp.authz.cache.ttlSeconds:10}")
+	private long ttlSeconds;
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final Map<String, Decision> decisions = new LinkedHashMap<String, Decision>(16, 0.75f, true) {
+		private static final long serialVersionUID = -2870315927093525417L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Decision> eldest) {
+			return size() > maxSize;
+		}
+	};
+
+	/**
+	 * @return the cached decision or null if it does not exist or has expired
+	 */
+	public Decision get(String userId, String namespace, String action) {
+		String key = key(userId, namespace, action);
+		Decision decision = null;
+		synchronized (this) {
+			decision = decisions.get(key);
+			if (decision != null && decision.isExpired()) {
+				decisions.remove(key);
+				decision = null;
+			}
+		}
+
+		if (decision == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return decision;
+	}
+
+	/**
+	 * The generation which is increased by every invalidation. It should be read
+	 * before the bindings are read, and be given to
+	 * {@link #put(String, String, String, String, String, long)}.
+	 */
+	public long getGeneration() {
+		return generation.get();
+	}
+
+	/**
+	 * Caches the decision unless the bindings have been changed since the
+	 * generation was read.
+	 *
+	 * @param deniedMessage
+	 *            the message of the denied decision or null if it is allowed
+	 */
+	public void put(String userId, String namespace, String action, String username, String deniedMessage,
+			long generation) {
+		if (maxSize <= 0 || ttlSeconds <= 0) {
+			return;
+		}
+
+		Decision decision = new Decision(username, namespace, deniedMessage,
+				System.currentTimeMillis() + ttlSeconds * 1000);
+		synchronized (this) {
+			// the invalidations increase the generation in this lock
+			if (this.generation.get() == generation) {
+				decisions.put(key(userId, namespace, action), decision);
+			}
+		}
+	}
+
+	public synchronized void invalidateUser(String username) {
+		generation.incrementAndGet();
+		removeIf(username, null);
+		logger.debug("The privilege decisions of user({}) have been invalidated", username);
+	}
+
+	public synchronized void invalidateNamespace(String namespace) {
+		generation.incrementAndGet();
+		removeIf(null, namespace);
+		logger.debug("The privilege decisions of namespace({}) have been invalidated", namespace);
+	}
+
+	@ManagedOperation
+	public synchronized void invalidateAll() {
+		generation.incrementAndGet();
+		decisions.clear();
+	}
+
+	@ManagedAttribute
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	@ManagedAttribute
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	@ManagedAttribute
+	public synchronized int getSize() {
+		return decisions.size();
+	}
+
+	private void removeIf(String username, String namespace) {
+		Iterator<Decision> iterator = decisions.values().iterator();
+		while (iterator.hasNext()) {
+			Decision decision = iterator.next();
+			if ((username != null && username.equals(decision.username))
+					|| (namespace != null && namespace.equals(decision.namespace))) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private static String key(String userId, String namespace, String action) {
+		return userId + '\n' + namespace + '\n' + action;
+	}
+
+	public static class Decision {
+		private final String username;
+		private final String namespace;
+		private final String deniedMessage;
+		private final long expireAt;
+
+		Decision(String username, String namespace, String deniedMessage, long expireAt) {
+			this.username = username;
+			this.namespace = namespace;
+			this.deniedMessage = deniedMessage;
+			this.expireAt = expireAt;
+		}
+
+		public boolean isAllowed() {
+			return deniedMessage == null;
+		}
+
+		public String getDeniedMessage() {
+			return deniedMessage;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() > expireAt;
+		}
+	}
+}
@@ -0,0 +1,366 @@
+package com.skcc.cloudz.zcp.iam.manager.cache;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.gson.reflect.TypeToken;
+import com.skcc.cloudz.zcp.iam.common.config.KubeClientConfig;
+import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
+import com.squareup.okhttp.ConnectionPool;
+
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.ApiException;
+import io.kubernetes.client.apis.RbacAuthorizationV1Api;
+import io.kubernetes.client.models.V1ClusterRoleBinding;
+import io.kubernetes.client.models.V1ClusterRoleBindingList;
+import io.kubernetes.client.models.V1ListMeta;
+import io.kubernetes.client.models.V1RoleBinding;
+import io.kubernetes.client.models.V1RoleBindingList;
+import io.kubernetes.client.util.Watch;
+
+/**
+ * List+watch cache of the zcp system user's RoleBindings and
+ * ClusterRoleBindings.
+ *
+ * The bindings are listed once and then kept up to date by a watch, so the
+ * lookups by username and by namespace do not need the round trip to the api
+ * server. Until the first list has been completed the cache reports it is not
+ * synced and the callers should go to the api server.
+ */
+@Component
+public class RbacBindingCache {
+
+	private final Logger logger = LoggerFactory.getLogger(RbacBindingCache.class);
+
+	private static final long RETRY_INTERVAL_MILLIS = 5000L;
+
+	@Value("${zcp.kube.cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${zcp.kube.cache.watchTimeoutSeconds:300}")
+	private int watchTimeoutSeconds;
+
+	@Value("${kube.client.basePath:}")
+	private String basePath;
+
+	@Autowired
+	@Qualifier("kubeConnectionPool")
+	private ConnectionPool connectionPool;
+
+	private final BindingIndex<V1RoleBinding> roleBindings = new BindingIndex<>(V1RoleBinding::getMetadata);
+
+	private final BindingIndex<V1ClusterRoleBinding> clusterRoleBindings = new BindingIndex<>(
+			V1ClusterRoleBinding::getMetadata);
+
+	private volatile boolean roleBindingsSynced;
+
+	private volatile boolean clusterRoleBindingsSynced;
+
+	private volatile boolean running;
+
+	private ApiClient client;
+
+	private RbacAuthorizationV1Api api;
+
+	private Thread roleBindingReflector;
+
+	private Thread clusterRoleBindingReflector;
+
+	@PostConstruct
+	public void start() throws IOException {
+		if (!enabled) {
+			logger.info("The rbac binding cache is disabled");
+			return;
+		}
+
+		// the watch connection is kept open, so the read timeout should be disabled
+		client = KubeClientConfig.newWatchClient(connectionPool, basePath);
+		api = new RbacAuthorizationV1Api(client);
+
+		running = true;
+
+		roleBindingReflector = new Thread(new RoleBindingReflector(), "rbac-cache-rolebindings");
+		roleBindingReflector.setDaemon(true);
+		roleBindingReflector.start();
+
+		clusterRoleBindingReflector = new Thread(new ClusterRoleBindingReflector(), "rbac-cache-clusterrolebindings");
+		clusterRoleBindingReflector.setDaemon(true);
+		clusterRoleBindingReflector.start();
+
+		logger.debug("RbacBindingCache is initialized");
+	}
+
+	@PreDestroy
+	public void stop() {
+		running = false;
+		if (roleBindingReflector != null) {
+			roleBindingReflector.interrupt();
+		}
+		if (clusterRoleBindingReflector != null) {
+			clusterRoleBindingReflector.interrupt();
+		}
+	}
+
+	public boolean isRoleBindingsSynced() {
+		return roleBindingsSynced;
+	}
+
+	public boolean isClusterRoleBindingsSynced() {
+		return clusterRoleBindingsSynced;
+	}
+
+	public V1RoleBindingList getRoleBindingList() {
+		return toRoleBindingList(roleBindings.list());
+	}
+
+	public V1RoleBindingList getRoleBindingListByUsername(String username) {
+		return toRoleBindingList(roleBindings.listByUsername(username));
+	}
+
+	public V1RoleBindingList getRoleBindingListByNamespace(String namespace) {
+		return toRoleBindingList(roleBindings.listByNamespace(namespace));
+	}
+
+	public V1RoleBinding getRoleBinding(String namespace, String name) {
+		return roleBindings.get(namespace, name);
+	}
+
+	public V1ClusterRoleBindingList getClusterRoleBindingList() {
+		return toClusterRoleBindingList(clusterRoleBindings.list());
+	}
+
+	public V1ClusterRoleBindingList getClusterRoleBindingListByUsername(String username) {
+		return toClusterRoleBindingList(clusterRoleBindings.listByUsername(username));
+	}
+
+	public V1ClusterRoleBinding getClusterRoleBinding(String name) {
+		return clusterRoleBindings.get(null, name);
+	}
+
+	// ~~~~~~~~ write through the changes made by this application
+	// so the callers can read their own writes before the watch event arrives
+
+	public void updateRoleBinding(V1RoleBinding roleBinding) {
+		if (roleBinding != null && isLabelled(roleBinding.getMetadata().getLabels())) {
+			roleBindings.upsert(roleBinding);
+		}
+	}
+
+	public void removeRoleBinding(String namespace, String name) {
+		roleBindings.remove(namespace, name);
+	}
+
+	public void removeRoleBindingsByUsername(String namespace, String username) {
+		roleBindings.removeByUsername(namespace, username);
+	}
+
+	public void updateClusterRoleBinding(V1ClusterRoleBinding clusterRoleBinding) {
+		if (clusterRoleBinding != null && isLabelled(clusterRoleBinding.getMetadata().getLabels())) {
+			clusterRoleBindings.upsert(clusterRoleBinding);
+		}
+	}
+
+	public void removeClusterRoleBinding(String name) {
+		clusterRoleBindings.remove(null, name);
+	}
+
+	public void removeClusterRoleBindingsByUsername(String username) {
+		clusterRoleBindings.removeByUsername(null, username);
+	}
+
+	private boolean isLabelled(Map<String, String> labels) {
+		return labels != null
+				&& ResourcesLabelManager.SYSTEM_LABEL_VALUE.equals(labels.get(ResourcesLabelManager.SYSTEM_LABEL_NAME))
+				&& ResourcesLabelManager.SYSTEM_USER_LABEL_VALUE
+						.equals(labels.get(ResourcesLabelManager.SYSTEM_USER_LABEL_NAME));
+	}
+
+	private V1RoleBindingList toRoleBindingList(List<V1RoleBinding> items) {
+		V1ListMeta metadata = new V1ListMeta();
+		metadata.setResourceVersion(roleBindings.getResourceVersion());
+
+		V1RoleBindingList list = new V1RoleBindingList();
+		list.setApiVersion("rbac.authorization.k8s.io/v1");
+		list.setKind("RoleBindingList");
+		list.setMetadata(metadata);
+		list.setItems(items);
+		return list;
+	}
+
+	private V1ClusterRoleBindingList toClusterRoleBindingList(List<V1ClusterRoleBinding> items) {
+		V1ListMeta metadata = new V1ListMeta();
+		metadata.setResourceVersion(clusterRoleBindings.getResourceVersion());
+
+		V1ClusterRoleBindingList list = new V1ClusterRoleBindingList();
+		list.setApiVersion("rbac.authorization.k8s.io/v1");
+		list.setKind("ClusterRoleBindingList");
+		list.setMetadata(metadata);
+		list.setItems(items);
+		return list;
+	}
+
+	/**
+	 * Keeps a {@link BindingIndex} in sync with the api server. The resources are
+	 * re-listed when the watch can not be resumed from the last resource version.
+	 */
+	private abstract class Reflector<T> implements Runnable {
+
+		private final BindingIndex<T> index;
+
+		private final String resourceName;
+
+		Reflector(BindingIndex<T> index, String resourceName) {
+			this.index = index;
+			this.resourceName = resourceName;
+		}
+
+		abstract String list() throws ApiException;
+
+		abstract Watch<T> watch(String resourceVersion) throws ApiException;
+
+		abstract void setSynced(boolean synced);
+
+		@Override
+		public void run() {
+			String resourceVersion = null;
+			while (running) {
+				try {
+					if (resourceVersion == null) {
+						resourceVersion = list();
+						setSynced(true);
+						logger.debug("The {} have been listed. size is {}, resourceVersion is {}", resourceName,
+								index.size(), resourceVersion);
+					}
+
+					resourceVersion = watchUntilClosed(resourceVersion);
+				} catch (Exception e) {
+					if (!running) {
+						break;
+					}
+
+					logger.warn("The watch of {} has failed, it will be re-listed. {}", resourceName, e.getMessage());
+					setSynced(false);
+					resourceVersion = null;
+					try {
+						Thread.sleep(RETRY_INTERVAL_MILLIS);
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+			}
+		}
+
+		/**
+		 * @return the last resource version, or null when the resources should be
+		 *         re-listed
+		 */
+		private String watchUntilClosed(String resourceVersion) throws ApiException, IOException {
+			String lastResourceVersion = resourceVersion;
+			try (Watch<T> watch = watch(resourceVersion)) {
+				for (Watch.Response<T> event : watch) {
+					if ("ERROR".equals(event.type) || event.object == null) {
+						// e.g. 410 Gone, the resource version is too old
+						logger.debug("The watch of {} returned an error event", resourceName);
+						return null;
+					}
+
+					switch (event.type) {
+					case "ADDED":
+					case "MODIFIED":
+						index.upsert(event.object);
+						break;
+					case "DELETED":
+						index.remove(event.object);
+						break;
+					default:
+						break;
+					}
+
+					String eventResourceVersion = index.resourceVersionOf(event.object);
+					if (eventResourceVersion != null) {
+						lastResourceVersion = eventResourceVersion;
+					}
+				}
+			}
+
+			return lastResourceVersion;
+		}
+	}
+
+	private class RoleBindingReflector extends Reflector<V1RoleBinding> {
+
+		RoleBindingReflector() {
+			super(roleBindings, "rolebindings");
+		}
+
+		@Override
+		String list() throws ApiException {
+			V1RoleBindingList list = api.listRoleBindingForAllNamespaces(null, null, null,
+					ResourcesLabelManager.getSystemUserLabelSelector(), null, null, null, null, null);
+			String resourceVersion = list.getMetadata().getResourceVersion();
+			roleBindings.replace(list.getItems(), resourceVersion);
+			return resourceVersion;
+		}
+
+		@Override
+		Watch<V1RoleBinding> watch(String resourceVersion) throws ApiException {
+			Type type = new TypeToken<Watch.Response<V1RoleBinding>>() {
+			}.getType();
+			return Watch.createWatch(client,
+					api.listRoleBindingForAllNamespacesCall(null, null, null,
+							ResourcesLabelManager.getSystemUserLabelSelector(), null, null, resourceVersion,
+							watchTimeoutSeconds, Boolean.TRUE, null, null),
+					type);
+		}
+
+		@Override
+		void setSynced(boolean synced) {
+			roleBindingsSynced = synced;
+		}
+	}
+
+	private class ClusterRoleBindingReflector extends Reflector<V1ClusterRoleBinding> {
+
+		ClusterRoleBindingReflector() {
+			super(clusterRoleBindings, "clusterrolebindings");
+		}
+
+		@Override
+		String list() throws ApiException {
+			V1ClusterRoleBindingList list = api.listClusterRoleBinding(null, null, null, null,
+					ResourcesLabelManager.getSystemUserLabelSelector(), null, null, null, null);
+			String resourceVersion = list.getMetadata().getResourceVersion();
+			clusterRoleBindings.replace(list.getItems(), resourceVersion);
+			return resourceVersion;
+		}
+
+		@Override
+		Watch<V1ClusterRoleBinding> watch(String resourceVersion) throws ApiException {
+			Type type = new TypeToken<Watch.Response<V1ClusterRoleBinding>>() {
+			}.getType();
+			return Watch.createWatch(client,
+					api.listClusterRoleBindingCall(null, null, null, null,
+							ResourcesLabelManager.getSystemUserLabelSelector(), null, resourceVersion,
+							watchTimeoutSeconds, Boolean.TRUE, null, null),
+					type);
+		}
+
+		@Override
+		void setSynced(boolean synced) {
+			clusterRoleBindingsSynced = synced;
+		}
+	}
+}
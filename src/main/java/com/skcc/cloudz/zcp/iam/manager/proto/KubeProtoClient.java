@@ -0,0 +1,167 @@
+package com.skcc.cloudz.zcp.iam.manager.proto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.Message;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.ApiException;
+import io.kubernetes.client.Pair;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Runtime;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * Lists the resources in the protobuf wire format
+ * (application/vnd.kubernetes.protobuf), which is much cheaper to decode than
+ * json for the large lists.
+ *
+ * It is enabled by <code>kube.client.protobuf.enabled</code>. When the api
+ * server does not answer in protobuf, the protobuf is turned off and
+ * {@link #list(Message.Builder, String, String, String)} returns null, so the
+ * callers fall back to the json apis.
+ *
+ * The call is made here instead of by the ProtoClient of client-java, which
+ * does not close the response when the body is not protobuf. The open
+ * response kept its connection and the permit of the request limiter.
+ */
+@Component
+@ManagedResource(objectName = "zcp-iam:name=kubeProtoClient")
+public class KubeProtoClient {
+
+	private final Logger logger = LoggerFactory.getLogger(KubeProtoClient.class);
+
+	private static final String MEDIA_TYPE = "application/vnd.kubernetes.protobuf";
+
+	// the prefix of the protobuf responses of the api server
+	private static final ByteString MAGIC = ByteString.of((byte) 'k', (byte) '8', (byte) 's', (byte) 0);
+
+	@Value("${kube.client.protobuf.enabled:false}")
+	private boolean enabled;
+
+	private volatile boolean supported = true;
+
+	private final ApiClient client;
+
+	@Autowired
+	public KubeProtoClient(@Qualifier("kubeApiClient") ApiClient client) {
+		this.client = client;
+	}
+
+	/**
+	 * @return the list, or null if the protobuf is disabled or not supported by
+	 *         the api server
+	 */
+	public <T extends Message> T list(Message.Builder builder, String path, String labelSelector,
+			String fieldSelector) throws ApiException {
+		if (!isActive()) {
+			return null;
+		}
+
+		List<Pair> queryParams = new ArrayList<>();
+		queryParams.addAll(client.parameterToPair("labelSelector", labelSelector));
+		queryParams.addAll(client.parameterToPair("fieldSelector", fieldSelector));
+		Map<String, String> headerParams = new HashMap<>();
+		headerParams.put("Accept", MEDIA_TYPE);
+
+		Request request = client.buildRequest(path, "GET", queryParams, new ArrayList<Pair>(), null, headerParams,
+				new HashMap<String, Object>(), new String[] { "BearerToken" }, null);
+		ResponseBody body = null;
+		try {
+			Response response = client.getHttpClient().newCall(request).execute();
+			body = response.body();
+			return read(builder, response.code(), body.source());
+		} catch (IOException e) {
+			throw new ApiException(e);
+		} finally {
+			closeQuietly(body);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T extends Message> T read(Message.Builder builder, int code, BufferedSource source)
+			throws IOException, ApiException {
+		if (!startsWithMagic(source)) {
+			if (code == 406 || code == 415 || (code >= 200 && code < 300)) {
+				// the server answered in json
+				markUnsupported("The response(" + code + ") is not protobuf");
+				return null;
+			}
+			throw new ApiException(code, "The request has failed. " + source.readUtf8());
+		}
+		source.skip(MAGIC.size());
+
+		Runtime.Unknown unknown = Runtime.Unknown.parseFrom(source.inputStream());
+		if ("Status".equals(unknown.getTypeMeta().getKind())) {
+			Meta.Status status = Meta.Status.parseFrom(unknown.getRaw());
+			if (status.getCode() == 406 || status.getCode() == 415) {
+				markUnsupported(status.getMessage());
+				return null;
+			}
+			throw new ApiException(status.getCode(), status.getMessage());
+		}
+
+		return (T) builder.mergeFrom(unknown.getRaw()).build();
+	}
+
+	@ManagedAttribute
+	public boolean isActive() {
+		return enabled && supported;
+	}
+
+	/**
+	 * Tries the protobuf again, e.g. after the api server has been upgraded.
+	 */
+	@ManagedOperation
+	public void reset() {
+		supported = true;
+	}
+
+	private void markUnsupported(String reason) {
+		if (supported) {
+			logger.warn("The api server does not support protobuf, json will be used. {}", reason);
+			supported = false;
+		}
+	}
+
+	private static boolean startsWithMagic(BufferedSource source) throws IOException {
+		if (!source.request(MAGIC.size())) {
+			return false;
+		}
+		for (int i = 0; i < MAGIC.size(); i++) {
+			if (source.buffer().getByte(i) != MAGIC.getByte(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void closeQuietly(ResponseBody body) {
+		if (body == null) {
+			return;
+		}
+		try {
+			body.close();
+		} catch (IOException e) {
+			logger.debug("The response could not be closed. {}", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package com.skcc.cloudz.zcp.iam.manager.proto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.models.V1Container;
+import io.kubernetes.client.models.V1ListMeta;
+import io.kubernetes.client.models.V1Namespace;
+import io.kubernetes.client.models.V1NamespaceList;
+import io.kubernetes.client.models.V1NamespaceSpec;
+import io.kubernetes.client.models.V1NamespaceStatus;
+import io.kubernetes.client.models.V1Node;
+import io.kubernetes.client.models.V1NodeAddress;
+import io.kubernetes.client.models.V1NodeCondition;
+import io.kubernetes.client.models.V1NodeList;
+import io.kubernetes.client.models.V1NodeSpec;
+import io.kubernetes.client.models.V1NodeStatus;
+import io.kubernetes.client.models.V1NodeSystemInfo;
+import io.kubernetes.client.models.V1ObjectMeta;
+import io.kubernetes.client.models.V1Pod;
+import io.kubernetes.client.models.V1PodCondition;
+import io.kubernetes.client.models.V1PodList;
+import io.kubernetes.client.models.V1PodSpec;
+import io.kubernetes.client.models.V1PodStatus;
+import io.kubernetes.client.models.V1ResourceQuota;
+import io.kubernetes.client.models.V1ResourceQuotaList;
+import io.kubernetes.client.models.V1ResourceQuotaSpec;
+import io.kubernetes.client.models.V1ResourceQuotaStatus;
+import io.kubernetes.client.models.V1ResourceRequirements;
+import io.kubernetes.client.models.V1RoleBinding;
+import io.kubernetes.client.models.V1RoleBindingList;
+import io.kubernetes.client.models.V1RoleRef;
+import io.kubernetes.client.models.V1Subject;
+import io.kubernetes.client.proto.Meta;
+import io.kubernetes.client.proto.Resource;
+import io.kubernetes.client.proto.V1;
+import io.kubernetes.client.proto.V1Rbac;
+
+/**
+ * Converts the protobuf messages to the json models which the services use.
+ *
+ * Only the fields which are read by this application are converted, e.g. the
+ * pod spec has the node name and the container resources but no volumes.
+ */
+public final class KubeProtoConverter {
+
+	private KubeProtoConverter() {
+	}
+
+	public static V1PodList toPodList(V1.PodList proto) {
+		List<V1Pod> items = new ArrayList<>(proto.getItemsCount());
+		for (V1.Pod pod : proto.getItemsList()) {
+			items.add(toPod(pod));
+		}
+
+		V1PodList list = new V1PodList();
+		list.setApiVersion("v1");
+		list.setKind("PodList");
+		list.setMetadata(toListMeta(proto.getMetadata()));
+		list.setItems(items);
+		return list;
+	}
+
+	public static V1NodeList toNodeList(V1.NodeList proto) {
+		List<V1Node> items = new ArrayList<>(proto.getItemsCount());
+		for (V1.Node node : proto.getItemsList()) {
+			items.add(toNode(node));
+		}
+
+		V1NodeList list = new V1NodeList();
+		list.setApiVersion("v1");
+		list.setKind("NodeList");
+		list.setMetadata(toListMeta(proto.getMetadata()));
+		list.setItems(items);
+		return list;
+	}
+
+	public static V1NamespaceList toNamespaceList(V1.NamespaceList proto) {
+		List<V1Namespace> items = new ArrayList<>(proto.getItemsCount());
+		for (V1.Namespace namespace : proto.getItemsList()) {
+			items.add(toNamespace(namespace));
+		}
+
+		V1NamespaceList list = new V1NamespaceList();
+		list.setApiVersion("v1");
+		list.setKind("NamespaceList");
+		list.setMetadata(toListMeta(proto.getMetadata()));
+		list.setItems(items);
+		return list;
+	}
+
+	public static V1ResourceQuotaList toResourceQuotaList(V1.ResourceQuotaList proto) {
+		List<V1ResourceQuota> items = new ArrayList<>(proto.getItemsCount());
+		for (V1.ResourceQuota resourceQuota : proto.getItemsList()) {
+			items.add(toResourceQuota(resourceQuota));
+		}
+
+		V1ResourceQuotaList list = new V1ResourceQuotaList();
+		list.setApiVersion("v1");
+		list.setKind("ResourceQuotaList");
+		list.setMetadata(toListMeta(proto.getMetadata()));
+		list.setItems(items);
+		return list;
+	}
+
+	public static V1RoleBindingList toRoleBindingList(V1Rbac.RoleBindingList proto) {
+		List<V1RoleBinding> items = new ArrayList<>(proto.getItemsCount());
+		for (V1Rbac.RoleBinding roleBinding : proto.getItemsList()) {
+			items.add(toRoleBinding(roleBinding));
+		}
+
+		V1RoleBindingList list = new V1RoleBindingList();
+		list.setApiVersion("rbac.authorization.k8s.io/v1");
+		list.setKind("RoleBindingList");
+		list.setMetadata(toListMeta(proto.getMetadata()));
+		list.setItems(items);
+		return list;
+	}
+
+	static V1Pod toPod(V1.Pod proto) {
+		V1.PodSpec protoSpec = proto.getSpec();
+		V1PodSpec spec = new V1PodSpec();
+		spec.setNodeName(string(protoSpec.hasNodeName(), protoSpec.getNodeName()));
+		spec.setServiceAccountName(string(protoSpec.hasServiceAccountName(), protoSpec.getServiceAccountName()));
+		spec.setRestartPolicy(string(protoSpec.hasRestartPolicy(), protoSpec.getRestartPolicy()));
+		List<V1Container> containers = new ArrayList<>(protoSpec.getContainersCount());
+		for (V1.Container protoContainer : protoSpec.getContainersList()) {
+			V1Container container = new V1Container();
+			container.setName(protoContainer.getName());
+			container.setImage(string(protoContainer.hasImage(), protoContainer.getImage()));
+			if (protoContainer.hasResources()) {
+				V1ResourceRequirements resources = new V1ResourceRequirements();
+				resources.setRequests(toQuantities(protoContainer.getResources().getRequestsMap()));
+				resources.setLimits(toQuantities(protoContainer.getResources().getLimitsMap()));
+				container.setResources(resources);
+			}
+			containers.add(container);
+		}
+		spec.setContainers(containers);
+
+		V1.PodStatus protoStatus = proto.getStatus();
+		V1PodStatus status = new V1PodStatus();
+		status.setPhase(string(protoStatus.hasPhase(), protoStatus.getPhase()));
+		status.setHostIP(string(protoStatus.hasHostIP(), protoStatus.getHostIP()));
+		status.setPodIP(string(protoStatus.hasPodIP(), protoStatus.getPodIP()));
+		status.setQosClass(string(protoStatus.hasQosClass(), protoStatus.getQosClass()));
+		status.setStartTime(protoStatus.hasStartTime() ? toDateTime(protoStatus.getStartTime()) : null);
+		List<V1PodCondition> conditions = new ArrayList<>(protoStatus.getConditionsCount());
+		for (V1.PodCondition protoCondition : protoStatus.getConditionsList()) {
+			V1PodCondition condition = new V1PodCondition();
+			condition.setType(protoCondition.getType());
+			condition.setStatus(protoCondition.getStatus());
+			condition.setReason(string(protoCondition.hasReason(), protoCondition.getReason()));
+			condition.setMessage(string(protoCondition.hasMessage(), protoCondition.getMessage()));
+			conditions.add(condition);
+		}
+		status.setConditions(conditions);
+
+		V1Pod pod = new V1Pod();
+		pod.setApiVersion("v1");
+		pod.setKind("Pod");
+		pod.setMetadata(toObjectMeta(proto.getMetadata()));
+		pod.setSpec(spec);
+		pod.setStatus(status);
+		return pod;
+	}
+
+	static V1Node toNode(V1.Node proto) {
+		V1.NodeSpec protoSpec = proto.getSpec();
+		V1NodeSpec spec = new V1NodeSpec();
+		spec.setPodCIDR(string(protoSpec.hasPodCIDR(), protoSpec.getPodCIDR()));
+		spec.setProviderID(string(protoSpec.hasProviderID(), protoSpec.getProviderID()));
+		spec.setUnschedulable(protoSpec.hasUnschedulable() ? protoSpec.getUnschedulable() : null);
+
+		V1.NodeStatus protoStatus = proto.getStatus();
+		V1NodeStatus status = new V1NodeStatus();
+		status.setCapacity(toQuantities(protoStatus.getCapacityMap()));
+		status.setAllocatable(toQuantities(protoStatus.getAllocatableMap()));
+
+		List<V1NodeCondition> conditions = new ArrayList<>(protoStatus.getConditionsCount());
+		for (V1.NodeCondition protoCondition : protoStatus.getConditionsList()) {
+			V1NodeCondition condition = new V1NodeCondition();
+			condition.setType(protoCondition.getType());
+			condition.setStatus(protoCondition.getStatus());
+			condition.setReason(string(protoCondition.hasReason(), protoCondition.getReason()));
+			condition.setMessage(string(protoCondition.hasMessage(), protoCondition.getMessage()));
+			condition.setLastHeartbeatTime(
+					protoCondition.hasLastHeartbeatTime() ? toDateTime(protoCondition.getLastHeartbeatTime()) : null);
+			condition.setLastTransitionTime(
+					protoCondition.hasLastTransitionTime() ? toDateTime(protoCondition.getLastTransitionTime()) : null);
+			conditions.add(condition);
+		}
+		status.setConditions(conditions);
+
+		List<V1NodeAddress> addresses = new ArrayList<>(protoStatus.getAddressesCount());
+		for (V1.NodeAddress protoAddress : protoStatus.getAddressesList()) {
+			V1NodeAddress address = new V1NodeAddress();
+			address.setType(protoAddress.getType());
+			address.setAddress(protoAddress.getAddress());
+			addresses.add(address);
+		}
+		status.setAddresses(addresses);
+
+		if (protoStatus.hasNodeInfo()) {
+			V1.NodeSystemInfo protoNodeInfo = protoStatus.getNodeInfo();
+			V1NodeSystemInfo nodeInfo = new V1NodeSystemInfo();
+			nodeInfo.setArchitecture(protoNodeInfo.getArchitecture());
+			nodeInfo.setContainerRuntimeVersion(protoNodeInfo.getContainerRuntimeVersion());
+			nodeInfo.setKernelVersion(protoNodeInfo.getKernelVersion());
+			nodeInfo.setKubeletVersion(protoNodeInfo.getKubeletVersion());
+			nodeInfo.setKubeProxyVersion(protoNodeInfo.getKubeProxyVersion());
+			nodeInfo.setOperatingSystem(protoNodeInfo.getOperatingSystem());
+			nodeInfo.setOsImage(protoNodeInfo.getOsImage());
+			status.setNodeInfo(nodeInfo);
+		}
+
+		V1Node node = new V1Node();
+		node.setApiVersion("v1");
+		node.setKind("Node");
+		node.setMetadata(toObjectMeta(proto.getMetadata()));
+		node.setSpec(spec);
+		node.setStatus(status);
+		return node;
+	}
+
+	static V1Namespace toNamespace(V1.Namespace proto) {
+		V1NamespaceSpec spec = new V1NamespaceSpec();
+		spec.setFinalizers(new ArrayList<>(proto.getSpec().getFinalizersList()));
+
+		V1NamespaceStatus status = new V1NamespaceStatus();
+		status.setPhase(string(proto.getStatus().hasPhase(), proto.getStatus().getPhase()));
+
+		V1Namespace namespace = new V1Namespace();
+		namespace.setApiVersion("v1");
+		namespace.setKind("Namespace");
+		namespace.setMetadata(toObjectMeta(proto.getMetadata()));
+		namespace.setSpec(spec);
+		namespace.setStatus(status);
+		return namespace;
+	}
+
+	static V1ResourceQuota toResourceQuota(V1.ResourceQuota proto) {
+		V1ResourceQuotaSpec spec = new V1ResourceQuotaSpec();
+		spec.setHard(toQuantities(proto.getSpec().getHardMap()));
+
+		V1ResourceQuotaStatus status = new V1ResourceQuotaStatus();
+		status.setHard(toStrings(proto.getStatus().getHardMap()));
+		status.setUsed(toStrings(proto.getStatus().getUsedMap()));
+
+		V1ResourceQuota resourceQuota = new V1ResourceQuota();
+		resourceQuota.setApiVersion("v1");
+		resourceQuota.setKind("ResourceQuota");
+		resourceQuota.setMetadata(toObjectMeta(proto.getMetadata()));
+		resourceQuota.setSpec(spec);
+		resourceQuota.setStatus(status);
+		return resourceQuota;
+	}
+
+	static V1RoleBinding toRoleBinding(V1Rbac.RoleBinding proto) {
+		V1Rbac.RoleRef protoRoleRef = proto.getRoleRef();
+		V1RoleRef roleRef = new V1RoleRef();
+		roleRef.setApiGroup(protoRoleRef.getApiGroup());
+		roleRef.setKind(protoRoleRef.getKind());
+		roleRef.setName(protoRoleRef.getName());
+
+		List<V1Subject> subjects = new ArrayList<>(proto.getSubjectsCount());
+		for (V1Rbac.Subject protoSubject : proto.getSubjectsList()) {
+			V1Subject subject = new V1Subject();
+			subject.setKind(protoSubject.getKind());
+			subject.setApiGroup(string(protoSubject.hasApiGroup(), protoSubject.getApiGroup()));
+			subject.setName(protoSubject.getName());
+			subject.setNamespace(string(protoSubject.hasNamespace(), protoSubject.getNamespace()));
+			subjects.add(subject);
+		}
+
+		V1RoleBinding roleBinding = new V1RoleBinding();
+		roleBinding.setApiVersion("rbac.authorization.k8s.io/v1");
+		roleBinding.setKind("RoleBinding");
+		roleBinding.setMetadata(toObjectMeta(proto.getMetadata()));
+		roleBinding.setRoleRef(roleRef);
+		roleBinding.setSubjects(subjects);
+		return roleBinding;
+	}
+
+	static V1ObjectMeta toObjectMeta(Meta.ObjectMeta proto) {
+		V1ObjectMeta metadata = new V1ObjectMeta();
+		metadata.setName(string(proto.hasName(), proto.getName()));
+		metadata.setGenerateName(string(proto.hasGenerateName(), proto.getGenerateName()));
+		metadata.setNamespace(string(proto.hasNamespace(), proto.getNamespace()));
+		metadata.setUid(string(proto.hasUid(), proto.getUid()));
+		metadata.setResourceVersion(string(proto.hasResourceVersion(), proto.getResourceVersion()));
+		metadata.setSelfLink(string(proto.hasSelfLink(), proto.getSelfLink()));
+		metadata.setGeneration(proto.hasGeneration() ? proto.getGeneration() : null);
+		metadata.setCreationTimestamp(proto.hasCreationTimestamp() ? toDateTime(proto.getCreationTimestamp()) : null);
+		metadata.setDeletionTimestamp(proto.hasDeletionTimestamp() ? toDateTime(proto.getDeletionTimestamp()) : null);
+		if (proto.getLabelsCount() > 0) {
+			metadata.setLabels(new HashMap<>(proto.getLabelsMap()));
+		}
+		if (proto.getAnnotationsCount() > 0) {
+			metadata.setAnnotations(new HashMap<>(proto.getAnnotationsMap()));
+		}
+		return metadata;
+	}
+
+	static V1ListMeta toListMeta(Meta.ListMeta proto) {
+		V1ListMeta metadata = new V1ListMeta();
+		metadata.setResourceVersion(string(proto.hasResourceVersion(), proto.getResourceVersion()));
+		metadata.setSelfLink(string(proto.hasSelfLink(), proto.getSelfLink()));
+		return metadata;
+	}
+
+	static DateTime toDateTime(Meta.Time time) {
+		return new DateTime(time.getSeconds() * 1000L + time.getNanos() / 1000000);
+	}
+
+	private static Map<String, Quantity> toQuantities(Map<String, Resource.Quantity> proto) {
+		if (proto.isEmpty()) {
+			return null;
+		}
+
+		Map<String, Quantity> quantities = new HashMap<>();
+		for (Map.Entry<String, Resource.Quantity> entry : proto.entrySet()) {
+			quantities.put(entry.getKey(), Quantity.fromString(entry.getValue().getString()));
+		}
+		return quantities;
+	}
+
+	private static Map<String, String> toStrings(Map<String, Resource.Quantity> proto) {
+		if (proto.isEmpty()) {
+			return null;
+		}
+
+		Map<String, String> values = new HashMap<>();
+		for (Map.Entry<String, Resource.Quantity> entry : proto.entrySet()) {
+			values.put(entry.getKey(), entry.getValue().getString());
+		}
+		return values;
+	}
+
+	private static String string(boolean has, String value) {
+		return has ? value : null;
+	}
+}
@@ -0,0 +1,260 @@
+package com.skcc.cloudz.zcp.iam.api.user.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.skcc.cloudz.zcp.iam.api.user.vo.MemberVO;
+import com.skcc.cloudz.zcp.iam.api.user.vo.UpdateClusterRoleVO;
+import com.skcc.cloudz.zcp.iam.common.concurrent.FanOutExecutor;
+import com.skcc.cloudz.zcp.iam.common.exception.ZcpException;
+import com.skcc.cloudz.zcp.iam.common.model.ClusterRole;
+import com.skcc.cloudz.zcp.iam.manager.KeyCloakManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeCoreManager;
+import com.skcc.cloudz.zcp.iam.manager.KubeRbacAuthzManager;
+import com.skcc.cloudz.zcp.iam.manager.cache.PrivilegeDecisionCache;
+import com.skcc.cloudz.zcp.iam.manager.cache.RbacBindingCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.kubernetes.client.ApiClient;
+
+/**
+ * Counts the upstream calls of the user lifecycle operations against a stub
+ * api server, which knows only whether the serviceaccount and the
+ * clusterrolebinding of the user exist.
+ */
+public class UserServiceRoundTripTest {
+
+	private static final String NAMESPACE = "zcp-system";
+
+	private static final String SERVICE_ACCOUNTS = "/api/v1/namespaces/" + NAMESPACE + "/serviceaccounts";
+
+	private static final String CLUSTER_ROLE_BINDINGS = "/apis/rbac.authorization.k8s.io/v1/clusterrolebindings";
+
+	private HttpServer server;
+
+	private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+
+	private final Set<String> existing = Collections.synchronizedSet(new HashSet<>());
+
+	// the deleted paths, which are gone after the given number of the posts to them
+	private final Map<String, Integer> terminating = new HashMap<>();
+
+	private int terminatingPosts;
+
+	private FanOutExecutor fanOutExecutor;
+
+	private KeyCloakManager keyCloakManager;
+
+	private UserService userService;
+
+	@Before
+	public void setUp() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+
+		ApiClient client = new ApiClient();
+		client.setBasePath("http://127.0.0.1:" + server.getAddress().getPort());
+
+		KubeCoreManager kubeCoreManager = new KubeCoreManager(client);
+		KubeRbacAuthzManager kubeRbacAuthzManager = new KubeRbacAuthzManager(client);
+		ReflectionTestUtils.setField(kubeRbacAuthzManager, "rbacBindingCache", new RbacBindingCache());
+
+		fanOutExecutor = new FanOutExecutor();
+		ReflectionTestUtils.setField(fanOutExecutor, "threads", 4);
+		ReflectionTestUtils.setField(fanOutExecutor, "queueSize", 16);
+		ReflectionTestUtils.setField(fanOutExecutor, "timeoutSeconds", 10L);
+		fanOutExecutor.init();
+
+		keyCloakManager = mock(KeyCloakManager.class);
+
+		userService = new UserService();
+		ReflectionTestUtils.setField(userService, "keyCloakManager", keyCloakManager);
+		ReflectionTestUtils.setField(userService, "kubeCoreManager", kubeCoreManager);
+		ReflectionTestUtils.setField(userService, "kubeRbacAuthzManager", kubeRbacAuthzManager);
+		ReflectionTestUtils.setField(userService, "fanOutExecutor", fanOutExecutor);
+		ReflectionTestUtils.setField(userService, "privilegeDecisionCache", new PrivilegeDecisionCache());
+		ReflectionTestUtils.setField(userService, "zcpSystemNamespace", NAMESPACE);
+		ReflectionTestUtils.setField(userService, "recreateAttempts", 5);
+		ReflectionTestUtils.setField(userService, "recreateBackoffMillis", 1L);
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+		fanOutExecutor.destroy();
+	}
+
+	@Test
+	public void createNewUser() throws Exception {
+		userService.createUser(member());
+
+		assertRequests("POST " + CLUSTER_ROLE_BINDINGS, "POST " + SERVICE_ACCOUNTS);
+	}
+
+	@Test
+	public void createExistingUser() throws Exception {
+		existing.add(SERVICE_ACCOUNTS);
+		existing.add(CLUSTER_ROLE_BINDINGS);
+
+		userService.createUser(member());
+
+		assertRequests("DELETE " + CLUSTER_ROLE_BINDINGS, "DELETE " + SERVICE_ACCOUNTS, "POST " + CLUSTER_ROLE_BINDINGS,
+				"POST " + CLUSTER_ROLE_BINDINGS, "POST " + SERVICE_ACCOUNTS, "POST " + SERVICE_ACCOUNTS);
+	}
+
+	@Test
+	public void updateUserClusterRole() throws Exception {
+		existing.add(SERVICE_ACCOUNTS);
+		existing.add(CLUSTER_ROLE_BINDINGS);
+		when(keyCloakManager.getUser("id")).thenReturn(keyCloakUser());
+
+		UpdateClusterRoleVO vo = new UpdateClusterRoleVO();
+		vo.setClusterRole(ClusterRole.ADMIN);
+		userService.updateUserClusterRole("id", vo);
+
+		assertRequests("DELETE " + CLUSTER_ROLE_BINDINGS, "POST " + CLUSTER_ROLE_BINDINGS, "POST " + SERVICE_ACCOUNTS);
+	}
+
+	@Test
+	public void resetUserServiceAccount() throws Exception {
+		existing.add(SERVICE_ACCOUNTS);
+		when(keyCloakManager.getUser("id")).thenReturn(keyCloakUser());
+
+		userService.resetUserServiceAccount("id");
+
+		assertRequests("DELETE " + SERVICE_ACCOUNTS, "POST " + SERVICE_ACCOUNTS);
+	}
+
+	@Test
+	public void resetUserServiceAccountWhileTheOldIsTerminating() throws Exception {
+		existing.add(SERVICE_ACCOUNTS);
+		terminatingPosts = 3;
+		when(keyCloakManager.getUser("id")).thenReturn(keyCloakUser());
+
+		userService.resetUserServiceAccount("id");
+
+		assertRequests("DELETE " + SERVICE_ACCOUNTS, "POST " + SERVICE_ACCOUNTS, "POST " + SERVICE_ACCOUNTS,
+				"POST " + SERVICE_ACCOUNTS);
+	}
+
+	@Test(expected = ZcpException.class)
+	public void resetUserServiceAccountGivesUpAfterTheAttempts() throws Exception {
+		existing.add(SERVICE_ACCOUNTS);
+		terminatingPosts = 6;
+		when(keyCloakManager.getUser("id")).thenReturn(keyCloakUser());
+
+		userService.resetUserServiceAccount("id");
+	}
+
+	private void assertRequests(String... expected) {
+		List<String> actual = new ArrayList<>(requests);
+		Collections.sort(actual);
+		List<String> sorted = new ArrayList<>(Arrays.asList(expected));
+		Collections.sort(sorted);
+
+		assertEquals(sorted, actual);
+	}
+
+	private MemberVO member() {
+		MemberVO member = new MemberVO();
+		member.setUsername("tester");
+		member.setFirstName("test");
+		member.setEmail("tester@cloudzcp.io");
+		member.setClusterRole(ClusterRole.MEMBER);
+		return member;
+	}
+
+	private UserRepresentation keyCloakUser() {
+		Map<String, List<String>> attributes = new HashMap<>();
+		attributes.put(KeyCloakManager.DEFAULT_NAMESPACE_ATTRIBUTE_KEY, Arrays.asList("default"));
+
+		UserRepresentation user = new UserRepresentation();
+		user.setId("id");
+		user.setUsername("tester");
+		user.setEnabled(true);
+		user.setEmailVerified(false);
+		user.setTotp(false);
+		user.setCreatedTimestamp(System.currentTimeMillis());
+		user.setAttributes(attributes);
+		return user;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		String path = exchange.getRequestURI().getPath();
+		requests.add(method + " " + path);
+
+		byte[] body = read(exchange.getRequestBody());
+		if ("POST".equals(method)) {
+			synchronized (terminating) {
+				Integer posts = terminating.remove(path);
+				if (posts != null && posts > 1) {
+					terminating.put(path, posts - 1);
+				} else if (posts != null) {
+					existing.remove(path);
+				}
+			}
+			if (!existing.add(path)) {
+				respond(exchange, 409, "{\"kind\":\"Status\",\"status\":\"Failure\",\"reason\":\"AlreadyExists\",\"code\":409}");
+			} else {
+				respond(exchange, 201, new String(body, StandardCharsets.UTF_8));
+			}
+		} else if ("DELETE".equals(method)) {
+			if (terminatingPosts > 0) {
+				synchronized (terminating) {
+					terminating.put(path, terminatingPosts);
+				}
+			} else {
+				existing.remove(path);
+			}
+			respond(exchange, 200, "{\"kind\":\"Status\",\"status\":\"Success\"}");
+		} else {
+			respond(exchange, 404, "{\"kind\":\"Status\",\"status\":\"Failure\",\"code\":404}");
+		}
+	}
+
+	private byte[] read(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.skcc.cloudz.zcp.iam.common.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleFunction;
+
+import org.junit.Test;
+
+/**
+ * Checks the formatters against the string based formatters for the values
+ * which are generated like the values of the services (the sums of the
+ * quantities), the decimals of 2 fraction digits and their ties and neighbors,
+ * the boundaries and the random values of every magnitude.
+ */
+public class NumberUtilsTest {
+
+	private static final int RANDOM_SAMPLES = 200000;
+
+	private final Random random = new Random(20181017L);
+
+	@Test
+	public void formatCpuIsSameAsByString() {
+		for (double value : values()) {
+			assertSameResult(value, NumberUtils::formatCpu, NumberUtils::formatCpuByString);
+		}
+	}
+
+	@Test
+	public void formatCpuWithoutUnitIsSameAsByString() {
+		for (double value : values()) {
+			assertSameResult(value, NumberUtils::formatCpuWithoutUnit, NumberUtils::formatCpuWithoutUnitByString);
+		}
+	}
+
+	@Test
+	public void formatMemoryIsSameAsByString() {
+		for (double value : values()) {
+			double bytes = value * (1 << 30);
+			assertSameResult(bytes, NumberUtils::formatMemory, NumberUtils::formatMemoryByString);
+			assertSameResult(value, NumberUtils::formatMemory, NumberUtils::formatMemoryByString);
+		}
+	}
+
+	@Test
+	public void formatMemoryWithoutUnitIsSameAsByString() {
+		for (double value : values()) {
+			double bytes = value * (1 << 30);
+			assertSameResult(bytes, NumberUtils::formatMemoryWithoutUnit,
+					NumberUtils::formatMemoryWithoutUnitByString);
+			assertSameResult(value, NumberUtils::formatMemoryWithoutUnit,
+					NumberUtils::formatMemoryWithoutUnitByString);
+		}
+	}
+
+	@Test
+	public void percentIsSameAsByString() {
+		List<Double> values = values();
+		for (double value : values) {
+			// the percentages of the ties and their neighbors
+			assertSamePercent(value, 100);
+			assertSamePercent(value / 100, 1);
+			assertSamePercent(values.get(random.nextInt(values.size())), value);
+			assertSamePercent(value, values.get(random.nextInt(values.size())));
+		}
+	}
+
+	private void assertSamePercent(double used, double hard) {
+		Object expected = resultOf(v -> NumberUtils.percentByString(used, hard), 0);
+		Object actual = resultOf(v -> NumberUtils.percent(used, hard), 0);
+		assertEquals("percent(" + used + ", " + hard + ")", expected, actual);
+	}
+
+	private static void assertSameResult(double value, DoubleFunction<Object> actual,
+			DoubleFunction<Object> expected) {
+		assertEquals(String.valueOf(value), resultOf(expected, value), resultOf(actual, value));
+	}
+
+	/**
+	 * @return the result or the class of the exception, so the exceptions of the
+	 *         string based formatters are also checked
+	 */
+	private static Object resultOf(DoubleFunction<Object> function, double value) {
+		try {
+			return function.apply(value);
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private List<Double> values() {
+		List<Double> values = new ArrayList<>();
+
+		double[] boundaries = { 0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				Double.MIN_VALUE, Double.MAX_VALUE, -1, -0.5, 1e-4, 1e-3, 0.005, 0.995, 1, 1e7, 1e-3 / 1024,
+				1023.999, 1024, 1e9, 1e12 };
+		for (double boundary : boundaries) {
+			addWithNeighbors(values, boundary);
+		}
+
+		// the quantities of the pods (millicores, mebibytes as gibibytes) and their sums
+		double sum = 0;
+		for (int i = 0; i <= 64000; i++) {
+			values.add(i / 1000.0);
+			values.add(i / 1024.0);
+			sum += (1 + random.nextInt(2000)) / 1000.0;
+			values.add(sum);
+		}
+
+		// the decimals of 2 fraction digits and the ties of them
+		for (int i = 0; i < RANDOM_SAMPLES; i++) {
+			long hundredths = (long) (Math.pow(10, random.nextDouble() * 9));
+			addWithNeighbors(values, hundredths / 100.0);
+			addWithNeighbors(values, (2 * hundredths + 1) / 200.0);
+		}
+
+		// every magnitude
+		for (int i = 0; i < RANDOM_SAMPLES; i++) {
+			values.add(Math.pow(10, random.nextDouble() * 16 - 6));
+			values.add(random.nextDouble() * 100);
+		}
+
+		return values;
+	}
+
+	private static void addWithNeighbors(List<Double> values, double value) {
+		values.add(value);
+		values.add(Math.nextUp(value));
+		values.add(Math.nextDown(value));
+	}
+}
@@ -0,0 +1,81 @@
+package com.skcc.cloudz.zcp.iam.common.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+import io.kubernetes.client.custom.Quantity;
+
+/**
+ * Checks the parser against the values of {@link Quantity}, which are rounded
+ * up to millicores and bytes, for the quantities of every suffix.
+ */
+public class QuantityUtilsTest {
+
+	private static final String[] SUFFIXES = { "", "n", "u", "m", "k", "M", "G", "T", "Ki", "Mi", "Gi", "Ti", "e3" };
+
+	private static final int RANDOM_SAMPLES = 200000;
+
+	private final Random random = new Random(20181017L);
+
+	@Test
+	public void parseMillicores() {
+		assertEquals(0, QuantityUtils.parseMillicores(null));
+		assertEquals(250, QuantityUtils.parseMillicores("250m"));
+		assertEquals(500, QuantityUtils.parseMillicores("0.5"));
+		assertEquals(2000, QuantityUtils.parseMillicores("2"));
+		assertEquals(1, QuantityUtils.parseMillicores("100u"));
+		assertEquals(3920, QuantityUtils.parseMillicores("3920m"));
+	}
+
+	@Test
+	public void parseBytes() {
+		assertEquals(0, QuantityUtils.parseBytes(null));
+		assertEquals(10, QuantityUtils.parseBytes("10"));
+		assertEquals(512L << 20, QuantityUtils.parseBytes("512Mi"));
+		assertEquals(3L << 29, QuantityUtils.parseBytes("1.5Gi"));
+		assertEquals(1000000000L, QuantityUtils.parseBytes("1G"));
+		assertEquals(1, QuantityUtils.parseBytes("100m"));
+		assertEquals(-2048, QuantityUtils.parseBytes("-2Ki"));
+	}
+
+	@Test
+	public void parseIsSameAsQuantity() {
+		for (int i = 0; i < RANDOM_SAMPLES; i++) {
+			String value = randomQuantity();
+			Quantity quantity = new Quantity(value);
+			assertEquals(value, expected(quantity, 3), QuantityUtils.parseMillicores(value));
+			assertEquals(value, expected(quantity, 0), QuantityUtils.parseBytes(value));
+			assertEquals(value, expected(quantity, 3), QuantityUtils.toMillicores(quantity));
+			assertEquals(value, expected(quantity, 0), QuantityUtils.toBytes(quantity));
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void parseRejectsInvalidQuantity() {
+		QuantityUtils.parseBytes("1Xi");
+	}
+
+	private String randomQuantity() {
+		StringBuilder value = new StringBuilder();
+		if (random.nextInt(10) == 0) {
+			value.append('-');
+		}
+		value.append(random.nextInt(5000));
+		if (random.nextBoolean()) {
+			value.append('.');
+			int digits = 1 + random.nextInt(6);
+			for (int i = 0; i < digits; i++) {
+				value.append(random.nextInt(10));
+			}
+		}
+		return value.append(SUFFIXES[random.nextInt(SUFFIXES.length)]).toString();
+	}
+
+	private static long expected(Quantity quantity, int scale) {
+		return quantity.getNumber().movePointRight(scale).setScale(0, RoundingMode.CEILING).longValueExact();
+	}
+}
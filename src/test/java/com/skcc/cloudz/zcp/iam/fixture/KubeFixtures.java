@@ -0,0 +1,274 @@
+package com.skcc.cloudz.zcp.iam.fixture;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+
+import com.skcc.cloudz.zcp.iam.common.model.ClusterRole;
+import com.skcc.cloudz.zcp.iam.common.model.V1alpha1NodeMetric;
+import com.skcc.cloudz.zcp.iam.common.model.V1alpha1NodeMetricList;
+import com.skcc.cloudz.zcp.iam.manager.ResourcesLabelManager;
+import com.skcc.cloudz.zcp.iam.manager.ResourcesNameManager;
+
+import io.kubernetes.client.custom.Quantity;
+import io.kubernetes.client.models.V1ClusterRole;
+import io.kubernetes.client.models.V1ClusterRoleBinding;
+import io.kubernetes.client.models.V1ClusterRoleBindingList;
+import io.kubernetes.client.models.V1ClusterRoleList;
+import io.kubernetes.client.models.V1Container;
+import io.kubernetes.client.models.V1LimitRange;
+import io.kubernetes.client.models.V1LimitRangeItem;
+import io.kubernetes.client.models.V1LimitRangeList;
+import io.kubernetes.client.models.V1LimitRangeSpec;
+import io.kubernetes.client.models.V1Namespace;
+import io.kubernetes.client.models.V1NamespaceList;
+import io.kubernetes.client.models.V1NamespaceStatus;
+import io.kubernetes.client.models.V1Node;
+import io.kubernetes.client.models.V1NodeCondition;
+import io.kubernetes.client.models.V1NodeList;
+import io.kubernetes.client.models.V1NodeStatus;
+import io.kubernetes.client.models.V1ObjectMeta;
+import io.kubernetes.client.models.V1Pod;
+import io.kubernetes.client.models.V1PodList;
+import io.kubernetes.client.models.V1PodSpec;
+import io.kubernetes.client.models.V1PodStatus;
+import io.kubernetes.client.models.V1ResourceQuota;
+import io.kubernetes.client.models.V1ResourceQuotaList;
+import io.kubernetes.client.models.V1ResourceQuotaStatus;
+import io.kubernetes.client.models.V1ResourceRequirements;
+import io.kubernetes.client.models.V1RoleBinding;
+import io.kubernetes.client.models.V1RoleBindingList;
+import io.kubernetes.client.models.V1RoleRef;
+import io.kubernetes.client.models.V1Subject;
+import io.kubernetes.client.models.V1beta2Deployment;
+import io.kubernetes.client.models.V1beta2DeploymentCondition;
+import io.kubernetes.client.models.V1beta2DeploymentList;
+import io.kubernetes.client.models.V1beta2DeploymentStatus;
+
+/**
+ * Synthetic lists of the kube resources in the shapes which the services read.
+ * The values are random but seeded, so every run gets the same lists.
+ */
+public class KubeFixtures {
+
+	private static final String[] CPU_VALUES = { "100m", "250m", "500m", "1", "2" };
+
+	private static final String[] MEMORY_VALUES = { "128Mi", "256Mi", "512Mi", "1Gi", "2Gi" };
+
+	private static final String[] POD_PHASES = { "Running", "Running", "Running", "Pending", "Succeeded", "Failed" };
+
+	private final Random random = new Random(42);
+
+	private final DateTime creationTimestamp = new DateTime(2018, 6, 1, 0, 0);
+
+	private int uid;
+
+	public V1NodeList nodes(int count) {
+		V1NodeList list = new V1NodeList();
+		for (int i = 0; i < count; i++) {
+			Map<String, Quantity> allocatable = new HashMap<>();
+			allocatable.put("cpu", Quantity.fromString(String.valueOf(4 + random.nextInt(60))));
+			allocatable.put("memory", Quantity.fromString((16 + random.nextInt(240)) + "Gi"));
+
+			Map<String, String> labels = new HashMap<>();
+			labels.put("role", i < 3 ? "master" : "worker");
+
+			V1NodeStatus status = new V1NodeStatus();
+			status.setAllocatable(allocatable);
+			status.addConditionsItem(new V1NodeCondition().type("Ready").status(i % 50 == 49 ? "False" : "True"));
+
+			V1Node node = new V1Node();
+			node.setMetadata(metadata(nodeName(i), null).labels(labels));
+			node.setStatus(status);
+			list.addItemsItem(node);
+		}
+		return list;
+	}
+
+	public V1PodList pods(int count, int nodeCount, int namespaceCount) {
+		V1PodList list = new V1PodList();
+		for (int i = 0; i < count; i++) {
+			V1PodSpec spec = new V1PodSpec();
+			spec.setNodeName(nodeName(random.nextInt(nodeCount)));
+			int containers = 1 + random.nextInt(3);
+			for (int c = 0; c < containers; c++) {
+				V1ResourceRequirements resources = new V1ResourceRequirements();
+				resources.setRequests(resources());
+				resources.setLimits(resources());
+				spec.addContainersItem(new V1Container().name("container-" + c).resources(resources));
+			}
+
+			V1Pod pod = new V1Pod();
+			pod.setMetadata(metadata("pod-" + i, namespaceName(random.nextInt(namespaceCount))));
+			pod.setSpec(spec);
+			pod.setStatus(new V1PodStatus().phase(POD_PHASES[random.nextInt(POD_PHASES.length)]));
+			list.addItemsItem(pod);
+		}
+		return list;
+	}
+
+	public V1NamespaceList namespaces(int count) {
+		V1NamespaceList list = new V1NamespaceList();
+		for (int i = 0; i < count; i++) {
+			V1Namespace namespace = new V1Namespace();
+			namespace.setMetadata(metadata(namespaceName(i), null).labels(ResourcesLabelManager.getSystemLabels()));
+			namespace.setStatus(new V1NamespaceStatus().phase("Active"));
+			list.addItemsItem(namespace);
+		}
+		return list;
+	}
+
+	public V1ResourceQuotaList resourceQuotas(int namespaceCount) {
+		V1ResourceQuotaList list = new V1ResourceQuotaList();
+		for (int i = 0; i < namespaceCount; i++) {
+			Map<String, String> hard = new HashMap<>();
+			hard.put("requests.cpu", "8");
+			hard.put("limits.cpu", "16");
+			hard.put("requests.memory", "16Gi");
+			hard.put("limits.memory", "32Gi");
+
+			Map<String, String> used = new HashMap<>();
+			used.put("requests.cpu", (random.nextInt(8000)) + "m");
+			used.put("limits.cpu", (random.nextInt(16000)) + "m");
+			used.put("requests.memory", (random.nextInt(16384)) + "Mi");
+			used.put("limits.memory", (random.nextInt(32768)) + "Mi");
+
+			V1ResourceQuota quota = new V1ResourceQuota();
+			quota.setMetadata(metadata(ResourcesNameManager.getResouceQuotaName(namespaceName(i)), namespaceName(i)));
+			quota.setStatus(new V1ResourceQuotaStatus().hard(hard).used(used));
+			list.addItemsItem(quota);
+		}
+		return list;
+	}
+
+	public V1RoleBindingList roleBindings(int namespaceCount, int perNamespace) {
+		V1RoleBindingList list = new V1RoleBindingList();
+		for (int i = 0; i < namespaceCount; i++) {
+			for (int u = 0; u < perNamespace; u++) {
+				String username = userName(u);
+				V1RoleBinding roleBinding = new V1RoleBinding();
+				roleBinding.setMetadata(metadata(ResourcesNameManager.getRoleBindingName(username), namespaceName(i))
+						.labels(ResourcesLabelManager.getSystemUsernameLabels(username)));
+				roleBinding.setRoleRef(new V1RoleRef().apiGroup("rbac.authorization.k8s.io").kind("ClusterRole")
+						.name(u == 0 ? ClusterRole.ADMIN.getRole() : ClusterRole.EDIT.getRole()));
+				roleBinding.addSubjectsItem(new V1Subject().kind("ServiceAccount")
+						.name(ResourcesNameManager.getServiceAccountName(username)));
+				list.addItemsItem(roleBinding);
+			}
+		}
+		return list;
+	}
+
+	public V1LimitRangeList limitRanges(int namespaceCount) {
+		V1LimitRangeList list = new V1LimitRangeList();
+		for (int i = 0; i < namespaceCount; i++) {
+			V1LimitRangeItem item = new V1LimitRangeItem();
+			item.setType("Container");
+			item.setDefault(resources());
+			item.setDefaultRequest(resources());
+
+			V1LimitRange limitRange = new V1LimitRange();
+			limitRange.setMetadata(metadata(ResourcesNameManager.getLimtRangeName(namespaceName(i)), namespaceName(i)));
+			limitRange.setSpec(new V1LimitRangeSpec().addLimitsItem(item));
+			list.addItemsItem(limitRange);
+		}
+		return list;
+	}
+
+	public V1beta2DeploymentList deployments(int namespaceCount, int perNamespace) {
+		V1beta2DeploymentList list = new V1beta2DeploymentList();
+		for (int i = 0; i < namespaceCount; i++) {
+			for (int d = 0; d < perNamespace; d++) {
+				V1beta2DeploymentCondition available = new V1beta2DeploymentCondition().type("Available")
+						.status(random.nextInt(10) == 0 ? "False" : "True");
+
+				V1beta2Deployment deployment = new V1beta2Deployment();
+				deployment.setMetadata(metadata("deployment-" + d, namespaceName(i)));
+				deployment.setStatus(new V1beta2DeploymentStatus().addConditionsItem(available));
+				list.addItemsItem(deployment);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * The first user is the cluster-admin, and the others are the members.
+	 */
+	public V1ClusterRoleBindingList clusterRoleBindings(int userCount) {
+		V1ClusterRoleBindingList list = new V1ClusterRoleBindingList();
+		for (int u = 0; u < userCount; u++) {
+			String username = userName(u);
+			V1ClusterRoleBinding clusterRoleBinding = new V1ClusterRoleBinding();
+			clusterRoleBinding.setMetadata(metadata(ResourcesNameManager.getClusterRoleBindingName(username), null)
+					.labels(ResourcesLabelManager.getSystemUsernameLabels(username)));
+			clusterRoleBinding.setRoleRef(new V1RoleRef().apiGroup("rbac.authorization.k8s.io").kind("ClusterRole")
+					.name(u == 0 ? ClusterRole.CLUSTER_ADMIN.getRole() : ClusterRole.MEMBER.getRole()));
+			clusterRoleBinding.addSubjectsItem(new V1Subject().kind("ServiceAccount")
+					.name(ResourcesNameManager.getServiceAccountName(username)));
+			list.addItemsItem(clusterRoleBinding);
+		}
+		return list;
+	}
+
+	public V1ClusterRoleList clusterRoles() {
+		V1ClusterRoleList list = new V1ClusterRoleList();
+		for (ClusterRole role : ClusterRole.values()) {
+			if (role == ClusterRole.NONE) {
+				continue;
+			}
+			Map<String, String> labels = role == ClusterRole.CLUSTER_ADMIN || role == ClusterRole.MEMBER
+					? ResourcesLabelManager.getSystemClusterRoleLabels()
+					: ResourcesLabelManager.getSystemNamespaceRoleLabels();
+
+			V1ClusterRole clusterRole = new V1ClusterRole();
+			clusterRole.setMetadata(metadata(role.getRole(), null).labels(labels));
+			list.addItemsItem(clusterRole);
+		}
+		return list;
+	}
+
+	public V1alpha1NodeMetricList nodeMetrics(int nodeCount) {
+		V1alpha1NodeMetricList list = new V1alpha1NodeMetricList();
+		for (int i = 0; i < nodeCount; i++) {
+			V1alpha1NodeMetric metric = new V1alpha1NodeMetric();
+			metric.setMetadata(metadata(nodeName(i), null));
+			V1alpha1NodeMetric.V1alpha1Usage usage = metric.new V1alpha1Usage();
+			usage.setCpu(Quantity.fromString((random.nextInt(4000)) + "m"));
+			usage.setMemory(Quantity.fromString((1024 + random.nextInt(16384)) + "Mi"));
+			metric.setUsage(usage);
+			list.getItems().add(metric);
+		}
+		return list;
+	}
+
+	public static String nodeName(int i) {
+		return "node-" + i;
+	}
+
+	public static String namespaceName(int i) {
+		return "namespace-" + i;
+	}
+
+	public static String userName(int i) {
+		return "user-" + i;
+	}
+
+	private Map<String, Quantity> resources() {
+		Map<String, Quantity> resources = new HashMap<>();
+		resources.put("cpu", Quantity.fromString(CPU_VALUES[random.nextInt(CPU_VALUES.length)]));
+		resources.put("memory", Quantity.fromString(MEMORY_VALUES[random.nextInt(MEMORY_VALUES.length)]));
+		return resources;
+	}
+
+	private V1ObjectMeta metadata(String name, String namespace) {
+		V1ObjectMeta metadata = new V1ObjectMeta();
+		metadata.setName(name);
+		metadata.setNamespace(namespace);
+		metadata.setUid("uid-" + (++uid));
+		metadata.setResourceVersion(String.valueOf(1000 + uid));
+		metadata.setCreationTimestamp(creationTimestamp);
+		return metadata;
+	}
+}
@@ -0,0 +1,148 @@
+package com.skcc.cloudz.zcp.iam.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.keycloak.representations.AccessTokenResponse;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skcc.cloudz.zcp.iam.fixture.KubeFixtures;
+import com.skcc.cloudz.zcp.iam.loadtest.StubUpstreamServer.Response;
+
+/**
+ * Stub of the keycloak paths which the admin client calls: the token of the
+ * master realm, and the list, the search, the count and the read of the users.
+ *
+ * The users are named like the users of {@link KubeFixtures}, so the role
+ * bindings of the kube stub belong to them. The writes are accepted but not
+ * applied.
+ */
+public class KeycloakStub {
+
+	public static final String PREFIX = "/auth";
+
+	private static final String TOKEN_PATH = "/protocol/openid-connect/token";
+
+	private static final String USERS_PATH = "/users";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final List<UserRepresentation> users = new ArrayList<>();
+
+	private final String token;
+
+	public KeycloakStub(int userCount) {
+		for (int i = 0; i < userCount; i++) {
+			users.add(user(i));
+		}
+
+		AccessTokenResponse tokenResponse = new AccessTokenResponse();
+		tokenResponse.setToken("stub-access-token");
+		tokenResponse.setExpiresIn(300);
+		tokenResponse.setRefreshToken("stub-refresh-token");
+		tokenResponse.setRefreshExpiresIn(1800);
+		tokenResponse.setTokenType("bearer");
+		token = toJson(tokenResponse);
+	}
+
+	public static String userId(int i) {
+		return String.format("00000000-0000-0000-0000-%012d", i);
+	}
+
+	Response handle(String method, String path, Map<String, String> query, byte[] body) {
+		if (path.startsWith(PREFIX + "/realms/") && path.endsWith(TOKEN_PATH)) {
+			return Response.json("POST " + PREFIX + "/realms/{realm}" + TOKEN_PATH, 200, token);
+		}
+
+		String adminPrefix = PREFIX + "/admin/realms/";
+		int usersIndex = path.indexOf(USERS_PATH);
+		if (!path.startsWith(adminPrefix) || usersIndex < 0) {
+			return notFound(method + " " + path);
+		}
+
+		String rest = path.substring(usersIndex + USERS_PATH.length());
+		String route = method + " " + adminPrefix + "{realm}" + USERS_PATH;
+		if (rest.isEmpty() || rest.equals("/")) {
+			if (method.equals("POST")) {
+				return Response.json(route, 201, new byte[0]);
+			}
+			return Response.json(route, 200, toJson(search(query)));
+		}
+		if (rest.equals("/count")) {
+			return Response.json(route + "/count", 200, String.valueOf(users.size()));
+		}
+
+		String[] parts = rest.substring(1).split("/", 2);
+		route += "/{id}" + (parts.length > 1 ? "/" + parts[1] : "");
+		UserRepresentation user = find(parts[0]);
+		if (user == null) {
+			return notFound(route);
+		}
+		if (parts.length == 1 && method.equals("GET")) {
+			return Response.json(route, 200, toJson(user));
+		}
+		return Response.json(route, 204, new byte[0]);
+	}
+
+	private List<UserRepresentation> search(Map<String, String> query) {
+		String keyword = query.get("search");
+		if (keyword == null) {
+			keyword = query.get("username");
+		}
+		int first = query.containsKey("first") ? Integer.parseInt(query.get("first")) : 0;
+		int max = query.containsKey("max") ? Integer.parseInt(query.get("max")) : Integer.MAX_VALUE;
+
+		List<UserRepresentation> page = new ArrayList<>();
+		int matched = 0;
+		for (UserRepresentation user : users) {
+			if (keyword != null && !keyword.isEmpty() && !user.getUsername().contains(keyword)) {
+				continue;
+			}
+			if (matched++ >= first) {
+				page.add(user);
+				if (page.size() >= max) {
+					break;
+				}
+			}
+		}
+		return page;
+	}
+
+	private UserRepresentation find(String id) {
+		for (UserRepresentation user : users) {
+			if (user.getId().equals(id)) {
+				return user;
+			}
+		}
+		return null;
+	}
+
+	private static UserRepresentation user(int i) {
+		String username = KubeFixtures.userName(i);
+		UserRepresentation user = new UserRepresentation();
+		user.setId(userId(i));
+		user.setUsername(username);
+		user.setEmail(username + "@example.com");
+		user.setFirstName("User");
+		user.setLastName(String.valueOf(i));
+		user.setEnabled(true);
+		user.setEmailVerified(true);
+		user.setCreatedTimestamp(1527811200000L + i * 60000L);
+		return user;
+	}
+
+	private String toJson(Object value) {
+		try {
+			return objectMapper.writeValueAsString(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Response notFound(String route) {
+		return Response.json(route, 404, "{\"error\":\"not found\"}");
+	}
+}
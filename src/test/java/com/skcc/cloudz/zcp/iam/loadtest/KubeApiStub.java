@@ -0,0 +1,274 @@
+package com.skcc.cloudz.zcp.iam.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.skcc.cloudz.zcp.iam.loadtest.StubUpstreamServer.Response;
+
+import io.kubernetes.client.ApiClient;
+import io.kubernetes.client.JSON;
+import io.kubernetes.client.models.V1ObjectMeta;
+
+/**
+ * Stub of the api server paths which the service calls: the lists and the
+ * reads of the registered resources, filtered by namespace, label selector and
+ * field selector, the watches, and the node metrics of the heapster proxy.
+ *
+ * The resources are serialized once when they are registered. The writes are
+ * accepted but not applied, the created and replaced objects are echoed back,
+ * so the stub stays the same during a run.
+ *
+ * When a recordings directory is given, a file at the request path plus
+ * ".json" (e.g. recordings/api/v1/nodes.json) is served instead of the
+ * synthetic resources, so the responses recorded from a real cluster can be
+ * replayed.
+ */
+public class KubeApiStub {
+
+	public static final String HEAPSTER_NODE_METRICS = "/api/v1/namespaces/kube-system/services/http:heapster:/proxy/apis/metrics/v1alpha1/nodes";
+
+	private static final long DEFAULT_WATCH_SECONDS = 300;
+
+	private final JSON json = new ApiClient().getJSON();
+
+	private final Map<String, Resource> resources = new HashMap<>();
+
+	private final AtomicLong resourceVersion = new AtomicLong(1000);
+
+	private final File recordings;
+
+	private String nodeMetrics = "{\"items\":[]}";
+
+	public KubeApiStub(File recordings) {
+		this.recordings = recordings;
+	}
+
+	/**
+	 * @param apiPath
+	 *            "/api/v1" or "/apis/{group}/{version}"
+	 * @param plural
+	 *            the resource name in the path, e.g. "pods"
+	 * @param kind
+	 *            the kind of the list, e.g. "PodList"
+	 */
+	public <T> KubeApiStub register(String apiPath, String plural, String kind, List<T> items,
+			Function<T, V1ObjectMeta> metadata) {
+		return register(apiPath, plural, kind, items, metadata, item -> Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * @param fields
+	 *            the fields of an item which can be selected by the field
+	 *            selector besides metadata.name and metadata.namespace
+	 */
+	public <T> KubeApiStub register(String apiPath, String plural, String kind, List<T> items,
+			Function<T, V1ObjectMeta> metadata, Function<T, Map<String, String>> fields) {
+		String apiVersion = apiPath.startsWith("/apis/") ? apiPath.substring("/apis/".length()) : "v1";
+		Resource resource = new Resource(apiVersion, kind);
+		if (items != null) {
+			for (T item : items) {
+				V1ObjectMeta meta = metadata.apply(item);
+				Map<String, String> itemFields = new HashMap<>(fields.apply(item));
+				itemFields.put("metadata.name", meta.getName());
+				if (meta.getNamespace() != null) {
+					itemFields.put("metadata.namespace", meta.getNamespace());
+				}
+				resource.entries.add(new Entry(meta.getNamespace(), meta.getName(), meta.getLabels(), itemFields,
+						json.serialize(item)));
+			}
+		}
+		resources.put(apiPath + "/" + plural, resource);
+		return this;
+	}
+
+	public KubeApiStub nodeMetrics(Object nodeMetricList) {
+		nodeMetrics = json.serialize(nodeMetricList);
+		return this;
+	}
+
+	Response handle(String method, String path, Map<String, String> query, byte[] body) {
+		if (path.equals(HEAPSTER_NODE_METRICS)) {
+			return Response.json(method + " " + path, 200, nodeMetrics);
+		}
+
+		String apiPath = null;
+		String rest = null;
+		if (path.startsWith("/api/v1/")) {
+			apiPath = "/api/v1";
+			rest = path.substring(apiPath.length() + 1);
+		} else if (path.startsWith("/apis/")) {
+			String[] segments = path.split("/", 5);
+			if (segments.length < 5) {
+				return notFound(method + " " + path);
+			}
+			apiPath = "/apis/" + segments[2] + "/" + segments[3];
+			rest = segments[4];
+		} else {
+			return notFound(method + " " + path);
+		}
+
+		String[] parts = rest.split("/");
+		String namespace = null;
+		String plural = null;
+		String name = null;
+		if (parts.length >= 3 && parts[0].equals("namespaces")) {
+			namespace = parts[1];
+			plural = parts[2];
+			name = parts.length > 3 ? parts[3] : null;
+		} else {
+			// also /api/v1/namespaces/{name}
+			plural = parts[0];
+			name = parts.length > 1 ? parts[1] : null;
+		}
+
+		boolean watch = "true".equals(query.get("watch"));
+		String route = method + " " + apiPath + (namespace == null ? "" : "/namespaces/{namespace}") + "/" + plural
+				+ (name == null ? "" : "/{name}") + (watch ? " (watch)" : "");
+
+		if (watch) {
+			String timeout = query.get("timeoutSeconds");
+			return Response.watch(route, timeout == null ? DEFAULT_WATCH_SECONDS : Long.parseLong(timeout));
+		}
+
+		if (recordings != null && method.equals("GET")) {
+			File recording = new File(recordings, path + ".json");
+			if (recording.isFile()) {
+				try {
+					return Response.json(route, 200, Files.readAllBytes(recording.toPath()));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+
+		Resource resource = resources.get(apiPath + "/" + plural);
+		if (resource == null) {
+			return notFound(route);
+		}
+
+		switch (method) {
+		case "GET":
+			if (name == null) {
+				return Response.json(route, 200, resource.list(namespace, query.get("labelSelector"),
+						query.get("fieldSelector"), resourceVersion.get()));
+			}
+			Entry entry = resource.get(namespace, name);
+			return entry == null ? notFound(route) : Response.json(route, 200, entry.json);
+		case "POST":
+			return Response.json(route, 201, body);
+		case "PUT":
+			return Response.json(route, 200, body);
+		case "PATCH":
+			Entry patched = resource.get(namespace, name);
+			return patched == null ? notFound(route) : Response.json(route, 200, patched.json);
+		case "DELETE":
+			return Response.json(route, 200, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Success\"}");
+		default:
+			return notFound(route);
+		}
+	}
+
+	private static Response notFound(String route) {
+		return Response.json(route, 404, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\","
+				+ "\"reason\":\"NotFound\",\"code\":404}");
+	}
+
+	private static class Resource {
+		private final String apiVersion;
+		private final String kind;
+		private final List<Entry> entries = new ArrayList<>();
+
+		Resource(String apiVersion, String kind) {
+			this.apiVersion = apiVersion;
+			this.kind = kind;
+		}
+
+		String list(String namespace, String labelSelector, String fieldSelector, long resourceVersion) {
+			StringBuilder builder = new StringBuilder();
+			builder.append("{\"apiVersion\":\"").append(apiVersion).append("\",\"kind\":\"").append(kind)
+					.append("\",\"metadata\":{\"resourceVersion\":\"").append(resourceVersion)
+					.append("\"},\"items\":[");
+			boolean first = true;
+			for (Entry entry : entries) {
+				if ((namespace == null || namespace.equals(entry.namespace))
+						&& matches(labelSelector, entry.labels) && matches(fieldSelector, entry.fields)) {
+					if (!first) {
+						builder.append(',');
+					}
+					builder.append(entry.json);
+					first = false;
+				}
+			}
+			return builder.append("]}").toString();
+		}
+
+		Entry get(String namespace, String name) {
+			for (Entry entry : entries) {
+				if (name.equals(entry.name) && (namespace == null || namespace.equals(entry.namespace))) {
+					return entry;
+				}
+			}
+			return null;
+		}
+
+		// the equality based selectors: a=b, a==b, a!=b, a and !a
+		private static boolean matches(String selector, Map<String, String> values) {
+			if (selector == null || selector.isEmpty()) {
+				return true;
+			}
+
+			for (String requirement : selector.split(",")) {
+				String value = null;
+				int index = requirement.indexOf("!=");
+				if (index > 0) {
+					value = values.get(requirement.substring(0, index).trim());
+					if (requirement.substring(index + 2).trim().equals(value)) {
+						return false;
+					}
+					continue;
+				}
+
+				index = requirement.indexOf('=');
+				if (index > 0) {
+					value = values.get(requirement.substring(0, index).trim());
+					String expected = requirement.substring(requirement.lastIndexOf('=') + 1).trim();
+					if (!expected.equals(value)) {
+						return false;
+					}
+				} else if (requirement.startsWith("!")) {
+					if (values.containsKey(requirement.substring(1).trim())) {
+						return false;
+					}
+				} else if (!values.containsKey(requirement.trim())) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static class Entry {
+		private final String namespace;
+		private final String name;
+		private final Map<String, String> labels;
+		private final Map<String, String> fields;
+		private final String json;
+
+		Entry(String namespace, String name, Map<String, String> labels, Map<String, String> fields, String json) {
+			this.namespace = namespace;
+			this.name = name;
+			this.labels = labels == null ? Collections.<String, String>emptyMap() : labels;
+			this.fields = fields;
+			this.json = json;
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.skcc.cloudz.zcp.iam.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Sends the weighted mix of the GET requests to the service from a number of
+ * threads, and keeps the latencies and the errors of each endpoint.
+ *
+ * A request fails when the status is not 2xx or the "code" of the body is not
+ * "200", because the service answers the most of its errors with 200 and the
+ * code of the error.
+ *
+ * The upstream calls of an endpoint are measured by {@link #calibrate}, which
+ * sends the requests of the endpoint one by one and divides the calls which
+ * the stub has counted meanwhile by the requests.
+ */
+public class LoadDriver {
+
+	private static final String SUCCESS_CODE = "200";
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	private final String baseUrl;
+
+	private final StubUpstreamServer upstream;
+
+	private final List<Endpoint> endpoints = new ArrayList<>();
+
+	private int totalWeight;
+
+	public LoadDriver(String baseUrl, StubUpstreamServer upstream) {
+		this.baseUrl = baseUrl;
+		this.upstream = upstream;
+	}
+
+	/**
+	 * @param name
+	 *            the name of the endpoint in the report
+	 * @param weight
+	 *            the share of the endpoint in the mix
+	 * @param path
+	 *            makes the path and the query of a request
+	 */
+	public LoadDriver endpoint(String name, int weight, Function<Random, String> path) {
+		endpoints.add(new Endpoint(name, weight, path));
+		totalWeight += weight;
+		return this;
+	}
+
+	/**
+	 * @return the upstream calls per request by route, by endpoint
+	 */
+	public Map<String, Map<String, Double>> calibrate(int requestsPerEndpoint) throws IOException {
+		Random random = new Random(7);
+		Map<String, Map<String, Double>> calls = new LinkedHashMap<>();
+		for (Endpoint endpoint : endpoints) {
+			Map<String, Long> before = upstream.getCalls();
+			for (int i = 0; i < requestsPerEndpoint; i++) {
+				send(endpoint.path.apply(random));
+			}
+			Map<String, Long> after = upstream.getCalls();
+
+			Map<String, Double> perRequest = new TreeMap<>();
+			for (Map.Entry<String, Long> entry : after.entrySet()) {
+				long delta = entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+				if (delta > 0) {
+					perRequest.put(entry.getKey(), (double) delta / requestsPerEndpoint);
+				}
+			}
+			calls.put(endpoint.name, perRequest);
+		}
+		return calls;
+	}
+
+	/**
+	 * @return the stats by endpoint, in the order of the endpoints
+	 */
+	public Map<String, Stats> run(int threads, long durationMillis, long seed) throws Exception {
+		long deadline = System.currentTimeMillis() + durationMillis;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Map<String, Stats>>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				Random random = new Random(seed + t);
+				futures.add(executor.submit(() -> drive(random, deadline)));
+			}
+
+			Map<String, Stats> stats = new LinkedHashMap<>();
+			for (Endpoint endpoint : endpoints) {
+				stats.put(endpoint.name, new Stats());
+			}
+			for (Future<Map<String, Stats>> future : futures) {
+				for (Map.Entry<String, Stats> entry : future.get().entrySet()) {
+					stats.get(entry.getKey()).merge(entry.getValue());
+				}
+			}
+			return stats;
+		} finally {
+			executor.shutdownNow();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+	}
+
+	private Map<String, Stats> drive(Random random, long deadline) {
+		Map<String, Stats> stats = new HashMap<>();
+		while (System.currentTimeMillis() < deadline) {
+			Endpoint endpoint = pick(random);
+			String path = endpoint.path.apply(random);
+			long start = System.nanoTime();
+			boolean success = false;
+			try {
+				success = send(path);
+			} catch (IOException e) {
+				success = false;
+			}
+			stats.computeIfAbsent(endpoint.name, n -> new Stats()).add(System.nanoTime() - start, success);
+		}
+		return stats;
+	}
+
+	private Endpoint pick(Random random) {
+		int value = random.nextInt(totalWeight);
+		for (Endpoint endpoint : endpoints) {
+			value -= endpoint.weight;
+			if (value < 0) {
+				return endpoint;
+			}
+		}
+		return endpoints.get(endpoints.size() - 1);
+	}
+
+	private boolean send(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestProperty("Accept", "application/json");
+		int status = connection.getResponseCode();
+		if (status < 200 || status >= 300) {
+			drain(connection.getErrorStream());
+			return false;
+		}
+
+		try (InputStream in = connection.getInputStream()) {
+			return SUCCESS_CODE.equals(readCode(in));
+		}
+	}
+
+	// reads the "code" of the top level object and skips the rest, the data included
+	private String readCode(InputStream in) throws IOException {
+		String code = null;
+		try (JsonParser parser = jsonFactory.createParser(in)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				JsonToken value = parser.nextToken();
+				if ("code".equals(field) && value.isScalarValue()) {
+					code = parser.getText();
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		return code;
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		if (in == null) {
+			return;
+		}
+		try (InputStream stream = in) {
+			byte[] buffer = new byte[8192];
+			while (stream.read(buffer) != -1) {
+			}
+		}
+	}
+
+	private static class Endpoint {
+		private final String name;
+		private final int weight;
+		private final Function<Random, String> path;
+
+		Endpoint(String name, int weight, Function<Random, String> path) {
+			this.name = name;
+			this.weight = weight;
+			this.path = path;
+		}
+	}
+
+	public static class Stats {
+		private long[] latencies = new long[1024];
+		private int count;
+		private int errors;
+		private boolean sorted;
+
+		void add(long latencyNanos, boolean success) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			if (!success) {
+				errors++;
+			}
+			sorted = false;
+		}
+
+		void merge(Stats other) {
+			for (int i = 0; i < other.count; i++) {
+				add(other.latencies[i], true);
+			}
+			errors += other.errors;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public int getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return the latency of the percentile (0 to 100) in milliseconds
+		 */
+		public double percentileMillis(double percentile) {
+			if (count == 0) {
+				return 0;
+			}
+			if (!sorted) {
+				Arrays.sort(latencies, 0, count);
+				sorted = true;
+			}
+			int index = (int) Math.ceil(percentile / 100 * count) - 1;
+			return latencies[Math.max(0, Math.min(count - 1, index))] / 1e6;
+		}
+	}
+}
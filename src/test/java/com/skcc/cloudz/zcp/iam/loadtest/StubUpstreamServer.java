@@ -0,0 +1,197 @@
+package com.skcc.cloudz.zcp.iam.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stub of the kubernetes api server and keycloak on one port. The
+ * requests under /auth go to keycloak and the others to the api server.
+ *
+ * Every request waits for the configured latency of its upstream before it is
+ * answered, and is counted by its route (the method and the path with the
+ * names replaced by placeholders), so the upstream calls of a request can be
+ * compared between the runs.
+ */
+public class StubUpstreamServer {
+
+	private final KubeApiStub kube;
+
+	private final KeycloakStub keycloak;
+
+	private final long kubeLatencyMillis;
+
+	private final long keycloakLatencyMillis;
+
+	private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+
+	private final CountDownLatch stopped = new CountDownLatch(1);
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	public StubUpstreamServer(KubeApiStub kube, KeycloakStub keycloak, long kubeLatencyMillis,
+			long keycloakLatencyMillis) {
+		this.kube = kube;
+		this.keycloak = keycloak;
+		this.kubeLatencyMillis = kubeLatencyMillis;
+		this.keycloakLatencyMillis = keycloakLatencyMillis;
+	}
+
+	public void start() throws IOException {
+		// otherwise the body, which is written after the headers, waits for the delayed ack of the client (about
+		// 40ms). It is read once when the server is first created.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+		server.createContext("/", this::handle);
+		executor = Executors.newCachedThreadPool(r -> {
+			Thread thread = new Thread(r, "stub-upstream");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	public void stop() {
+		// releases the watches
+		stopped.countDown();
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+
+	public String getBaseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * @return the number of the calls by route, sorted by route
+	 */
+	public Map<String, Long> getCalls() {
+		Map<String, Long> snapshot = new TreeMap<>();
+		for (Map.Entry<String, AtomicLong> entry : calls.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().get());
+		}
+		return snapshot;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			String path = exchange.getRequestURI().getPath();
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			byte[] body = readBody(exchange.getRequestBody());
+
+			Response response = null;
+			if (path.startsWith(KeycloakStub.PREFIX)) {
+				sleep(keycloakLatencyMillis);
+				response = keycloak.handle(method, path, query, body);
+			} else {
+				sleep(kubeLatencyMillis);
+				response = kube.handle(method, path, query, body);
+			}
+			calls.computeIfAbsent(response.route, r -> new AtomicLong()).incrementAndGet();
+
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			if (response.watchSeconds > 0) {
+				// the watch is kept open without any event until it times out or the stub is stopped
+				exchange.sendResponseHeaders(200, 0);
+				exchange.getResponseBody().flush();
+				stopped.await(response.watchSeconds, TimeUnit.SECONDS);
+				return;
+			}
+
+			exchange.sendResponseHeaders(response.status, response.body.length == 0 ? -1 : response.body.length);
+			if (response.body.length > 0) {
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(response.body);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RuntimeException e) {
+			calls.computeIfAbsent("ERROR " + e.getClass().getSimpleName(), r -> new AtomicLong()).incrementAndGet();
+			exchange.sendResponseHeaders(500, -1);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void sleep(long millis) throws InterruptedException {
+		if (millis > 0) {
+			Thread.sleep(millis);
+		}
+	}
+
+	private static byte[] readBody(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery == null) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int index = pair.indexOf('=');
+			String key = index < 0 ? pair : pair.substring(0, index);
+			String value = index < 0 ? "" : pair.substring(index + 1);
+			query.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+		}
+		return query;
+	}
+
+	public static class Response {
+		private final String route;
+		private final int status;
+		private final byte[] body;
+		private final long watchSeconds;
+
+		private Response(String route, int status, byte[] body, long watchSeconds) {
+			this.route = route;
+			this.status = status;
+			this.body = body;
+			this.watchSeconds = watchSeconds;
+		}
+
+		public static Response json(String route, int status, String body) {
+			return new Response(route, status, body.getBytes(StandardCharsets.UTF_8), 0);
+		}
+
+		public static Response json(String route, int status, byte[] body) {
+			return new Response(route, status, body, 0);
+		}
+
+		public static Response watch(String route, long timeoutSeconds) {
+			return new Response(route, 200, new byte[0], timeoutSeconds);
+		}
+	}
+}
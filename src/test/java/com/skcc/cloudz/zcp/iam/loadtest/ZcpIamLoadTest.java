@@ -0,0 +1,220 @@
+package com.skcc.cloudz.zcp.iam.loadtest;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.skcc.cloudz.zcp.Startup;
+import com.skcc.cloudz.zcp.iam.fixture.KubeFixtures;
+
+import io.kubernetes.client.models.V1ClusterRole;
+import io.kubernetes.client.models.V1ClusterRoleBinding;
+import io.kubernetes.client.models.V1LimitRange;
+import io.kubernetes.client.models.V1Namespace;
+import io.kubernetes.client.models.V1Node;
+import io.kubernetes.client.models.V1Pod;
+import io.kubernetes.client.models.V1ResourceQuota;
+import io.kubernetes.client.models.V1RoleBinding;
+import io.kubernetes.client.models.V1beta2Deployment;
+
+/**
+ * Starts the service against the stubs of the api server and keycloak, sends
+ * the mix of the dashboard and the admin requests, and reports the p50 and the
+ * p99 latencies and the upstream calls of each endpoint to the console and
+ * target/loadtest-report.txt.
+ *
+ * It is run by "mvn -Ploadtest test". The size of the cluster, the latencies
+ * of the stubs and the load are given by the system properties:
+ * loadtest.nodes, loadtest.pods, loadtest.users, loadtest.bindingsPerNamespace,
+ * loadtest.kubeLatencyMillis, loadtest.keycloakLatencyMillis, loadtest.threads,
+ * loadtest.warmupSeconds, loadtest.durationSeconds and loadtest.maxErrorRatio.
+ * loadtest.recordings is a directory of the recorded api server responses
+ * (see {@link KubeApiStub}). The properties of the service can be given as the
+ * system properties as well, e.g. -Dzcp.kube.cache.enabled=false.
+ */
+public class ZcpIamLoadTest {
+
+	private static final int CALIBRATION_REQUESTS = 20;
+
+	private static StubUpstreamServer upstream;
+
+	private static ConfigurableApplicationContext context;
+
+	private static int namespaceCount;
+
+	private static int userCount;
+
+	@BeforeClass
+	public static void start() throws IOException {
+		Assume.assumeTrue("set loadtest.enabled to run the load test", Boolean.getBoolean("loadtest.enabled"));
+
+		int nodeCount = Integer.getInteger("loadtest.nodes", 50);
+		int podCount = Integer.getInteger("loadtest.pods", 5000);
+		userCount = Integer.getInteger("loadtest.users", 200);
+		namespaceCount = Math.max(1, podCount / 100);
+		int bindingsPerNamespace = Math.min(userCount, Integer.getInteger("loadtest.bindingsPerNamespace", 5));
+		String recordings = System.getProperty("loadtest.recordings");
+
+		KubeFixtures fixtures = new KubeFixtures();
+		String core = "/api/v1";
+		String rbac = "/apis/rbac.authorization.k8s.io/v1";
+		KubeApiStub kube = new KubeApiStub(recordings == null ? null : new File(recordings))
+				.register(core, "nodes", "NodeList", fixtures.nodes(nodeCount).getItems(), V1Node::getMetadata)
+				.register(core, "pods", "PodList", fixtures.pods(podCount, nodeCount, namespaceCount).getItems(),
+						V1Pod::getMetadata, ZcpIamLoadTest::podFields)
+				.register(core, "namespaces", "NamespaceList", fixtures.namespaces(namespaceCount).getItems(),
+						V1Namespace::getMetadata)
+				.register(core, "resourcequotas", "ResourceQuotaList",
+						fixtures.resourceQuotas(namespaceCount).getItems(), V1ResourceQuota::getMetadata)
+				.register(core, "limitranges", "LimitRangeList", fixtures.limitRanges(namespaceCount).getItems(),
+						V1LimitRange::getMetadata)
+				.register(rbac, "rolebindings", "RoleBindingList",
+						fixtures.roleBindings(namespaceCount, bindingsPerNamespace).getItems(),
+						V1RoleBinding::getMetadata)
+				.register(rbac, "clusterrolebindings", "ClusterRoleBindingList",
+						fixtures.clusterRoleBindings(userCount).getItems(), V1ClusterRoleBinding::getMetadata)
+				.register(rbac, "clusterroles", "ClusterRoleList", fixtures.clusterRoles().getItems(),
+						V1ClusterRole::getMetadata)
+				.register("/apis/apps/v1beta2", "deployments", "DeploymentList",
+						fixtures.deployments(namespaceCount, 3).getItems(), V1beta2Deployment::getMetadata)
+				.nodeMetrics(fixtures.nodeMetrics(nodeCount));
+
+		upstream = new StubUpstreamServer(kube, new KeycloakStub(userCount),
+				Long.getLong("loadtest.kubeLatencyMillis", 5), Long.getLong("loadtest.keycloakLatencyMillis", 5));
+		upstream.start();
+
+		context = SpringApplication.run(Startup.class,
+				"--server.port=0",
+				"--kube.client.basePath=" + upstream.getBaseUrl(),
+				"--kube.server.apiserver.endpoint=" + upstream.getBaseUrl(),
+				"--kube.client.api.output.pretty=false",
+				"--keycloak.serverUrl=" + upstream.getBaseUrl() + KeycloakStub.PREFIX,
+				"--zcp.metrics.history.enabled=false",
+				"--logging.level.com.skcc.cloudz.zcp=WARN",
+				"--logging.level.io.kubernetes.client=WARN",
+				"--logging.level.org.keycloak=WARN",
+				"--logging.level.org.hibernate=WARN",
+				"--logging.level.org.springframework.security=WARN",
+				"--logging.level.org.springframework.web=WARN");
+	}
+
+	@AfterClass
+	public static void stop() {
+		if (context != null) {
+			context.close();
+		}
+		if (upstream != null) {
+			upstream.stop();
+		}
+	}
+
+	@Test
+	public void dashboardAndAdminTraffic() throws Exception {
+		String adminId = KeycloakStub.userId(0);
+		LoadDriver driver = new LoadDriver("http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port"),
+				upstream)
+				// the dashboard, which polls the metrics
+				.endpoint("GET /iam/metrics/nodes", 10, r -> "/iam/metrics/nodes")
+				.endpoint("GET /iam/metrics/namespaces", 10, r -> "/iam/metrics/namespaces?userId=" + adminId)
+				.endpoint("GET /iam/metrics/pods/status", 8, r -> "/iam/metrics/pods/status")
+				.endpoint("GET /iam/metrics/deployments/status", 8, r -> "/iam/metrics/deployments/status")
+				.endpoint("GET /iam/metrics/nodes/status", 8, r -> "/iam/metrics/nodes/status")
+				.endpoint("GET /iam/metrics/users/status", 8, r -> "/iam/metrics/users/status")
+				.endpoint("GET /iam/metrics/cluster/cpu/status/", 8, r -> "/iam/metrics/cluster/cpu/status/")
+				.endpoint("GET /iam/metrics/cluster/memory/status/", 8, r -> "/iam/metrics/cluster/memory/status/")
+				// the admin pages
+				.endpoint("GET /iam/users", 6, r -> "/iam/users?first=" + 20 * r.nextInt(Math.max(1, userCount / 20)) + "&max=20")
+				.endpoint("GET /iam/user/{id}", 6, r -> "/iam/user/" + randomUserId(r))
+				.endpoint("GET /iam/user/{id}/roleBindings", 4, r -> "/iam/user/" + randomUserId(r) + "/roleBindings")
+				.endpoint("GET /iam/namespaces", 4, r -> "/iam/namespaces")
+				.endpoint("GET /iam/namespace/{namespace}/users", 4, r -> "/iam/namespace/" + randomNamespace(r) + "/users")
+				.endpoint("GET /iam/namespace/{namespace}/resource", 4,
+						r -> "/iam/namespace/" + randomNamespace(r) + "/resource?userId=" + adminId)
+				.endpoint("GET /iam/rbac/clusterRoles", 2, r -> "/iam/rbac/clusterRoles?type=namespace");
+
+		int threads = Integer.getInteger("loadtest.threads", 16);
+		driver.run(threads, Long.getLong("loadtest.warmupSeconds", 10) * 1000, 1);
+		Map<String, Map<String, Double>> upstreamCalls = driver.calibrate(CALIBRATION_REQUESTS);
+		Map<String, LoadDriver.Stats> stats = driver.run(threads, Long.getLong("loadtest.durationSeconds", 60) * 1000,
+				1000);
+
+		String report = report(threads, stats, upstreamCalls);
+		System.out.println(report);
+		File target = new File("target");
+		target.mkdirs();
+		Files.write(new File(target, "loadtest-report.txt").toPath(), report.getBytes(StandardCharsets.UTF_8));
+
+		long requests = 0;
+		long errors = 0;
+		for (LoadDriver.Stats endpoint : stats.values()) {
+			requests += endpoint.getCount();
+			errors += endpoint.getErrors();
+		}
+		double maxErrorRatio = Double.parseDouble(System.getProperty("loadtest.maxErrorRatio", "0.01"));
+		assertTrue(errors + " of " + requests + " requests failed", requests > 0 && errors <= requests * maxErrorRatio);
+	}
+
+	private String report(int threads, Map<String, LoadDriver.Stats> stats,
+			Map<String, Map<String, Double>> upstreamCalls) {
+		StringWriter out = new StringWriter();
+		PrintWriter writer = new PrintWriter(out);
+		writer.printf("threads=%d, namespaces=%d, users=%d%n%n", threads, namespaceCount, userCount);
+		writer.printf("%-45s %8s %7s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "p50(ms)", "p99(ms)",
+				"max(ms)", "upstream");
+		for (Map.Entry<String, LoadDriver.Stats> entry : stats.entrySet()) {
+			LoadDriver.Stats endpoint = entry.getValue();
+			double calls = 0;
+			for (double perRequest : upstreamCalls.getOrDefault(entry.getKey(), new HashMap<>()).values()) {
+				calls += perRequest;
+			}
+			writer.printf("%-45s %8d %7d %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), endpoint.getCount(),
+					endpoint.getErrors(), endpoint.percentileMillis(50), endpoint.percentileMillis(99),
+					endpoint.percentileMillis(100), calls);
+		}
+
+		writer.printf("%nupstream calls per request%n");
+		for (Map.Entry<String, Map<String, Double>> entry : upstreamCalls.entrySet()) {
+			writer.printf("%s%n", entry.getKey());
+			for (Map.Entry<String, Double> call : entry.getValue().entrySet()) {
+				writer.printf("    %6.2f  %s%n", call.getValue(), call.getKey());
+			}
+		}
+
+		writer.printf("%nupstream calls since the start, the warmup and the calibration included%n");
+		for (Map.Entry<String, Long> call : upstream.getCalls().entrySet()) {
+			writer.printf("%10d  %s%n", call.getValue(), call.getKey());
+		}
+		writer.flush();
+		return out.toString();
+	}
+
+	private static String randomUserId(Random random) {
+		return KeycloakStub.userId(random.nextInt(userCount));
+	}
+
+	private static String randomNamespace(Random random) {
+		return KubeFixtures.namespaceName(random.nextInt(namespaceCount));
+	}
+
+	private static Map<String, String> podFields(V1Pod pod) {
+		Map<String, String> fields = new HashMap<>();
+		fields.put("spec.nodeName", pod.getSpec().getNodeName());
+		fields.put("status.phase", pod.getStatus().getPhase());
+		return fields;
+	}
+}
@@ -0,0 +1,103 @@
+package com.skcc.cloudz.zcp.iam.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.skcc.cloudz.zcp.iam.manager.cache.KeyCloakUserCache;
+
+/**
+ * Looks up the users by username against a realm whose search is a partial
+ * match, like the one of keycloak.
+ */
+public class KeyCloakManagerTest {
+
+	private static final int PAGE_SIZE = 10;
+
+	private final List<UserRepresentation> realmUsers = new ArrayList<>();
+
+	private KeyCloakManager keyCloakManager;
+
+	@Before
+	public void setUp() {
+		// "kim" is the last one, so the kim0..kim24 which also match come first
+		for (int i = 0; i < 25; i++) {
+			realmUsers.add(user("kim" + i));
+		}
+		realmUsers.add(user("lee"));
+		realmUsers.add(user("kim"));
+
+		UsersResource usersResource = mock(UsersResource.class);
+		when(usersResource.search(anyString(), any(), any(), any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+			Object[] arguments = invocation.getArguments();
+			return search((String) arguments[0], (Integer) arguments[4], (Integer) arguments[5]);
+		});
+		RealmResource realmResource = mock(RealmResource.class);
+		when(realmResource.users()).thenReturn(usersResource);
+		Keycloak keycloak = mock(Keycloak.class);
+		when(keycloak.realm("zcp")).thenReturn(realmResource);
+
+		KeyCloakUserCache userCache = new KeyCloakUserCache();
+		ReflectionTestUtils.setField(userCache, "maxSize", 100);
+		ReflectionTestUtils.setField(userCache, "ttlSeconds", 60L);
+
+		keyCloakManager = new KeyCloakManager();
+		ReflectionTestUtils.setField(keyCloakManager, "keycloak", keycloak);
+		ReflectionTestUtils.setField(keyCloakManager, "realm", "zcp");
+		ReflectionTestUtils.setField(keyCloakManager, "pageSize", PAGE_SIZE);
+		ReflectionTestUtils.setField(keyCloakManager, "scanThreshold", 100);
+		ReflectionTestUtils.setField(keyCloakManager, "userCache", userCache);
+	}
+
+	@Test
+	public void exactMatchAfterFirstPage() {
+		Map<String, UserRepresentation> users = keyCloakManager.getUserMapByUsernames(Arrays.asList("kim", "lee"));
+
+		assertEquals(2, users.size());
+		assertEquals("kim", users.get("kim").getUsername());
+		assertEquals("lee", users.get("lee").getUsername());
+	}
+
+	@Test
+	public void unknownUsernameIsLeftOut() {
+		Map<String, UserRepresentation> users = keyCloakManager.getUserMapByUsernames(Arrays.asList("ki", "park"));
+
+		assertFalse(users.containsKey("ki"));
+		assertFalse(users.containsKey("park"));
+	}
+
+	private List<UserRepresentation> search(String username, int first, int max) {
+		List<UserRepresentation> page = new ArrayList<>();
+		int matched = 0;
+		for (UserRepresentation user : realmUsers) {
+			if (user.getUsername().contains(username) && matched++ >= first && page.size() < max) {
+				page.add(user);
+			}
+		}
+		return page;
+	}
+
+	private static UserRepresentation user(String username) {
+		UserRepresentation user = new UserRepresentation();
+		user.setId("id-" + username);
+		user.setUsername(username);
+		return user;
+	}
+}